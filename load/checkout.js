@@ -0,0 +1,30 @@
+// k6 script: POST /price with a mix of small, bundle-heavy and count-map baskets, plus a small
+// share of unknown-SKU (404) requests. Target and load come from the environment:
+//   BASE_URL (http://localhost:8081), VUS (100), DURATION (60s)
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+
+export const options = {
+  vus: Number(__ENV.VUS || 100),
+  duration: __ENV.DURATION || '60s',
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const BODIES = [
+  JSON.stringify({ items: 'AAAB' }),
+  JSON.stringify({ items: 'CDBAAABBBAAAAAAA' }),
+  JSON.stringify({ items: 'A'.repeat(500) + 'B'.repeat(200) }),
+  JSON.stringify({ counts: { A: 500000, B: 3, C: 7 } }),
+  JSON.stringify({ runs: 'A120B40C3D9' }),
+];
+const UNKNOWN = JSON.stringify({ items: 'AAZ' });
+const PARAMS = { headers: { 'Content-Type': 'application/json' } };
+
+export default function () {
+  const unknown = Math.random() < 0.02;
+  const body = unknown ? UNKNOWN : BODIES[Math.floor(Math.random() * BODIES.length)];
+  const res = http.post(`${BASE_URL}/api/v1/checkout/price`, body, PARAMS);
+  check(res, { 'expected status': (r) => r.status === (unknown ? 404 : 200) });
+}
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Runs the same k6 load against the servlet and reactive builds, one at a time, at each
+# concurrency level, and prints req/s and latency percentiles side by side.
+#
+#   load/compare.sh                      # VUS_LEVELS="50 200 800" DURATION=60s
+#   JAVA_VERSION=21 SERVLET_PROFILES=vthreads load/compare.sh   # servlet on virtual threads
+#
+# Needs docker (compose v2) and jq; k6 runs from its container image.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+VUS_LEVELS=${VUS_LEVELS:-"50 200 800"}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-20s}
+OUT=results/$(date +%Y%m%d-%H%M%S)
+mkdir -p "$OUT"
+
+docker compose up -d --build --wait db servlet reactive
+
+run() { # name port vus duration
+  docker run --rm --network host -v "$PWD:/load" grafana/k6 run --quiet \
+    -e BASE_URL="http://localhost:$2" -e VUS="$3" -e DURATION="$4" \
+    --summary-export "/load/$OUT/$1-$3.json" /load/checkout.js >/dev/null
+}
+
+for svc in servlet:8081 reactive:8082; do
+  name=${svc%%:*} port=${svc##*:}
+  run "warmup-$name" "$port" 50 "$WARMUP"
+  for vus in $VUS_LEVELS; do
+    echo "== $name, $vus VUs, $DURATION"
+    run "$name" "$port" "$vus" "$DURATION"
+  done
+done
+
+printf '\n%-9s %6s %10s %9s %9s %9s %8s\n' build vus req/s p50_ms p95_ms p99_ms failed
+for vus in $VUS_LEVELS; do
+  for name in servlet reactive; do
+    jq -r --arg n "$name" --arg v "$vus" '[
+        $n, $v,
+        (.metrics.http_reqs.rate | floor),
+        (.metrics.http_req_duration["p(50)"] * 100 | round / 100),
+        (.metrics.http_req_duration["p(95)"] * 100 | round / 100),
+        (.metrics.http_req_duration["p(99)"] * 100 | round / 100),
+        (.metrics.checks.fails)
+      ] | @tsv' "$OUT/$name-$vus.json" |
+      awk -F'\t' '{ printf "%-9s %6s %10s %9s %9s %9s %8s\n", $1, $2, $3, $4, $5, $6, $7 }'
+  done
+done | tee "$OUT/summary.txt"
+
+echo
+echo "Per-run k6 summaries: load/$OUT"
+docker compose down
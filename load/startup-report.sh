@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Cold-start report: for each build, starts a fresh container RUNS times and records the time
+# until /actuator/health is UP and the JVM's resident memory (VmRSS of PID 1) at that point.
+#
+#   load/startup-report.sh                         # servlet (WAR), servlet-jar (AOT + CDS)
+#   SERVICES="servlet servlet-jar reactive" RUNS=5 load/startup-report.sh
+#
+# Needs docker (compose v2) and curl.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+SERVICES=${SERVICES:-"servlet servlet-jar"}
+RUNS=${RUNS:-3}
+declare -A PORTS=([servlet]=8081 [reactive]=8082 [servlet-jar]=8083)
+
+docker compose build $SERVICES
+docker compose up -d --wait db
+
+printf '%-12s %4s %10s %9s\n' build run ready_ms rss_mb
+for svc in $SERVICES; do
+  for run in $(seq 1 "$RUNS"); do
+    docker compose rm -sf "$svc" >/dev/null 2>&1
+    start=$(date +%s%N)
+    docker compose up -d --no-deps "$svc" >/dev/null 2>&1
+    until curl -fs "http://localhost:${PORTS[$svc]}/actuator/health" | grep -q '"status":"UP"'; do
+      sleep 0.05
+    done
+    ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+    rss_kb=$(docker compose exec -T "$svc" sh -c "grep VmRSS /proc/1/status" | awk '{ print $2 }')
+    printf '%-12s %4s %10s %9s\n' "$svc" "$run" "$ready_ms" "$(( rss_kb / 1024 ))"
+  done
+done
+
+docker compose down
@@ -0,0 +1,16 @@
+package com.product.service.checkoutkata.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * WebFlux + R2DBC deployment of the checkout API. Serves the same endpoints as the servlet build
+ * and prices with the same {@code BasketPricer}; only the I/O around it is non-blocking.
+ */
+@SpringBootApplication
+public class ReactiveCheckoutApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(ReactiveCheckoutApplication.class, args);
+  }
+}
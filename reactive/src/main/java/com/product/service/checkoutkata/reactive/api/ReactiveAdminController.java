@@ -0,0 +1,64 @@
+package com.product.service.checkoutkata.reactive.api;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.dto.PricingRuleDto;
+import com.product.service.checkoutkata.dto.ProductDto;
+import com.product.service.checkoutkata.reactive.service.ReactiveCatalogService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Same contract as the servlet {@code AdminController}. */
+@Tag(name = "Admin", description = "Catalog & pricing rule administration")
+@RestController
+@RequestMapping("/api/v1/admin")
+public class ReactiveAdminController {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveAdminController.class);
+  private final ReactiveCatalogService catalog;
+
+  public ReactiveAdminController(ReactiveCatalogService catalog) {
+    this.catalog = catalog;
+  }
+
+  @Operation(summary = "List all products")
+  @GetMapping("/products")
+  public Flux<Product> products() {
+    LOGGER.info("Fetching all products");
+    return catalog.allProducts();
+  }
+
+  @Operation(summary = "Upsert a product")
+  @PostMapping("/products")
+  public Mono<Product> upsertProduct(@RequestBody @Valid ProductDto dto) {
+    LOGGER.info("Upserting product with SKU: {}", dto.sku());
+    return catalog.upsertProduct(new Product(dto.sku(), dto.unitPrice()));
+  }
+
+  @Operation(summary = "Add a pricing rule")
+  @PostMapping("/rules")
+  public Mono<PricingRule> addRule(@RequestBody @Valid PricingRuleDto dto) {
+    LOGGER.info("Adding pricing rule for SKU: {}", dto.sku());
+    OffsetDateTime starts =
+        (dto.startsAt() == null) ? OffsetDateTime.now(ZoneOffset.UTC) : dto.startsAt();
+    return catalog.addRule(
+        new PricingRule(dto.sku(), dto.ruleType(), dto.xQty(), dto.yPrice(), starts, dto.endsAt()));
+  }
+
+  @Operation(summary = "List all pricing rules")
+  @GetMapping("/rules")
+  public Flux<PricingRule> rules() {
+    LOGGER.info("Fetching all pricing rules");
+    return catalog.allRules();
+  }
+}
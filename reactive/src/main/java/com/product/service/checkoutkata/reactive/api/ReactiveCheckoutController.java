@@ -0,0 +1,135 @@
+package com.product.service.checkoutkata.reactive.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.product.service.checkoutkata.domain.APIError;
+import com.product.service.checkoutkata.dto.BasketResult;
+import com.product.service.checkoutkata.dto.BatchCheckoutRequest;
+import com.product.service.checkoutkata.dto.BatchCheckoutResponse;
+import com.product.service.checkoutkata.dto.CheckoutRequest;
+import com.product.service.checkoutkata.dto.CheckoutResponse;
+import com.product.service.checkoutkata.reactive.service.ReactiveCheckoutService;
+import com.product.service.checkoutkata.service.BasketCounts;
+import com.product.service.checkoutkata.service.BasketOutcome;
+import com.product.service.checkoutkata.service.InvalidBasketException;
+import com.product.service.checkoutkata.service.PricingResult;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/** Same contract as the servlet {@code CheckoutController}, minus the Server-Timing header. */
+@Tag(name = "Checkout", description = "Price calculation APIs")
+@RestController
+@RequestMapping("/api/v1/checkout")
+public class ReactiveCheckoutController {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveCheckoutController.class);
+  private final ReactiveCheckoutService checkout;
+  private final ObjectReader requestReader;
+  private final Validator validator;
+  private final int inlineBatchSize;
+
+  public ReactiveCheckoutController(
+      ReactiveCheckoutService checkout,
+      ObjectMapper om,
+      Validator validator,
+      @Value("${checkout.batch.chunk-size:64}") int inlineBatchSize) {
+    this.checkout = checkout;
+    this.requestReader = om.readerFor(CheckoutRequest.class);
+    this.validator = validator;
+    this.inlineBatchSize = inlineBatchSize;
+  }
+
+  @Operation(summary = "Calculate total price")
+  @PostMapping("/price")
+  public Mono<CheckoutResponse> price(@Valid @RequestBody CheckoutRequest req) {
+    Mono<PricingResult> result =
+        (req.items() != null)
+            ? checkout.priceOfWithDetails(req.items())
+            : Mono.fromSupplier(req::toCounts).flatMap(checkout::priceOfWithDetails);
+    return result.map(r -> new CheckoutResponse(r.total(), r.counts().toItemCounts(), r.offers()));
+  }
+
+  @Operation(summary = "Calculate totals for many baskets")
+  @PostMapping("/price/batch")
+  public Mono<BatchCheckoutResponse> priceBatch(@Valid @RequestBody BatchCheckoutRequest req) {
+    LOGGER.info("Received batch pricing request with {} baskets", req.baskets().size());
+    Mono<Function<String, BasketOutcome>> pricer = checkout.pinned();
+    // large batches are CPU work for tens of milliseconds; keep them off the event loop
+    if (req.baskets().size() > inlineBatchSize) pricer = pricer.publishOn(Schedulers.parallel());
+    return pricer.map(p -> priceAll(req.baskets(), p));
+  }
+
+  private static BatchCheckoutResponse priceAll(
+      List<String> baskets, Function<String, BasketOutcome> pricer) {
+    List<BasketResult> results = new ArrayList<>(baskets.size());
+    int failed = 0;
+    for (int i = 0; i < baskets.size(); i++) {
+      BasketOutcome o = pricer.apply(baskets.get(i));
+      if (o.isOk()) {
+        PricingResult r = o.result();
+        results.add(new BasketResult(i, r.total(), r.counts().toItemCounts(), r.offers(), null));
+      } else {
+        failed++;
+        results.add(BasketResult.failed(i, o.error()));
+      }
+    }
+    LOGGER.info("Batch pricing completed. Priced={}, Failed={}", results.size() - failed, failed);
+    return new BatchCheckoutResponse(results.size() - failed, failed, results);
+  }
+
+  @Operation(summary = "Calculate totals for a stream of baskets")
+  @PostMapping(
+      value = "/price/stream",
+      consumes = MediaType.APPLICATION_NDJSON_VALUE,
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Object> priceStream(@RequestBody Flux<String> lines) {
+    // lines are pulled as the response is written, so a slow client applies backpressure
+    return checkout
+        .pinnedCounts()
+        .flatMapMany(
+            pricer -> lines.filter(line -> !line.isBlank()).map(line -> priceLine(line, pricer)));
+  }
+
+  private Object priceLine(String line, Function<BasketCounts, BasketOutcome> pricer) {
+    BasketOutcome o = outcome(line, pricer);
+    if (!o.isOk()) return new APIError(o.error());
+    PricingResult r = o.result();
+    return new CheckoutResponse(r.total(), r.counts().toItemCounts(), r.offers());
+  }
+
+  private BasketOutcome outcome(String line, Function<BasketCounts, BasketOutcome> pricer) {
+    CheckoutRequest req;
+    try {
+      req = requestReader.readValue(line);
+    } catch (JsonProcessingException e) {
+      return BasketOutcome.failed("Malformed JSON record");
+    }
+    // the same shapes and rules as POST /price
+    String invalid = CheckoutRequest.violation(validator, req);
+    if (invalid != null) return BasketOutcome.failed(invalid);
+    try {
+      return pricer.apply(req.toCounts());
+    } catch (InvalidBasketException e) {
+      return BasketOutcome.failed(e.getMessage());
+    }
+  }
+}
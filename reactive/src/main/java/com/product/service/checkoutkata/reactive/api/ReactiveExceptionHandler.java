@@ -0,0 +1,39 @@
+package com.product.service.checkoutkata.reactive.api;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import com.product.service.checkoutkata.service.InvalidBasketException;
+
+/** Same error mapping as the servlet {@code GlobalExceptionHandler}. */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<Map<String, Object>> notFound(NoSuchElementException e) {
+    LOGGER.warn("Not found: {}", e.getMessage());
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+  }
+
+  @ExceptionHandler(InvalidBasketException.class)
+  public ResponseEntity<Map<String, Object>> invalidArgument(InvalidBasketException e) {
+    LOGGER.debug("Invalid argument: {}", e.getMessage());
+    return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+  }
+
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<Map<String, Object>> badReq(WebExchangeBindException e) {
+    var err = e.getBindingResult().getAllErrors().get(0);
+    var msg = (err.getDefaultMessage() != null) ? err.getDefaultMessage() : "Invalid request";
+    return ResponseEntity.badRequest().body(Map.of("error", msg));
+  }
+}
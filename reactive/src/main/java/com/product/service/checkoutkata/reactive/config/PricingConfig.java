@@ -0,0 +1,27 @@
+package com.product.service.checkoutkata.reactive.config;
+
+import java.time.Clock;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.product.service.checkoutkata.service.CheckoutMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Shared components from the core jar, which sits outside this application's component scan. */
+@Configuration
+public class PricingConfig {
+
+  /** Same meter names as the servlet build, so both deployments share dashboards. */
+  @Bean
+  public CheckoutMetrics checkoutMetrics(MeterRegistry registry) {
+    return new CheckoutMetrics(registry);
+  }
+
+  /** Decides which pricing rules are active; replaceable in tests. */
+  @Bean
+  public Clock clock() {
+    return Clock.systemDefaultZone();
+  }
+}
@@ -0,0 +1,82 @@
+package com.product.service.checkoutkata.reactive.repo;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC access to {@code products} and {@code pricing_rules}. Rows are mapped onto the same domain
+ * classes the JPA build uses (columns follow the snake_case names of their fields); writes are
+ * plain SQL so ids come from the database via {@code RETURNING}.
+ */
+@Repository
+public class CatalogRepository {
+  private static final String PRODUCT_COLUMNS = "id, sku, unit_price";
+  private static final String RULE_COLUMNS =
+      "id, sku, rule_type, x_qty, y_price, starts_at, ends_at";
+
+  private final DatabaseClient db;
+  private final R2dbcConverter converter;
+
+  public CatalogRepository(R2dbcEntityTemplate template) {
+    this.db = template.getDatabaseClient();
+    this.converter = template.getConverter();
+  }
+
+  public Flux<Product> findAllProducts() {
+    return db.sql("SELECT " + PRODUCT_COLUMNS + " FROM products ORDER BY id")
+        .map((row, meta) -> converter.read(Product.class, row, meta))
+        .all();
+  }
+
+  /** All rules ordered by id, the order the pricing engine reports offers in. */
+  public Flux<PricingRule> findAllRules() {
+    return db.sql("SELECT " + RULE_COLUMNS + " FROM pricing_rules ORDER BY id")
+        .map((row, meta) -> converter.read(PricingRule.class, row, meta))
+        .all();
+  }
+
+  /** Inserts the product, or updates the unit price of the existing one with the same SKU. */
+  public Mono<Product> upsertProduct(Product p) {
+    return db.sql(
+            "INSERT INTO products (sku, unit_price) VALUES (:sku, :unitPrice)"
+                + " ON CONFLICT (sku) DO UPDATE SET unit_price = EXCLUDED.unit_price"
+                + " RETURNING "
+                + PRODUCT_COLUMNS)
+        .bind("sku", p.getSku())
+        .bind("unitPrice", p.getUnitPrice())
+        .map((row, meta) -> converter.read(Product.class, row, meta))
+        .one();
+  }
+
+  public Mono<PricingRule> insertRule(PricingRule r) {
+    DatabaseClient.GenericExecuteSpec spec =
+        db.sql(
+                "INSERT INTO pricing_rules (sku, rule_type, x_qty, y_price, starts_at, ends_at)"
+                    + " VALUES (:sku, :ruleType, :xQty, :yPrice, :startsAt, :endsAt)"
+                    + " RETURNING "
+                    + RULE_COLUMNS)
+            .bind("sku", r.getSku())
+            .bind("ruleType", r.getRuleType().name());
+    spec = bindNullable(spec, "xQty", r.getXQty(), Integer.class);
+    spec = bindNullable(spec, "yPrice", r.getYPrice(), BigDecimal.class);
+    spec = bindNullable(spec, "startsAt", r.getStartsAt(), OffsetDateTime.class);
+    spec = bindNullable(spec, "endsAt", r.getEndsAt(), OffsetDateTime.class);
+    return spec.map((row, meta) -> converter.read(PricingRule.class, row, meta)).one();
+  }
+
+  private static <T> DatabaseClient.GenericExecuteSpec bindNullable(
+      DatabaseClient.GenericExecuteSpec spec, String name, T value, Class<T> type) {
+    return (value != null) ? spec.bind(name, value) : spec.bindNull(name, type);
+  }
+}
@@ -0,0 +1,115 @@
+package com.product.service.checkoutkata.reactive.service;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Reactive counterpart of {@code CatalogChangeListener}: holds one dedicated (unpooled) connection
+ * in {@code LISTEN catalog_changed} and reloads the snapshot when the catalog triggers fire.
+ * Notifications that arrive while a reload runs collapse into one follow-up reload, and every
+ * (re)connect reloads in case something was missed while the connection was down.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "checkout.catalog.listen.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class CatalogChangeSubscriber implements SmartLifecycle {
+  static final String CHANNEL = "catalog_changed";
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogChangeSubscriber.class);
+
+  private final ConnectionFactory connections;
+  private final ReactiveCatalogSnapshotHolder snapshots;
+  private final Duration reconnectBackoff;
+  private volatile Disposable subscription;
+
+  public CatalogChangeSubscriber(
+      ConnectionFactory connections,
+      ReactiveCatalogSnapshotHolder snapshots,
+      @Value("${checkout.catalog.listen.reconnect-backoff:PT2S}") Duration reconnectBackoff) {
+    this.connections = connections;
+    this.snapshots = snapshots;
+    this.reconnectBackoff = reconnectBackoff;
+  }
+
+  @Override
+  public void start() {
+    subscription =
+        Flux.usingWhen(
+                Mono.from(unpooled(connections).create()).cast(PostgresqlConnection.class),
+                this::listen,
+                PostgresqlConnection::close)
+            .onBackpressureLatest()
+            .concatMap(change -> reload(), 1)
+            .retryWhen(
+                Retry.fixedDelay(Long.MAX_VALUE, reconnectBackoff)
+                    .doBeforeRetry(
+                        s ->
+                            LOGGER.warn(
+                                "Catalog listener connection lost, retrying in {}",
+                                reconnectBackoff,
+                                s.failure())))
+            .subscribe();
+  }
+
+  /** One element on connect, then one per notification. */
+  private Flux<String> listen(PostgresqlConnection c) {
+    return c.createStatement("LISTEN " + CHANNEL)
+        .execute()
+        .flatMap(PostgresqlResult::getRowsUpdated)
+        .then(
+            Mono.fromRunnable(() -> LOGGER.info("Listening for catalog changes on '{}'", CHANNEL)))
+        .thenMany(
+            Flux.concat(
+                Mono.just("connected"),
+                c.getNotifications()
+                    .map(n -> n.getParameter() == null ? CHANNEL : n.getParameter())
+                    .doOnNext(p -> LOGGER.debug("Catalog change notification: {}", p))));
+  }
+
+  private Mono<?> reload() {
+    // a failed reload must not drop the LISTEN connection; the next change retries it
+    return snapshots
+        .refresh()
+        .onErrorResume(
+            e -> {
+              LOGGER.warn("Catalog snapshot reload failed", e);
+              return Mono.empty();
+            });
+  }
+
+  private static ConnectionFactory unpooled(ConnectionFactory factory) {
+    // a LISTEN connection is held forever, so take it from the driver rather than the pool
+    if (factory instanceof Wrapped<?> w && w.unwrap() instanceof ConnectionFactory inner) {
+      return unpooled(inner);
+    }
+    return factory;
+  }
+
+  @Override
+  public void stop() {
+    Disposable d = subscription;
+    subscription = null;
+    if (d != null) d.dispose();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return subscription != null;
+  }
+}
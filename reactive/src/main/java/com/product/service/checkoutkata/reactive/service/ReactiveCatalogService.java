@@ -0,0 +1,48 @@
+package com.product.service.checkoutkata.reactive.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.reactive.repo.CatalogRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Catalog reads and writes. A write completes only once the local snapshot has been reloaded, so a
+ * checkout issued after an admin call sees its effect (other nodes catch up via {@link
+ * CatalogChangeSubscriber}).
+ */
+@Service
+public class ReactiveCatalogService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveCatalogService.class);
+
+  private final CatalogRepository repo;
+  private final ReactiveCatalogSnapshotHolder snapshots;
+
+  public ReactiveCatalogService(CatalogRepository repo, ReactiveCatalogSnapshotHolder snapshots) {
+    this.repo = repo;
+    this.snapshots = snapshots;
+  }
+
+  public Flux<Product> allProducts() {
+    return repo.findAllProducts();
+  }
+
+  public Flux<PricingRule> allRules() {
+    return repo.findAllRules();
+  }
+
+  public Mono<Product> upsertProduct(Product p) {
+    LOGGER.debug("Upserting product {}", p);
+    return repo.upsertProduct(p).flatMap(saved -> snapshots.refresh().thenReturn(saved));
+  }
+
+  public Mono<PricingRule> addRule(PricingRule r) {
+    LOGGER.debug("Adding rule {}", r);
+    return repo.insertRule(r).flatMap(saved -> snapshots.refresh().thenReturn(saved));
+  }
+}
@@ -0,0 +1,81 @@
+package com.product.service.checkoutkata.reactive.service;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.product.service.checkoutkata.reactive.repo.CatalogRepository;
+import com.product.service.checkoutkata.service.CatalogSnapshot;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code CatalogSnapshotHolder}: the snapshot is loaded on first use and
+ * replaced after catalog writes, so pricing never waits on the database once warm.
+ *
+ * <p>Before the first snapshot exists, concurrent readers share one in-flight load rather than each
+ * querying the catalog. Refreshes are not serialized. Each load takes its version before it
+ * queries, so a load that started later (and therefore read data at least as new) always wins,
+ * whatever order they finish in.
+ */
+@Component
+public class ReactiveCatalogSnapshotHolder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveCatalogSnapshotHolder.class);
+
+  private final CatalogRepository repo;
+  private final Clock clock;
+  private final int planTableSize;
+  private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+  private final AtomicLong versions = new AtomicLong();
+  // the cold-start load while it runs; cleared when it finishes, so a failed one is retried
+  private final AtomicReference<Mono<CatalogSnapshot>> loading = new AtomicReference<>();
+
+  public ReactiveCatalogSnapshotHolder(
+      CatalogRepository repo,
+      Clock clock,
+      @Value("${checkout.pricing.plan-table-size:64}") int planTableSize) {
+    this.repo = repo;
+    this.clock = clock;
+    this.planTableSize = planTableSize;
+  }
+
+  public Mono<CatalogSnapshot> current() {
+    CatalogSnapshot s = current.get();
+    return (s != null) ? Mono.just(s) : firstLoad();
+  }
+
+  private Mono<CatalogSnapshot> firstLoad() {
+    Mono<CatalogSnapshot> inFlight = loading.get();
+    if (inFlight != null) return inFlight;
+    Mono<CatalogSnapshot> load = refresh().doFinally(signal -> loading.set(null)).cache();
+    // lost the race: another caller's load is in flight, or already installed
+    return loading.compareAndSet(null, load) ? load : current();
+  }
+
+  public Mono<CatalogSnapshot> refresh() {
+    return Mono.defer(
+        () -> {
+          long version = versions.incrementAndGet();
+          return Mono.zip(repo.findAllProducts().collectList(), repo.findAllRules().collectList())
+              .map(
+                  t ->
+                      CatalogSnapshot.of(
+                          version, t.getT1(), t.getT2(), OffsetDateTime.now(clock), planTableSize))
+              .map(this::install);
+        });
+  }
+
+  private CatalogSnapshot install(CatalogSnapshot s) {
+    CatalogSnapshot installed =
+        current.accumulateAndGet(
+            s, (old, next) -> (old == null || next.version() > old.version()) ? next : old);
+    LOGGER.debug("Catalog snapshot v{} loaded with {} SKUs", installed.version(), installed.size());
+    return installed;
+  }
+}
@@ -0,0 +1,100 @@
+package com.product.service.checkoutkata.reactive.service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.product.service.checkoutkata.service.BasketCounts;
+import com.product.service.checkoutkata.service.BasketOutcome;
+import com.product.service.checkoutkata.service.BasketPricer;
+import com.product.service.checkoutkata.service.CatalogSnapshot;
+import com.product.service.checkoutkata.service.CheckoutMetrics;
+import com.product.service.checkoutkata.service.InvalidBasketException;
+import com.product.service.checkoutkata.service.PricingMode;
+import com.product.service.checkoutkata.service.PricingResult;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Prices baskets against the current snapshot. Pricing itself is CPU-only and runs on the calling
+ * (event-loop) thread; the only I/O is the snapshot load on a cold start.
+ */
+@Service
+public class ReactiveCheckoutService {
+  private final ReactiveCatalogSnapshotHolder catalog;
+  private final CheckoutMetrics metrics;
+  private final BasketPricer pricer;
+  private final Clock clock;
+
+  public ReactiveCheckoutService(
+      ReactiveCatalogSnapshotHolder catalog,
+      CheckoutMetrics metrics,
+      Clock clock,
+      @Value("${checkout.pricing.mode:COMPILED}") PricingMode mode,
+      @Value("${checkout.basket.max-units:10000000}") long maxUnits) {
+    this.catalog = catalog;
+    this.metrics = metrics;
+    this.pricer = new BasketPricer(mode, maxUnits, metrics::unknownSku);
+    this.clock = clock;
+  }
+
+  /**
+   * Letter-string basket, e.g. {@code AAAB}; errors with {@link InvalidBasketException} above
+   * {@code checkout.basket.max-units} units.
+   */
+  public Mono<PricingResult> priceOfWithDetails(String itemSequence) {
+    return Mono.fromSupplier(() -> pricer.checkSize(BasketCounts.parse(itemSequence)))
+        .flatMap(this::price);
+  }
+
+  /**
+   * Basket given as counts; errors with {@link InvalidBasketException} above {@code
+   * checkout.basket.max-units} units.
+   */
+  public Mono<PricingResult> priceOfWithDetails(BasketCounts counts) {
+    return Mono.fromSupplier(() -> pricer.checkSize(counts)).flatMap(this::price);
+  }
+
+  private Mono<PricingResult> price(BasketCounts counts) {
+    if (counts.isEmpty()) {
+      return Mono.just(new PricingResult(BigDecimal.ZERO.setScale(2), List.of(), counts));
+    }
+    return catalog
+        .current()
+        .map(
+            snapshot -> {
+              long start = System.nanoTime();
+              PricingResult result =
+                  pricer.price(counts, pricer.resolve(counts, snapshot), clock.instant());
+              metrics.priced(counts, result.offers(), System.nanoTime() - start);
+              return result;
+            });
+  }
+
+  /** Pricing pinned to one snapshot and clock reading, for batches and streams. */
+  public Mono<Function<String, BasketOutcome>> pinned() {
+    return catalog
+        .current()
+        .map(
+            (CatalogSnapshot snapshot) -> {
+              Instant now = clock.instant();
+              return items -> pricer.priceOutcome(items, snapshot, now);
+            });
+  }
+
+  /** Like {@link #pinned()}, for baskets already parsed from any of the request shapes. */
+  public Mono<Function<BasketCounts, BasketOutcome>> pinnedCounts() {
+    return catalog
+        .current()
+        .map(
+            (CatalogSnapshot snapshot) -> {
+              Instant now = clock.instant();
+              return counts -> pricer.priceOutcome(counts, snapshot, now);
+            });
+  }
+}
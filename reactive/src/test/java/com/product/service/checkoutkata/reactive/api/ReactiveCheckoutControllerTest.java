@@ -0,0 +1,176 @@
+package com.product.service.checkoutkata.reactive.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.reactive.config.PricingConfig;
+import com.product.service.checkoutkata.reactive.service.ReactiveCatalogSnapshotHolder;
+import com.product.service.checkoutkata.reactive.service.ReactiveCheckoutService;
+import com.product.service.checkoutkata.service.CatalogSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/** The reactive endpoints must answer exactly like the servlet ones for the same catalog. */
+@WebFluxTest(controllers = ReactiveCheckoutController.class)
+@Import({ReactiveCheckoutService.class, PricingConfig.class, SimpleMeterRegistry.class})
+class ReactiveCheckoutControllerTest {
+  @Autowired WebTestClient client;
+  @MockBean ReactiveCatalogSnapshotHolder catalog;
+
+  @BeforeEach
+  void catalog() {
+    when(catalog.current())
+        .thenReturn(
+            Mono.just(
+                CatalogSnapshot.of(
+                    1L,
+                    List.of(
+                        new Product("A", new BigDecimal("50.00")),
+                        new Product("B", new BigDecimal("30.00"))),
+                    List.of(
+                        new PricingRule(
+                            "A",
+                            RuleType.BULK_X_FOR_Y,
+                            3,
+                            new BigDecimal("130.00"),
+                            null,
+                            null)))));
+  }
+
+  private WebTestClient.ResponseSpec price(Object body) {
+    return client
+        .post()
+        .uri("/api/v1/checkout/price")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(body)
+        .exchange();
+  }
+
+  @Test
+  @DisplayName("Prices a letter basket with offers and counts")
+  void pricesItems() {
+    price(Map.of("items", "AAAB"))
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.total")
+        .isEqualTo(160.0)
+        .jsonPath("$.itemCounts.A")
+        .isEqualTo(3)
+        .jsonPath("$.offers[0].bundlesApplied")
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Prices count-map and run-length baskets")
+  void pricesCountsAndRuns() {
+    price(Map.of("counts", Map.of("A", 6)))
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.total")
+        .isEqualTo(260.0);
+    price(Map.of("runs", "A6B1"))
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.total")
+        .isEqualTo(290.0);
+  }
+
+  @Test
+  @DisplayName("Unknown SKU -> 404, invalid body -> 400, same messages as the servlet build")
+  void errors() {
+    price(Map.of("items", "AZ"))
+        .expectStatus()
+        .isNotFound()
+        .expectBody()
+        .jsonPath("$.error")
+        .isEqualTo("Unknown SKU: Z");
+    price(Map.of("items", "A;1"))
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.error")
+        .isEqualTo("items must be SKUs separated by commas or spaces");
+    price(Map.of("items", "A", "runs", "A1"))
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.error")
+        .isEqualTo("Exactly one of items, counts or runs is required");
+  }
+
+  @Test
+  @DisplayName("Batch keeps request order and reports failures per slot")
+  void batch() {
+    client
+        .post()
+        .uri("/api/v1/checkout/price/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("baskets", List.of("AAA", "Z", "B")))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.priced")
+        .isEqualTo(2)
+        .jsonPath("$.failed")
+        .isEqualTo(1)
+        .jsonPath("$.results[0].total")
+        .isEqualTo(130.0)
+        .jsonPath("$.results[1].error")
+        .isEqualTo("Unknown SKU: Z")
+        .jsonPath("$.results[2].total")
+        .isEqualTo(30.0);
+  }
+
+  @Test
+  @DisplayName("Stream answers one NDJSON line per non-blank input line")
+  void stream() {
+    String body =
+        client
+            .post()
+            .uri("/api/v1/checkout/price/stream")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(
+                "{\"items\":\"AAA\"}\n\n{\"items\":\"Z\"}\nnot json\n{\"runs\":\"A3\"}\n{}\n")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+    assertThat(body.split("\n"))
+        .hasSize(5)
+        .satisfies(
+            lines -> {
+              assertThat(lines[0]).contains("\"total\":130.00");
+              assertThat(lines[1]).isEqualTo("{\"error\":\"Unknown SKU: Z\"}");
+              assertThat(lines[2]).isEqualTo("{\"error\":\"Malformed JSON record\"}");
+              assertThat(lines[3]).isEqualTo(lines[0]);
+              assertThat(lines[4])
+                  .isEqualTo("{\"error\":\"Exactly one of items, counts or runs is required\"}");
+            });
+  }
+}
@@ -0,0 +1,94 @@
+package com.product.service.checkoutkata.reactive.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.test.MockColumnMetadata;
+import io.r2dbc.spi.test.MockConnection;
+import io.r2dbc.spi.test.MockConnectionFactory;
+import io.r2dbc.spi.test.MockResult;
+import io.r2dbc.spi.test.MockRow;
+import io.r2dbc.spi.test.MockRowMetadata;
+import io.r2dbc.spi.test.MockStatement;
+
+/** Rows must map onto the JPA-annotated domain classes the servlet build also serializes. */
+class CatalogRepositoryTest {
+
+  private static CatalogRepository repoReturning(List<String> columns, MockRow.Builder row) {
+    var builder = MockRowMetadata.builder();
+    columns.forEach(
+        c ->
+            builder.columnMetadata(
+                MockColumnMetadata.builder().name(c).type(R2dbcType.VARCHAR).build()));
+    var meta = builder.build();
+    var result = MockResult.builder().rowMetadata(meta).row(row.metadata(meta).build()).build();
+    var statement = MockStatement.builder().result(result).build();
+    var connection = MockConnection.builder().statement(statement).build();
+    var factory = MockConnectionFactory.builder().connection(connection).build();
+    DatabaseClient client =
+        DatabaseClient.builder()
+            .connectionFactory(factory)
+            .bindMarkers(PostgresDialect.INSTANCE.getBindMarkersFactory())
+            .build();
+    return new CatalogRepository(new R2dbcEntityTemplate(client, PostgresDialect.INSTANCE));
+  }
+
+  @Test
+  @DisplayName("products rows map to Product, including the database id")
+  void mapsProducts() {
+    var row =
+        MockRow.builder()
+            .identified("id", Object.class, 7L)
+            .identified("sku", Object.class, "A")
+            .identified("unit_price", Object.class, new BigDecimal("50.00"));
+
+    Product p =
+        repoReturning(List.of("id", "sku", "unit_price"), row).findAllProducts().blockFirst();
+
+    assertThat(p.getId()).isEqualTo(7L);
+    assertThat(p.getSku()).isEqualTo("A");
+    assertThat(p.getUnitPrice()).isEqualByComparingTo("50.00");
+  }
+
+  @Test
+  @DisplayName("pricing_rules rows map to PricingRule, nullable columns included")
+  void mapsRules() {
+    var starts = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    var row =
+        MockRow.builder()
+            .identified("id", Object.class, 3L)
+            .identified("sku", Object.class, "A")
+            .identified("rule_type", Object.class, "BULK_X_FOR_Y")
+            .identified("x_qty", Object.class, 3)
+            .identified("y_price", Object.class, new BigDecimal("130.00"))
+            .identified("starts_at", Object.class, starts)
+            .identified("ends_at", Object.class, null);
+
+    PricingRule r =
+        repoReturning(
+                List.of("id", "sku", "rule_type", "x_qty", "y_price", "starts_at", "ends_at"), row)
+            .findAllRules()
+            .blockFirst();
+
+    assertThat(r.getId()).isEqualTo(3L);
+    assertThat(r.getRuleType()).isEqualTo(RuleType.BULK_X_FOR_Y);
+    assertThat(r.getXQty()).isEqualTo(3);
+    assertThat(r.getYPrice()).isEqualByComparingTo("130.00");
+    assertThat(r.getStartsAt()).isEqualTo(starts);
+    assertThat(r.getEndsAt()).isNull();
+  }
+}
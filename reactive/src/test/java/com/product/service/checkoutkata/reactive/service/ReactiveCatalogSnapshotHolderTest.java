@@ -0,0 +1,87 @@
+package com.product.service.checkoutkata.reactive.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.reactive.repo.CatalogRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCatalogSnapshotHolderTest {
+  @Mock CatalogRepository repo;
+
+  ReactiveCatalogSnapshotHolder holder;
+
+  @BeforeEach
+  void setUp() {
+    holder = new ReactiveCatalogSnapshotHolder(repo, Clock.systemUTC(), 16);
+  }
+
+  @Test
+  @DisplayName("Loads lazily once and serves later reads from memory")
+  void loadsOnce() {
+    when(repo.findAllProducts()).thenReturn(Flux.just(new Product("A", new BigDecimal("50.00"))));
+    when(repo.findAllRules()).thenReturn(Flux.empty());
+
+    var first = holder.current().block();
+    var second = holder.current().block();
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.find("A")).isPresent();
+    verify(repo, times(1)).findAllProducts();
+  }
+
+  @Test
+  @DisplayName("Readers arriving before the first snapshot share one load; a failed one is retried")
+  void sharesColdStartLoad() {
+    Sinks.Many<Product> slow = Sinks.many().unicast().onBackpressureBuffer();
+    when(repo.findAllProducts())
+        .thenReturn(Flux.error(new IllegalStateException("down")))
+        .thenReturn(slow.asFlux());
+    when(repo.findAllRules()).thenReturn(Flux.empty());
+
+    assertThatThrownBy(() -> holder.current().block()).hasMessage("down");
+
+    var first = holder.current().toFuture();
+    var second = holder.current().toFuture();
+    slow.tryEmitNext(new Product("A", new BigDecimal("50.00")));
+    slow.tryEmitComplete();
+
+    assertThat(first.join()).isSameAs(second.join());
+    verify(repo, times(2)).findAllProducts();
+  }
+
+  @Test
+  @DisplayName("A load that started earlier never replaces a newer snapshot")
+  void newestLoadWins() {
+    Sinks.Many<Product> slow = Sinks.many().unicast().onBackpressureBuffer();
+    when(repo.findAllProducts())
+        .thenReturn(slow.asFlux())
+        .thenReturn(Flux.just(new Product("A", new BigDecimal("55.00"))));
+    when(repo.findAllRules()).thenReturn(Flux.empty());
+
+    var older = holder.refresh().toFuture();
+    var newer = holder.refresh().block(Duration.ofSeconds(5));
+    slow.tryEmitNext(new Product("A", new BigDecimal("50.00")));
+    slow.tryEmitComplete();
+
+    assertThat(older.join()).isSameAs(newer);
+    assertThat(holder.current().block().find("A").orElseThrow().unitPrice())
+        .isEqualByComparingTo("55.00");
+  }
+}
@@ -0,0 +1,58 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Turning request input into a {@link BasketCounts} vector, for each supported basket shape. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BasketParsingBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  int units;
+
+  private String letters;
+  private String tokens;
+  private String runs;
+  private Map<String, Integer> counts;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder(units);
+    for (int i = 0; i < units; i++) sb.append((char) ('A' + (i * 7) % 4));
+    letters = sb.toString();
+    List<String> skus = List.of("APPLE-1", "PEAR-2", "KIWI-3", "FIG-4");
+    SkuDictionary.global().internAll(skus);
+    StringBuilder tb = new StringBuilder(units * 8);
+    for (int i = 0; i < units; i++) tb.append(skus.get((i * 7) % 4)).append(i % 2 == 0 ? ',' : ' ');
+    tokens = tb.toString();
+    counts = BasketCounts.parse(letters).toItemCounts();
+    StringBuilder rl = new StringBuilder();
+    counts.forEach((sku, qty) -> rl.append(sku).append(qty));
+    runs = rl.toString();
+  }
+
+  @Benchmark
+  public BasketCounts letters() {
+    return BasketCounts.parse(letters);
+  }
+
+  @Benchmark
+  public BasketCounts tokens() {
+    return BasketCounts.parse(tokens);
+  }
+
+  @Benchmark
+  public BasketCounts runLength() {
+    return BasketCounts.parseRunLength(runs);
+  }
+
+  @Benchmark
+  public BasketCounts countMap() {
+    return BasketCounts.ofCounts(counts);
+  }
+}
@@ -0,0 +1,58 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.product.service.checkoutkata.dto.CheckoutResponse;
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+/** Jackson serialization of a {@link CheckoutResponse}, as the controller writes it. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CheckoutResponseSerializationBenchmark {
+
+  @Param({"1", "4", "26"})
+  int distinctSkus;
+
+  private final ObjectMapper om = new ObjectMapper().findAndRegisterModules();
+  private CheckoutResponse response;
+
+  @Setup
+  public void setUp() {
+    Map<String, Integer> itemCounts = new TreeMap<>();
+    for (int i = 0; i < distinctSkus; i++) itemCounts.put(sku(i), i + 4);
+    SkuDictionary.global().internAll(itemCounts.keySet());
+    BasketCounts counts = BasketCounts.ofCounts(itemCounts);
+    List<OfferApplied> offers = new ArrayList<>();
+    for (int i = 0; i < distinctSkus; i++) {
+      offers.add(
+          new OfferApplied(
+              sku(i),
+              "BULK_X_FOR_Y",
+              1,
+              3,
+              new BigDecimal("130.00"),
+              i + 1,
+              new BigDecimal("50.00").multiply(BigDecimal.valueOf(i + 1))));
+    }
+    response = new CheckoutResponse(new BigDecimal("1234.50"), counts.toItemCounts(), offers);
+  }
+
+  private static String sku(int i) {
+    return String.valueOf((char) ('A' + i));
+  }
+
+  @Benchmark
+  public byte[] writeValueAsBytes() throws JsonProcessingException {
+    return om.writeValueAsBytes(response);
+  }
+}
@@ -0,0 +1,98 @@
+package com.product.service.checkoutkata.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.repo.PricingRuleRepository;
+import com.product.service.checkoutkata.repo.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * End-to-end {@link CheckoutService} pricing: parse, snapshot lookup and per-SKU pricing. The
+ * repositories are stubbed and only read once, when the snapshot is built during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CheckoutServiceBenchmark {
+
+  @Param({"COMPILED", "FIXED_POINT", "DECIMAL"})
+  PricingMode mode;
+
+  @Param({"CDBA", "AAABBDAAABBC", "LARGE"})
+  String basket;
+
+  private CheckoutService service;
+  private String items;
+
+  @Setup
+  public void setUp() {
+    ProductRepository products = mock(ProductRepository.class);
+    PricingRuleRepository rules = mock(PricingRuleRepository.class);
+    when(products.findAll())
+        .thenReturn(
+            List.of(
+                new Product("A", new BigDecimal("50.00")),
+                new Product("B", new BigDecimal("30.00")),
+                new Product("C", new BigDecimal("20.00")),
+                new Product("D", new BigDecimal("15.00"))));
+    when(rules.findAll(Sort.by("id")))
+        .thenReturn(
+            List.of(
+                new PricingRule(
+                    "A", RuleType.BULK_X_FOR_Y, 3, new BigDecimal("130.00"), null, null),
+                new PricingRule(
+                    "B", RuleType.BULK_X_FOR_Y, 2, new BigDecimal("45.00"), null, null)));
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    CatalogSnapshotHolder catalog =
+        new CatalogSnapshotHolder(
+            products,
+            rules,
+            mock(PlatformTransactionManager.class),
+            new DbBulkhead(10, 2, Duration.ofMillis(50), 1, registry),
+            Clock.systemUTC(),
+            CatalogSnapshot.DEFAULT_PLAN_TABLE_SIZE);
+    catalog.refresh();
+    service =
+        new CheckoutService(
+            catalog,
+            new CheckoutMetrics(registry),
+            new PricingAuditLog(registry, 8192, 0.0),
+            // measures pricing itself; with a cache, every iteration after the first would hit
+            new QuoteCache(registry, false, DataSize.ofMegabytes(1)),
+            Clock.systemUTC(),
+            mode,
+            Long.MAX_VALUE);
+
+    if ("LARGE".equals(basket)) {
+      List<String> skus = new ArrayList<>(List.of("A", "B", "C", "D"));
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 10_000; i++) sb.append(skus.get(i % 4));
+      items = sb.toString();
+    } else {
+      items = basket;
+    }
+  }
+
+  @Benchmark
+  public PricingResult priceOfWithDetails() {
+    return service.priceOfWithDetails(items);
+  }
+}
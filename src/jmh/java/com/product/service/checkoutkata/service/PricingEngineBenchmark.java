@@ -0,0 +1,66 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+/** Per-SKU pricing across rule counts and quantities, for each {@link PricingMode} code path. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PricingEngineBenchmark {
+  private static final BigDecimal UNIT_PRICE = new BigDecimal("50.00");
+
+  @Param({"0", "1", "3"})
+  int ruleCount;
+
+  @Param({"1", "7", "1000", "500000"})
+  int qty;
+
+  private final PricingEngine engine = new PricingEngine();
+  private List<PricingRule> rules;
+  private List<FixedPointRule> fixedPointRules;
+  private PricingPlan plan;
+
+  @Setup
+  public void setUp() {
+    rules = new ArrayList<>();
+    int[] sizes = {3, 5, 12};
+    String[] prices = {"130.00", "200.00", "450.00"};
+    for (int i = 0; i < ruleCount; i++) {
+      rules.add(
+          new PricingRule(
+              "A", RuleType.BULK_X_FOR_Y, sizes[i], new BigDecimal(prices[i]), null, null));
+    }
+    fixedPointRules = rules.stream().map(FixedPointRule::of).toList();
+    plan =
+        PricingPlan.compile(
+            "A",
+            Money.toCents(UNIT_PRICE),
+            fixedPointRules,
+            CatalogSnapshot.DEFAULT_PLAN_TABLE_SIZE);
+  }
+
+  @Benchmark
+  public PricingResult decimal() {
+    return engine.priceForWithDetails(qty, UNIT_PRICE, rules);
+  }
+
+  @Benchmark
+  public PricingResult fixedPoint() {
+    return engine.priceForWithDetails(qty, Money.toCents(UNIT_PRICE), fixedPointRules);
+  }
+
+  @Benchmark
+  public long compiled() {
+    List<OfferApplied> offers = new ArrayList<>(2);
+    return plan.priceInto(qty, offers) + offers.size();
+  }
+}
@@ -0,0 +1,57 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Per-request cost of {@link RequestIdFilter}, against the previous approach (UUID + eager MDC).
+ * Run with several threads ({@code -t 8}) to see {@code UUID.randomUUID()} contend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RequestIdFilterBenchmark {
+  private static final FilterChain NOOP = (req, res) -> {};
+  // what the turbo filter does on a request's first emitted log line
+  private static final FilterChain LOGS_ONCE = (req, res) -> RequestContext.current().ensureInMdc();
+
+  private final RequestIdFilter filter = new RequestIdFilter(null);
+  private final MockHttpServletRequest request =
+      new MockHttpServletRequest("POST", "/api/v1/checkout/price");
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @Benchmark
+  public String uuidId() {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public String fastId() {
+    return RequestContext.newId();
+  }
+
+  @Benchmark
+  public void eagerMdcBaseline() {
+    MDC.put("requestId", UUID.randomUUID().toString());
+    MDC.put("method", request.getMethod());
+    MDC.put("path", request.getRequestURI());
+    MDC.clear();
+  }
+
+  @Benchmark
+  public void filterWithoutLogging() throws Exception {
+    filter.doFilter(request, response, NOOP);
+  }
+
+  @Benchmark
+  public void filterWithOneLogLine() throws Exception {
+    filter.doFilter(request, response, LOGS_ONCE);
+  }
+}
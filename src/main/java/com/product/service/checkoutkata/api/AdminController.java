@@ -1,26 +1,50 @@
 package com.product.service.checkoutkata.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.product.service.checkoutkata.domain.PricingRule;
 import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.dto.ImportReport;
+import com.product.service.checkoutkata.dto.PriceAdjustmentDto;
+import com.product.service.checkoutkata.dto.PriceAdjustmentResult;
 import com.product.service.checkoutkata.dto.PricingRuleDto;
 import com.product.service.checkoutkata.dto.ProductDto;
+import com.product.service.checkoutkata.service.CatalogImportService;
 import com.product.service.checkoutkata.service.CatalogService;
+import com.product.service.checkoutkata.service.InvalidCatalogRequestException;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @Tag(name = "Admin", description = "Catalog & pricing rule administration")
@@ -28,23 +52,76 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/v1/admin")
 public class AdminController {
   private static final Logger LOGGER = LoggerFactory.getLogger(AdminController.class);
+  private static final String TEXT_CSV = "text/csv";
   private final CatalogService catalog;
+  private final CatalogImportService imports;
+  private final ObjectWriter lineWriter;
+  private final int pageSize;
+  private final int maxPageSize;
 
-  public AdminController(CatalogService catalog) {
+  public AdminController(
+      CatalogService catalog,
+      CatalogImportService imports,
+      ObjectMapper om,
+      @Value("${checkout.admin.page-size:100}") int pageSize,
+      @Value("${checkout.admin.max-page-size:1000}") int maxPageSize) {
     this.catalog = catalog;
+    this.imports = imports;
+    this.lineWriter = om.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.pageSize = pageSize;
+    this.maxPageSize = maxPageSize;
   }
 
-  @Operation(summary = "List all products")
+  @Operation(
+      summary = "List products",
+      description =
+          "Without after/limit, returns every product. With either, returns one page in SKU"
+              + " order and a Link rel=\"next\" header while more may follow. Responses carry an"
+              + " ETag of the catalog state; If-None-Match with it yields 304.")
   @ApiResponse(
       responseCode = "200",
       description = "OK",
       content = @Content(array = @ArraySchema(schema = @Schema(implementation = Product.class))))
+  @ApiResponse(responseCode = "304", description = "Catalog unchanged since the given ETag")
   @GetMapping("/products")
-  public List<Product> products() {
-    LOGGER.info("Fetching all products");
-    List<Product> products = catalog.allProducts();
-    LOGGER.debug("Fetched products: {}", products);
-    return products;
+  public ResponseEntity<List<Product>> products(
+      @Parameter(description = "Keyset cursor: return products with a SKU after this one")
+          @RequestParam(required = false)
+          String after,
+      @Parameter(description = "Page size, capped at checkout.admin.max-page-size")
+          @RequestParam(required = false)
+          Integer limit,
+      WebRequest request) {
+    // checked before any query, so an unchanged catalog costs neither a query nor serialization
+    if (request.checkNotModified(catalog.catalogTag())) return null;
+    if (after == null && limit == null) {
+      LOGGER.info("Fetching all products");
+      List<Product> products = catalog.allProducts();
+      LOGGER.debug("Fetched {} products", products.size());
+      return ResponseEntity.ok(products);
+    }
+    int n = pageSize(limit);
+    List<Product> page = catalog.products(after, n);
+    LOGGER.debug("Fetched {} products after {}", page.size(), after);
+    return page(page, n, page.isEmpty() ? null : page.get(page.size() - 1).getSku());
+  }
+
+  @Operation(
+      summary = "Export all products",
+      description =
+          "Streams every product as newline-delimited JSON, read through a database cursor.")
+  @ApiResponse(
+      responseCode = "200",
+      description = "OK",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = Product.class)))
+  @GetMapping(value = "/products/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void exportProducts(WebRequest request, HttpServletResponse response) throws IOException {
+    if (request.checkNotModified(catalog.catalogTag())) return;
+    LOGGER.info("Exporting products");
+    export(response, catalog::exportProducts);
   }
 
   @Operation(
@@ -68,6 +145,40 @@ public class AdminController {
     return product;
   }
 
+  @Operation(
+      summary = "Import products",
+      description =
+          "Upserts many products in one transaction. Send CSV with a sku,unitPrice header row, or"
+              + " one ProductDto JSON object per line. Any invalid row rolls back the whole import"
+              + " and is reported with its line number.")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Imported",
+      content = @Content(schema = @Schema(implementation = ImportReport.class)))
+  @ApiResponse(
+      responseCode = "400",
+      description = "Nothing imported; the report lists the rejected rows",
+      content = @Content(schema = @Schema(implementation = ImportReport.class)))
+  @PostMapping(
+      value = "/products/import",
+      consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<ImportReport> importProducts(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+    LOGGER.info("Importing products as {}", contentType);
+    return imported(imports.importProducts(reader(body, contentType), format(contentType)));
+  }
+
+  @Operation(
+      summary = "Adjust all unit prices",
+      description =
+          "Changes every product's unit price by the given percentage, rounded to cents, in one"
+              + " statement.")
+  @PostMapping("/products/adjust-prices")
+  public PriceAdjustmentResult adjustPrices(@RequestBody @Valid PriceAdjustmentDto dto) {
+    LOGGER.info("Adjusting all unit prices by {}%", dto.percent());
+    return new PriceAdjustmentResult(imports.adjustPrices(dto.percent()));
+  }
+
   @Operation(
       summary = "Add a pricing rule",
       description = "Adds a per-SKU rule (e.g., BULK_X_FOR_Y). Only applies to that SKU.",
@@ -100,18 +211,137 @@ public class AdminController {
   }
 
   @Operation(
-      summary = "List all pricing rules",
-      description = "Returns all pricing rules across SKUs (for administration and UI).")
+      summary = "Import pricing rules",
+      description =
+          "Upserts many rules in one transaction, keyed by SKU, rule type and bundle size. Send"
+              + " CSV with a sku,ruleType,xQty,yPrice[,startsAt,endsAt] header row, or one"
+              + " PricingRuleDto JSON object per line. Any invalid row rolls back the whole import.")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Imported",
+      content = @Content(schema = @Schema(implementation = ImportReport.class)))
+  @ApiResponse(
+      responseCode = "400",
+      description = "Nothing imported; the report lists the rejected rows",
+      content = @Content(schema = @Schema(implementation = ImportReport.class)))
+  @PostMapping(
+      value = "/rules/import",
+      consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<ImportReport> importRules(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+    LOGGER.info("Importing pricing rules as {}", contentType);
+    return imported(imports.importRules(reader(body, contentType), format(contentType)));
+  }
+
+  @Operation(
+      summary = "List pricing rules",
+      description =
+          "Returns pricing rules across SKUs (for administration and UI). Without after/limit,"
+              + " returns all of them; with either, one page in id order and a Link rel=\"next\""
+              + " header while more may follow. Conditional GET as for products.")
   @ApiResponse(
       responseCode = "200",
       description = "OK",
       content =
           @Content(array = @ArraySchema(schema = @Schema(implementation = PricingRule.class))))
+  @ApiResponse(responseCode = "304", description = "Catalog unchanged since the given ETag")
   @GetMapping("/rules")
-  public List<PricingRule> rules() {
-    LOGGER.info("Fetching all pricing rules");
-    List<PricingRule> all = catalog.allRules();
-    LOGGER.debug("Fetched rules: {}", all);
-    return all;
+  public ResponseEntity<List<PricingRule>> rules(
+      @Parameter(description = "Keyset cursor: return rules with an id above this one")
+          @RequestParam(required = false)
+          Long after,
+      @Parameter(description = "Page size, capped at checkout.admin.max-page-size")
+          @RequestParam(required = false)
+          Integer limit,
+      WebRequest request) {
+    if (request.checkNotModified(catalog.catalogTag())) return null;
+    if (after == null && limit == null) {
+      LOGGER.info("Fetching all pricing rules");
+      List<PricingRule> all = catalog.allRules();
+      LOGGER.debug("Fetched {} pricing rules", all.size());
+      return ResponseEntity.ok(all);
+    }
+    int n = pageSize(limit);
+    List<PricingRule> page = catalog.rules(after, n);
+    LOGGER.debug("Fetched {} pricing rules after {}", page.size(), after);
+    return page(page, n, page.isEmpty() ? null : page.get(page.size() - 1).getId());
+  }
+
+  @Operation(
+      summary = "Export all pricing rules",
+      description =
+          "Streams every pricing rule as newline-delimited JSON, read through a database cursor.")
+  @ApiResponse(
+      responseCode = "200",
+      description = "OK",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = PricingRule.class)))
+  @GetMapping(value = "/rules/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void exportRules(WebRequest request, HttpServletResponse response) throws IOException {
+    if (request.checkNotModified(catalog.catalogTag())) return;
+    LOGGER.info("Exporting pricing rules");
+    export(response, catalog::exportRules);
+  }
+
+  private static CatalogImportService.Format format(MediaType contentType) {
+    return contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+        ? CatalogImportService.Format.NDJSON
+        : CatalogImportService.Format.CSV;
+  }
+
+  private static InputStreamReader reader(InputStream body, MediaType contentType) {
+    var charset = contentType.getCharset();
+    return new InputStreamReader(body, (charset == null) ? StandardCharsets.UTF_8 : charset);
+  }
+
+  private static ResponseEntity<ImportReport> imported(ImportReport report) {
+    LOGGER.info(
+        "Import finished. Rows={}, Written={}, Errors={}",
+        report.rows(),
+        report.written(),
+        report.errors().size());
+    HttpStatus status = report.errors().isEmpty() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+    return ResponseEntity.status(status).body(report);
+  }
+
+  private int pageSize(Integer limit) {
+    if (limit == null) return pageSize;
+    if (limit < 1) throw new InvalidCatalogRequestException("limit must be at least 1");
+    return Math.min(limit, maxPageSize);
+  }
+
+  /** A full page may have a successor, so it links to the page after its last key. */
+  private static <T> ResponseEntity<List<T>> page(List<T> page, int limit, Object lastKey) {
+    if (page.size() < limit) return ResponseEntity.ok(page);
+    String next =
+        ServletUriComponentsBuilder.fromCurrentRequest()
+            .replaceQueryParam("after", lastKey)
+            .replaceQueryParam("limit", limit)
+            .encode()
+            .toUriString();
+    return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(page);
+  }
+
+  private <T> void export(HttpServletResponse response, Consumer<Consumer<T>> rows)
+      throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    long[] count = {0};
+    try (JsonGenerator out = lineWriter.createGenerator(response.getOutputStream())) {
+      out.setRootValueSeparator(null);
+      rows.accept(
+          row -> {
+            try {
+              lineWriter.writeValue(out, row);
+              out.writeRaw('\n');
+              count[0]++;
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    }
+    LOGGER.info("Export completed. Rows={}", count[0]);
   }
 }
@@ -0,0 +1,75 @@
+package com.product.service.checkoutkata.api;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a character stream into {@code \n}-terminated lines (a trailing {@code \r} is dropped),
+ * like {@link java.io.BufferedReader#readLine()} but never buffering more than {@code maxLength}
+ * characters: the rest of a longer line is skipped and {@link #tooLong()} reports it.
+ */
+final class BoundedLineReader {
+  private final Reader in;
+  private final int maxLength;
+  private final char[] buf = new char[8192];
+  private final StringBuilder line = new StringBuilder();
+  private int pos;
+  private int limit;
+  private boolean tooLong;
+
+  BoundedLineReader(Reader in, int maxLength) {
+    this.in = in;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * The next line without its terminator, or null at the end of the input. An over-long line is
+   * returned as an empty string with {@link #tooLong()} set.
+   */
+  String readLine() throws IOException {
+    line.setLength(0);
+    tooLong = false;
+    boolean any = false;
+    while (true) {
+      if (pos == limit) {
+        int n = in.read(buf, 0, buf.length);
+        if (n < 0) return any ? finish() : null;
+        pos = 0;
+        limit = n;
+      }
+      any = true;
+      int start = pos;
+      while (pos < limit && buf[pos] != '\n') pos++;
+      append(start, pos);
+      if (pos < limit) {
+        pos++;
+        return finish();
+      }
+    }
+  }
+
+  /** Whether the line last returned was longer than the limit. */
+  boolean tooLong() {
+    return tooLong;
+  }
+
+  private void append(int from, int to) {
+    if (tooLong) return;
+    if (line.length() + (to - from) > maxLength + 1) { // + 1 for a \r before the \n
+      tooLong = true;
+      line.setLength(0);
+    } else {
+      line.append(buf, from, to - from);
+    }
+  }
+
+  private String finish() {
+    int n = line.length();
+    if (n > 0 && line.charAt(n - 1) == '\r') line.setLength(--n);
+    if (n > maxLength) {
+      tooLong = true;
+      line.setLength(0);
+    }
+    return line.toString();
+  }
+}
@@ -1,45 +1,106 @@
 package com.product.service.checkoutkata.api;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.product.service.checkoutkata.domain.APIError;
+import com.product.service.checkoutkata.dto.BasketResult;
+import com.product.service.checkoutkata.dto.BatchCheckoutRequest;
+import com.product.service.checkoutkata.dto.BatchCheckoutResponse;
 import com.product.service.checkoutkata.dto.CheckoutRequest;
 import com.product.service.checkoutkata.dto.CheckoutResponse;
+import com.product.service.checkoutkata.dto.CheckoutResponseWriter;
+import com.product.service.checkoutkata.service.BasketCounts;
+import com.product.service.checkoutkata.service.BasketOutcome;
+import com.product.service.checkoutkata.service.BatchCheckoutService;
+import com.product.service.checkoutkata.service.CheckoutMetrics;
+import com.product.service.checkoutkata.service.CheckoutMetrics.Phase;
+import com.product.service.checkoutkata.service.CheckoutMetrics.PhaseTimings;
 import com.product.service.checkoutkata.service.CheckoutService;
+import com.product.service.checkoutkata.service.InvalidBasketException;
+import com.product.service.checkoutkata.service.PointInTimePricingService;
 import com.product.service.checkoutkata.service.PricingResult;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 @Tag(name = "Checkout", description = "Price calculation APIs")
 @RestController
 @RequestMapping("/api/v1/checkout")
 public class CheckoutController {
   private static final Logger LOGGER = LoggerFactory.getLogger(CheckoutController.class);
+  private static final String SERVER_TIMING = "Server-Timing";
   private final CheckoutService checkout;
+  private final BatchCheckoutService batch;
+  private final PointInTimePricingService pointInTime;
+  private final CheckoutMetrics metrics;
+  private final ObjectReader requestReader;
+  private final Validator validator;
+  private final CheckoutResponseWriter responseWriter;
+  private final ObjectWriter lineWriter;
+  private final int flushEvery;
+  private final int maxLineLength;
 
-  public CheckoutController(CheckoutService checkout) {
+  public CheckoutController(
+      CheckoutService checkout,
+      BatchCheckoutService batch,
+      PointInTimePricingService pointInTime,
+      CheckoutMetrics metrics,
+      ObjectMapper om,
+      Validator validator,
+      @Value("${checkout.stream.flush-every:256}") int flushEvery,
+      @Value("${checkout.stream.max-line-length:1048576}") int maxLineLength) {
     this.checkout = checkout;
+    this.batch = batch;
+    this.pointInTime = pointInTime;
+    this.metrics = metrics;
+    this.requestReader = om.readerFor(CheckoutRequest.class);
+    this.validator = validator;
+    this.responseWriter = new CheckoutResponseWriter(om);
+    this.lineWriter = om.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.flushEvery = Math.max(flushEvery, 1);
+    this.maxLineLength = Math.max(maxLineLength, 1);
   }
 
   @Operation(
       summary = "Calculate total price",
       description =
-          "Computes the price of a sequence of SKUs using per-SKU rules. Non-letter characters are ignored.",
+          "Computes the price of a basket using per-SKU rules. The basket is given as exactly one"
+              + " of: a letter string (items), a SKU → quantity map (counts) or a run-length"
+              + " string such as A500000B3 (runs). With asOf, the basket is priced against the"
+              + " catalog as it stood at that instant, including rules edited since.",
       requestBody =
           @io.swagger.v3.oas.annotations.parameters.RequestBody(
               required = true,
@@ -49,7 +110,11 @@ public class CheckoutController {
                       schema = @Schema(implementation = CheckoutRequest.class),
                       examples = {
                         @ExampleObject(name = "Simple", value = "{\"items\":\"CDBA\"}"),
-                        @ExampleObject(name = "Bundle eligible", value = "{\"items\":\"AAAB\"}")
+                        @ExampleObject(name = "Bundle eligible", value = "{\"items\":\"AAAB\"}"),
+                        @ExampleObject(
+                            name = "Counts",
+                            value = "{\"counts\":{\"A\":500000,\"B\":3}}"),
+                        @ExampleObject(name = "Run-length", value = "{\"runs\":\"A500000B3\"}")
                       })))
   @ApiResponse(
       responseCode = "200",
@@ -64,21 +129,173 @@ public class CheckoutController {
       description = "Unknown SKU",
       content = @Content(schema = @Schema(implementation = APIError.class)))
   @PostMapping("/price")
-  public ResponseEntity<CheckoutResponse> price(@Valid @RequestBody CheckoutRequest req) {
-    LOGGER.info("Received pricing request");
+  public void price(
+      @Valid @RequestBody CheckoutRequest req,
+      @Parameter(description = "Price as of this instant (ISO-8601), e.g. 2025-11-12T10:00:00Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          OffsetDateTime asOf,
+      HttpServletResponse response)
+      throws IOException {
+    // per-basket detail goes to the sampled pricing audit trail, not to INFO on the request path
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Raw items payload: '{}'", req.items());
     }
 
-    PricingResult result = checkout.priceOfWithDetails(req.items());
+    try (PhaseTimings timings = metrics.openTimings()) {
+      PricingResult result;
+      if (asOf != null) {
+        result = pointInTime.priceAsOf(req.toCounts(), asOf.toInstant());
+      } else if (req.items() != null) {
+        result = checkout.priceOfWithDetails(req.items());
+      } else {
+        result = checkout.priceOfWithDetails(req.toCounts());
+      }
 
-    Map<String, Integer> counts = new HashMap<>();
-    for (char c : (req.items() == null ? "" : req.items()).toCharArray()) {
-      String s = String.valueOf(Character.toUpperCase(c));
-      if (s.matches("[A-Z]")) counts.merge(s, 1, Integer::sum);
+      LOGGER.debug("Pricing completed. Total={}, counts={}", result.total(), result.counts());
+
+      // serialized here rather than by the message converter so the time it takes can still be
+      // reported in the Server-Timing header; the body goes from the per-thread buffer straight
+      // to the servlet output stream
+      long t = System.nanoTime();
+      CheckoutResponseWriter.Buffer body = responseWriter.serialize(result);
+      metrics.phase(Phase.SERIALIZE, System.nanoTime() - t);
+
+      response.setStatus(HttpServletResponse.SC_OK);
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response.setHeader(SERVER_TIMING, timings.toHeaderValue());
+      response.setContentLength(body.size());
+      body.writeTo(response.getOutputStream());
+    }
+  }
+
+  @Operation(
+      summary = "Calculate totals for many baskets",
+      description =
+          "Prices every basket against the same catalog state. A basket that cannot be priced"
+              + " (invalid characters, unknown SKU) carries an error in its slot; the others are"
+              + " still priced. Results are returned in request order.",
+      requestBody =
+          @io.swagger.v3.oas.annotations.parameters.RequestBody(
+              required = true,
+              content =
+                  @Content(
+                      mediaType = "application/json",
+                      schema = @Schema(implementation = BatchCheckoutRequest.class),
+                      examples = {
+                        @ExampleObject(name = "Batch", value = "{\"baskets\":[\"AAAB\",\"CDBA\"]}")
+                      })))
+  @ApiResponse(
+      responseCode = "200",
+      description = "OK",
+      content = @Content(schema = @Schema(implementation = BatchCheckoutResponse.class)))
+  @ApiResponse(
+      responseCode = "400",
+      description = "Bad request",
+      content = @Content(schema = @Schema(implementation = APIError.class)))
+  @PostMapping("/price/batch")
+  public ResponseEntity<BatchCheckoutResponse> priceBatch(
+      @Valid @RequestBody BatchCheckoutRequest req) {
+    LOGGER.info("Received batch pricing request with {} baskets", req.baskets().size());
+
+    List<BasketOutcome> outcomes = batch.priceAll(req.baskets());
+
+    List<BasketResult> results = new ArrayList<>(outcomes.size());
+    int failed = 0;
+    for (int i = 0; i < outcomes.size(); i++) {
+      BasketOutcome o = outcomes.get(i);
+      if (o.isOk()) {
+        PricingResult r = o.result();
+        results.add(new BasketResult(i, r.total(), r.counts().toItemCounts(), r.offers(), null));
+      } else {
+        failed++;
+        results.add(BasketResult.failed(i, o.error()));
+      }
+    }
+
+    LOGGER.info("Batch pricing completed. Priced={}, Failed={}", results.size() - failed, failed);
+    return ResponseEntity.ok(new BatchCheckoutResponse(results.size() - failed, failed, results));
+  }
+
+  @Operation(
+      summary = "Calculate totals for a stream of baskets",
+      description =
+          "Reads newline-delimited records, each a basket in any shape /price accepts (items,"
+              + " counts or runs), and writes one line per record, in order: a CheckoutResponse, or"
+              + " {\"error\": \"...\"} if that basket cannot be priced. Blank lines are skipped. A record longer than"
+              + " checkout.stream.max-line-length characters (1 MiB by default) is not read; its"
+              + " line reports the error instead. The whole stream is priced against one catalog"
+              + " state and memory use does not grow with the input.",
+      requestBody =
+          @io.swagger.v3.oas.annotations.parameters.RequestBody(
+              required = true,
+              content =
+                  @Content(
+                      mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                      examples = {
+                        @ExampleObject(
+                            name = "Stream",
+                            value = "{\"items\":\"AAAB\"}\n{\"items\":\"CDBA\"}\n")
+                      })))
+  @ApiResponse(
+      responseCode = "200",
+      description = "OK",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = CheckoutResponse.class)))
+  @PostMapping(
+      value = "/price/stream",
+      consumes = MediaType.APPLICATION_NDJSON_VALUE,
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void priceStream(InputStream body, HttpServletResponse response) throws IOException {
+    LOGGER.info("Received streaming pricing request");
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+    Function<BasketCounts, BasketOutcome> pricer = checkout.pinnedCounts();
+    long lines = 0;
+    long failed = 0;
+    // blocking reads and writes on the servlet streams: a slow client stalls the loop rather than
+    // letting results pile up in memory
+    try (var reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        JsonGenerator out = lineWriter.createGenerator(response.getOutputStream())) {
+      out.setRootValueSeparator(null);
+      var in = new BoundedLineReader(reader, maxLineLength);
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (!in.tooLong() && line.isBlank()) continue;
+        BasketOutcome o =
+            in.tooLong()
+                ? BasketOutcome.failed("Record exceeds " + maxLineLength + " characters")
+                : priceLine(line, pricer);
+        if (o.isOk()) {
+          responseWriter.write(o.result(), out);
+        } else {
+          failed++;
+          lineWriter.writeValue(out, new APIError(o.error()));
+        }
+        out.writeRaw('\n');
+        if (++lines % flushEvery == 0) out.flush();
+      }
+    }
+    LOGGER.info("Streaming pricing completed. Lines={}, Failed={}", lines, failed);
+  }
+
+  private BasketOutcome priceLine(String line, Function<BasketCounts, BasketOutcome> pricer) {
+    CheckoutRequest req;
+    try {
+      req = requestReader.readValue(line);
+    } catch (JsonProcessingException e) {
+      return BasketOutcome.failed("Malformed JSON record");
+    }
+    // the same shapes and rules as POST /price
+    String invalid = CheckoutRequest.violation(validator, req);
+    if (invalid != null) return BasketOutcome.failed(invalid);
+    try {
+      return pricer.apply(req.toCounts());
+    } catch (InvalidBasketException e) {
+      return BasketOutcome.failed(e.getMessage());
     }
-    LOGGER.debug("Item counts computed: {}", counts);
-    LOGGER.info("Pricing completed. Total={}", result.total());
-    return ResponseEntity.ok(new CheckoutResponse(result.total(), counts, result.offers()));
   }
 }
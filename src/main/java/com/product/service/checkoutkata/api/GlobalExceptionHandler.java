@@ -5,11 +5,17 @@ import java.util.NoSuchElementException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import com.product.service.checkoutkata.service.BulkheadFullException;
+import com.product.service.checkoutkata.service.InvalidBasketException;
+import com.product.service.checkoutkata.service.InvalidCatalogRequestException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -21,6 +27,30 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
   }
 
+  @ExceptionHandler(BulkheadFullException.class)
+  public ResponseEntity<Map<String, Object>> busy(BulkheadFullException e) {
+    LOGGER.debug("Rejected by bulkhead: {}", e.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(Map.of("error", e.getMessage()));
+  }
+
+  /**
+   * Only the exceptions whose message is written for the client; any other {@link
+   * IllegalArgumentException} is a bug and answers 500 without echoing its message.
+   */
+  @ExceptionHandler({InvalidBasketException.class, InvalidCatalogRequestException.class})
+  public ResponseEntity<Map<String, Object>> invalidArgument(IllegalArgumentException e) {
+    LOGGER.debug("Invalid request: {}", e.getMessage());
+    return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+  }
+
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  public ResponseEntity<Map<String, Object>> badParam(MethodArgumentTypeMismatchException e) {
+    LOGGER.debug("Invalid parameter {}: {}", e.getName(), e.getValue());
+    return ResponseEntity.badRequest().body(Map.of("error", "Invalid value for " + e.getName()));
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, Object>> badReq(MethodArgumentNotValidException e) {
     var err = e.getBindingResult().getAllErrors().get(0);
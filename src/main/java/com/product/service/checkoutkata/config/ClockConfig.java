@@ -0,0 +1,21 @@
+package com.product.service.checkoutkata.config;
+
+import java.time.Clock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The clock that decides which pricing rules are active. Tests and staging environments can replace
+ * it (e.g. with {@link Clock#fixed}) to price as of a rule boundary.
+ */
+@Configuration
+public class ClockConfig {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public Clock clock() {
+    return Clock.systemDefaultZone();
+  }
+}
@@ -0,0 +1,95 @@
+package com.product.service.checkoutkata.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes read-only transactions to streaming replicas. Replaces the auto-configured data source
+ * with a {@link LazyConnectionDataSourceProxy} over the primary pool, which fetches its connection
+ * on the first statement, once the transaction has marked it read-only, and then takes it from the
+ * {@link ReplicaDataSource} instead. Writes, and anything outside a read-only transaction, stay on
+ * the primary.
+ *
+ * <p>Every pool (the primary plus one per entry in {@code checkout.db.replicas.urls}) uses the
+ * {@code spring.datasource} credentials and {@code spring.datasource.hikari} settings, and exports
+ * {@code hikaricp_*} metrics tagged with its pool name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "checkout.db.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+  private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+  @Bean
+  public HikariDataSource primaryDataSource(
+      DataSourceProperties properties, Environment env, MeterRegistry registry) {
+    return pool(properties, env, registry, properties.determineUrl(), "primary");
+  }
+
+  @Bean
+  public ReplicaDataSource replicaDataSource(
+      HikariDataSource primaryDataSource,
+      DataSourceProperties properties,
+      Environment env,
+      MeterRegistry registry,
+      @Value("${checkout.db.replicas.urls}") List<String> urls,
+      @Value("${checkout.db.replicas.max-lag:5s}") Duration maxLag,
+      @Value("${checkout.db.replicas.check-interval:1s}") Duration checkInterval) {
+    if (urls.isEmpty()) {
+      throw new IllegalStateException("checkout.db.replicas.urls must list at least one replica");
+    }
+    List<HikariDataSource> pools = new ArrayList<>();
+    for (int i = 0; i < urls.size(); i++) {
+      HikariDataSource pool = pool(properties, env, registry, urls.get(i), "replica-" + (i + 1));
+      // a replica that is down at startup is probed again later; it must not fail the context
+      pool.setInitializationFailTimeout(-1);
+      pools.add(pool);
+    }
+    return new ReplicaDataSource(primaryDataSource, pools, maxLag, checkInterval, registry);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicas) {
+    LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy();
+    routing.setTargetDataSource(primaryDataSource);
+    routing.setReadOnlyDataSource(replicas);
+    // known up front, so the proxy never opens a connection just to find them out
+    routing.setDefaultAutoCommit(primaryDataSource.isAutoCommit());
+    String isolation = primaryDataSource.getTransactionIsolation();
+    routing.setDefaultTransactionIsolationName(
+        isolation != null ? isolation : "TRANSACTION_READ_COMMITTED"); // PostgreSQL's default
+    return routing;
+  }
+
+  private static HikariDataSource pool(
+      DataSourceProperties properties,
+      Environment env,
+      MeterRegistry registry,
+      String url,
+      String name) {
+    HikariDataSource pool =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+    Binder.get(env).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+    pool.setPoolName(name);
+    pool.setMetricRegistry(registry);
+    return pool;
+  }
+}
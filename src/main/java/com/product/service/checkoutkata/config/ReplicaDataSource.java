@@ -0,0 +1,214 @@
+package com.product.service.checkoutkata.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The read-only side of the routing data source built by {@link ReadReplicaConfig}. Connections
+ * come from the replica pools in turn, skipping any replica that failed its last probe or was
+ * further behind the primary than {@code checkout.db.replicas.max-lag}. When no replica is usable
+ * the connection comes from the primary, so a replica outage costs primary load rather than errors.
+ *
+ * <p>A background thread probes every replica each {@code checkout.db.replicas.check-interval}. A
+ * replica that fails to hand out a connection is skipped until its next successful probe.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements SmartLifecycle, AutoCloseable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+  /**
+   * Standby status, replay lag in seconds and WAL receiver status. A standby that has replayed
+   * everything it received reports 0 even when the primary has been idle for a while; null means
+   * nothing was replayed yet. That 0 only holds while WAL still arrives, so the receiver must be
+   * {@code streaming}: a null status means no receiver is running (or the probing role lacks {@code
+   * pg_read_all_stats} and cannot see it).
+   */
+  static final String LAG_QUERY =
+      """
+      SELECT pg_is_in_recovery(),
+             CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                  ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+             END,
+             (SELECT status FROM pg_stat_wal_receiver)
+      """;
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final double maxLagSeconds;
+  private final Duration checkInterval;
+  private final Counter fallbacks;
+  private final AtomicInteger next = new AtomicInteger();
+  private volatile ScheduledExecutorService prober;
+
+  public ReplicaDataSource(
+      DataSource primary,
+      List<HikariDataSource> pools,
+      Duration maxLag,
+      Duration checkInterval,
+      MeterRegistry registry) {
+    this.primary = primary;
+    this.replicas = pools.stream().map(Replica::new).toList();
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    this.checkInterval = checkInterval;
+    this.fallbacks =
+        Counter.builder("checkout.db.replica.fallback")
+            .description(
+                "Read-only connections taken from the primary because no replica was usable")
+            .register(registry);
+    for (Replica r : replicas) {
+      Gauge.builder("checkout.db.replica.lag", r, rep -> rep.lagSeconds)
+          .description("Replay lag of the replica at its last probe")
+          .baseUnit("seconds")
+          .tag("pool", r.name())
+          .register(registry);
+      Gauge.builder("checkout.db.replica.healthy", r, rep -> rep.healthy ? 1 : 0)
+          .description("1 while the replica passed its last probe within the lag tolerance")
+          .tag("pool", r.name())
+          .register(registry);
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    int n = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), n);
+    for (int i = 0; i < n; i++) {
+      Replica r = replicas.get((start + i) % n);
+      if (!r.healthy) continue;
+      try {
+        return r.pool.getConnection();
+      } catch (SQLException e) {
+        r.down("connection failed: " + e.getMessage());
+      }
+    }
+    fallbacks.increment();
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+  }
+
+  /** Probes every replica once and updates its state; runs on the prober thread. */
+  void probeAll() {
+    for (Replica r : replicas) r.probe();
+  }
+
+  @Override
+  public void start() {
+    ScheduledExecutorService p =
+        Executors.newSingleThreadScheduledExecutor(
+            task -> {
+              Thread t = new Thread(task, "replica-probe");
+              t.setDaemon(true);
+              return t;
+            });
+    prober = p;
+    p.scheduleWithFixedDelay(this::probeAll, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    ScheduledExecutorService p = prober;
+    prober = null;
+    if (p != null) p.shutdownNow();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return prober != null;
+  }
+
+  /** Stops probing and closes the replica pools; the primary pool is closed by its own bean. */
+  @Override
+  public void close() {
+    stop();
+    for (Replica r : replicas) r.pool.close();
+  }
+
+  private final class Replica {
+    private final HikariDataSource pool;
+    // unusable until the first probe has measured the lag
+    private volatile boolean healthy;
+    private volatile boolean probed;
+    private volatile double lagSeconds = Double.NaN;
+
+    Replica(HikariDataSource pool) {
+      this.pool = pool;
+    }
+
+    String name() {
+      return pool.getPoolName();
+    }
+
+    void probe() {
+      try {
+        check();
+      } finally {
+        probed = true;
+      }
+    }
+
+    private void check() {
+      try (Connection c = pool.getConnection();
+          Statement st = c.createStatement()) {
+        st.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        try (ResultSet rs = st.executeQuery(LAG_QUERY)) {
+          rs.next();
+          if (!rs.getBoolean(1)) {
+            down("not a standby (promoted, or pointed at a primary)");
+            return;
+          }
+          double lag = rs.getDouble(2);
+          boolean replayed = !rs.wasNull();
+          String receiver = rs.getString(3);
+          if (!"streaming".equals(receiver)) {
+            // cut off from the primary: a zero lag only means nothing new arrives
+            down(
+                receiver == null
+                    ? "no WAL receiver (or pg_stat_wal_receiver is not readable)"
+                    : "WAL receiver is " + receiver);
+          } else if (!replayed) {
+            down("has not replayed any WAL yet");
+          } else if (lag > maxLagSeconds) {
+            lagSeconds = lag;
+            down(String.format("lagging %.1fs behind the primary", lag));
+          } else {
+            lagSeconds = lag;
+            if (!healthy) LOGGER.info("Replica {} is serving reads (lag {}s)", name(), lag);
+            healthy = true;
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        down("probe failed: " + e.getMessage());
+      }
+    }
+
+    void down(String reason) {
+      if (healthy || !probed) LOGGER.warn("Replica {} is not serving reads: {}", name(), reason);
+      healthy = false;
+    }
+  }
+}
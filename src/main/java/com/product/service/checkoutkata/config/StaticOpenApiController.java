@@ -0,0 +1,28 @@
+package com.product.service.checkoutkata.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Hidden;
+
+/**
+ * Keeps {@code /v3/api-docs} answering when springdoc is switched off (the {@code static-openapi}
+ * profile), serving the document written at build time by {@code -Popenapi}. Swagger UI is not
+ * available in that mode; the document itself is also served as {@code /openapi.json}.
+ */
+@Hidden
+@RestController
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class StaticOpenApiController {
+  private final Resource document = new ClassPathResource("static/openapi.json");
+
+  @GetMapping(value = "/v3/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Resource> apiDocs() {
+    return document.exists() ? ResponseEntity.ok(document) : ResponseEntity.notFound().build();
+  }
+}
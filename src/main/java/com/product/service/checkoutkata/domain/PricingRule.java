@@ -14,8 +14,8 @@ import lombok.ToString;
     name = "pricing_rules",
     uniqueConstraints =
         @UniqueConstraint(
-            name = "uk_rule_sku_type",
-            columnNames = {"sku", "rule_type"}))
+            name = "uk_rule_sku_type_qty",
+            columnNames = {"sku", "rule_type", "x_qty"}))
 @ToString
 @Getter
 public class PricingRule {
@@ -24,7 +24,7 @@ public class PricingRule {
   @JsonProperty("id")
   private Long id;
 
-  @Column(nullable = false, length = 1)
+  @Column(nullable = false, length = 32)
   @JsonProperty("sku")
   private String sku;
 
@@ -0,0 +1,73 @@
+package com.product.service.checkoutkata.domain;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One version of a pricing rule, current during {@code [validFrom, validTo)}. Rows are written by a
+ * trigger on {@code pricing_rules} (see {@code V6__catalog_history.sql}), never by the application.
+ */
+@Entity
+@Immutable
+@Table(name = "pricing_rule_history")
+@ToString
+@Getter
+public class PricingRuleVersion {
+  @Id private Long id;
+
+  @Column(name = "rule_id", nullable = false)
+  private Long ruleId;
+
+  @Column(nullable = false, length = 32)
+  private String sku;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "rule_type", nullable = false)
+  private RuleType ruleType;
+
+  @Column(name = "x_qty")
+  private Integer xQty;
+
+  @Column(name = "y_price", precision = 12, scale = 2)
+  private BigDecimal yPrice;
+
+  @Column(name = "starts_at")
+  private OffsetDateTime startsAt;
+
+  @Column(name = "ends_at")
+  private OffsetDateTime endsAt;
+
+  /** {@code null}: since before history was kept. */
+  @Column(name = "valid_from")
+  private OffsetDateTime validFrom;
+
+  /** {@code null}: still current. */
+  @Column(name = "valid_to")
+  private OffsetDateTime validTo;
+
+  protected PricingRuleVersion() {}
+
+  public PricingRuleVersion(
+      Long ruleId, PricingRule rule, OffsetDateTime validFrom, OffsetDateTime validTo) {
+    this.ruleId = ruleId;
+    this.sku = rule.getSku();
+    this.ruleType = rule.getRuleType();
+    this.xQty = rule.getXQty();
+    this.yPrice = rule.getYPrice();
+    this.startsAt = rule.getStartsAt();
+    this.endsAt = rule.getEndsAt();
+    this.validFrom = validFrom;
+    this.validTo = validTo;
+  }
+
+  /** The rule as it read in this version. */
+  public PricingRule toRule() {
+    return new PricingRule(sku, ruleType, xQty, yPrice, startsAt, endsAt);
+  }
+}
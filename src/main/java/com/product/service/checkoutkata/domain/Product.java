@@ -14,7 +14,7 @@ public class Product {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @Column(nullable = false, unique = true, length = 1)
+  @Column(nullable = false, unique = true, length = 32)
   private String sku;
 
   @Column(nullable = false, precision = 12, scale = 2)
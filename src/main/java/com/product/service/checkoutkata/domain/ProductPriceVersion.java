@@ -0,0 +1,47 @@
+package com.product.service.checkoutkata.domain;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One version of a product's price, current during {@code [validFrom, validTo)}. Rows are written
+ * by a trigger on {@code products} (see {@code V6__catalog_history.sql}), never by the application.
+ */
+@Entity
+@Immutable
+@Table(name = "product_price_history")
+@ToString
+@Getter
+public class ProductPriceVersion {
+  @Id private Long id;
+
+  @Column(nullable = false, length = 32)
+  private String sku;
+
+  @Column(name = "unit_price", nullable = false, precision = 12, scale = 2)
+  private BigDecimal unitPrice;
+
+  /** {@code null}: since before history was kept. */
+  @Column(name = "valid_from")
+  private OffsetDateTime validFrom;
+
+  /** {@code null}: still current. */
+  @Column(name = "valid_to")
+  private OffsetDateTime validTo;
+
+  protected ProductPriceVersion() {}
+
+  public ProductPriceVersion(
+      String sku, BigDecimal unitPrice, OffsetDateTime validFrom, OffsetDateTime validTo) {
+    this.sku = sku;
+    this.unitPrice = unitPrice;
+    this.validFrom = validFrom;
+    this.validTo = validTo;
+  }
+}
@@ -0,0 +1,25 @@
+package com.product.service.checkoutkata.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BasketResult(
+    @Schema(description = "Position of the basket in the request", example = "0") int index,
+    @Schema(description = "Total for this basket; absent when it failed", example = "175.00")
+        BigDecimal total,
+    @Schema(description = "Map of SKU → quantity purchased", example = "{ \"A\": 3, \"B\": 1 }")
+        Map<String, Integer> itemCounts,
+    @Schema(description = "Offers applied to this basket") List<OfferApplied> offers,
+    @Schema(description = "Why this basket could not be priced", example = "Unknown SKU: Z")
+        String error) {
+
+  public static BasketResult failed(int index, String error) {
+    return new BasketResult(index, null, null, null, error);
+  }
+}
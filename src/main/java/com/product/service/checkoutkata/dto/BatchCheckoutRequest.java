@@ -0,0 +1,17 @@
+package com.product.service.checkoutkata.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Baskets to price in one call; each entry follows the single-checkout rules.")
+public record BatchCheckoutRequest(
+    @JsonProperty("baskets")
+        @NotEmpty(message = "baskets is required")
+        @Size(max = 10_000, message = "At most 10000 baskets per batch")
+        @Schema(example = "[\"AAAB\", \"CDBA\"]", description = "Item sequences, one per basket")
+        List<String> baskets) {}
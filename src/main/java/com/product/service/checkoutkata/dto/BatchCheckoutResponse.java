@@ -0,0 +1,11 @@
+package com.product.service.checkoutkata.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record BatchCheckoutResponse(
+    @Schema(description = "Number of baskets priced successfully", example = "2") int priced,
+    @Schema(description = "Number of baskets that failed", example = "0") int failed,
+    @Schema(description = "One result per requested basket, in request order")
+        List<BasketResult> results) {}
@@ -1,15 +1,82 @@
 package com.product.service.checkoutkata.dto;
 
+import java.util.Comparator;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.product.service.checkoutkata.service.BasketCounts;
+import com.product.service.checkoutkata.service.InvalidBasketException;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
-@Schema(description = "Characters represent SKUs; case-insensitive, non-letters ignored.")
+@Schema(
+    description =
+        "A basket in exactly one of three shapes: a SKU string (items), a SKU → quantity map"
+            + " (counts) or a run-length string (runs). SKUs are case-insensitive. In items and"
+            + " runs, separate SKUs with commas or spaces; without separators, each letter is a"
+            + " single-letter SKU.")
 public record CheckoutRequest(
     @JsonProperty("items")
-        @NotBlank(message = "items is required")
-        @Schema(example = "CDBA", description = "Sequence of item SKUs")
-        @Pattern(regexp = "^[A-Za-z]*$", message = "Only letters allowed")
-        String items) {}
+        @Size(min = 1, message = "items is required")
+        @Size(max = 1_000_000, message = "items must be at most 1000000 characters")
+        @Schema(
+            example = "CDBA",
+            description = "Item SKUs, e.g. \"CDBA\" or \"APPLE, PEAR, APPLE\"")
+        @Pattern(
+            regexp = "^[A-Za-z0-9_,\\s-]*$",
+            message = "items must be SKUs separated by commas or spaces")
+        // not blank, and not only separators, which would parse to an empty basket
+        @Pattern(regexp = HAS_SKU, message = "items is required")
+        String items,
+    @JsonProperty("counts")
+        @Size(min = 1, max = 10_000, message = "counts must have between 1 and 10000 entries")
+        @Schema(example = "{ \"A\": 500000, \"B\": 3 }", description = "SKU → quantity")
+        Map<String, Integer> counts,
+    @JsonProperty("runs")
+        @Size(min = 1, max = 65_536, message = "runs must be between 1 and 65536 characters")
+        @Schema(
+            example = "A500000B3",
+            description =
+                "Run-length basket: SKU + quantity, e.g. \"A500000B3\" or \"APPLE*3,PEAR\"")
+        @Pattern(
+            regexp = "^[A-Za-z0-9_*,\\s-]*$",
+            message = "runs must be SKUs with optional quantities")
+        @Pattern(regexp = HAS_SKU, message = "runs must name at least one SKU")
+        String runs) {
+  // at least one letter: every SKU starts with one (null is left to isSingleShape)
+  static final String HAS_SKU = "(?s).*[A-Za-z].*";
+
+  @JsonIgnore
+  @AssertTrue(message = "Exactly one of items, counts or runs is required")
+  @Schema(hidden = true)
+  public boolean isSingleShape() {
+    return (items != null ? 1 : 0) + (counts != null ? 1 : 0) + (runs != null ? 1 : 0) == 1;
+  }
+
+  /**
+   * The basket in whichever shape it was given; call on a validated request.
+   *
+   * @throws InvalidBasketException if the items, counts or runs do not make a basket
+   */
+  public BasketCounts toCounts() {
+    if (items != null) return BasketCounts.parse(items);
+    return (counts != null) ? BasketCounts.ofCounts(counts) : BasketCounts.parseRunLength(runs);
+  }
+
+  /**
+   * A constraint {@code req} violates, for requests validated by hand (stream records), or null if
+   * it is valid. A null request has no shape.
+   */
+  public static String violation(Validator validator, CheckoutRequest req) {
+    return validator.validate(req == null ? new CheckoutRequest(null, null, null) : req).stream()
+        .map(ConstraintViolation::getMessage)
+        .min(Comparator.naturalOrder())
+        .orElse(null);
+  }
+}
@@ -0,0 +1,151 @@
+package com.product.service.checkoutkata.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.product.service.checkoutkata.service.BasketCounts;
+import com.product.service.checkoutkata.service.PricingResult;
+
+/**
+ * Writes a {@link PricingResult} as {@link CheckoutResponse} JSON straight from the result, with
+ * Jackson's streaming generator: no response record, {@code itemCounts} map or reflective
+ * serializer per request. Field names, including each SKU by its dictionary id, are encoded once,
+ * and {@link #serialize} builds the body in a buffer kept per thread between requests.
+ *
+ * <p>The output is byte-identical to {@code om.writerFor(CheckoutResponse.class)} for the same
+ * mapper; generator features configured on the mapper (e.g. plain {@code BigDecimal}s) apply
+ * because the generator is created by its {@link ObjectWriter}.
+ */
+public final class CheckoutResponseWriter {
+  private static final SerializableString TOTAL = new SerializedString("total");
+  private static final SerializableString ITEM_COUNTS = new SerializedString("itemCounts");
+  private static final SerializableString OFFERS = new SerializedString("offers");
+  private static final SerializableString SKU = new SerializedString("sku");
+  private static final SerializableString RULE_TYPE = new SerializedString("ruleType");
+  private static final SerializableString BUNDLES_APPLIED = new SerializedString("bundlesApplied");
+  private static final SerializableString BUNDLE_SIZE = new SerializedString("bundleSize");
+  private static final SerializableString BUNDLE_PRICE = new SerializedString("bundlePrice");
+  private static final SerializableString REMAINDER = new SerializedString("remainder");
+  private static final SerializableString REMAINDER_PRICE = new SerializedString("remainderPrice");
+
+  // a response that outgrew this is not worth holding on to for the thread's lifetime
+  private static final int MAX_RETAINED_BYTES = 64 * 1024;
+  private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+  private final ObjectWriter writer;
+  // encoded SKU names by dictionary id, filled on first use
+  private volatile SerializableString[] skuNames = new SerializableString[64];
+
+  public CheckoutResponseWriter(ObjectMapper om) {
+    this.writer = om.writerFor(CheckoutResponse.class);
+  }
+
+  /**
+   * Serializes {@code result} into the calling thread's buffer. The buffer is overwritten by the
+   * next call on the same thread, so write it out before serializing another response.
+   */
+  public Buffer serialize(PricingResult result) {
+    Buffer buf = BUFFERS.get();
+    if (buf.capacity() > MAX_RETAINED_BYTES) {
+      buf = new Buffer();
+      BUFFERS.set(buf);
+    }
+    buf.reset();
+    try (JsonGenerator gen = writer.createGenerator(buf)) {
+      write(result, gen);
+    } catch (IOException e) {
+      // only the in-memory buffer is written to
+      throw new UncheckedIOException(e);
+    }
+    return buf;
+  }
+
+  /** A copy of the serialized response, for callers that need to keep it. */
+  public byte[] toBytes(PricingResult result) {
+    return serialize(result).toByteArray();
+  }
+
+  /** Writes {@code result} as one JSON object on {@code gen}, e.g. a line of an NDJSON stream. */
+  public void write(PricingResult result, JsonGenerator gen) throws IOException {
+    gen.writeStartObject();
+    gen.writeFieldName(TOTAL);
+    gen.writeNumber(result.total());
+
+    gen.writeFieldName(ITEM_COUNTS);
+    gen.writeStartObject();
+    BasketCounts counts = result.counts();
+    for (int i = 0; i < counts.size(); i++) {
+      gen.writeFieldName(skuName(counts, i));
+      gen.writeNumber(counts.countAt(i));
+    }
+    gen.writeEndObject();
+
+    gen.writeFieldName(OFFERS);
+    if (result.offers() == null) {
+      gen.writeNull();
+    } else {
+      gen.writeStartArray();
+      for (OfferApplied o : result.offers()) writeOffer(o, gen);
+      gen.writeEndArray();
+    }
+    gen.writeEndObject();
+  }
+
+  private SerializableString skuName(BasketCounts counts, int i) {
+    if (!counts.isEncoded(i)) return new SerializedString(counts.skuAt(i));
+    int id = counts.idAt(i);
+    SerializableString[] names = skuNames;
+    SerializableString name = (id < names.length) ? names[id] : null;
+    return (name != null) ? name : encode(id, counts.skuAt(i));
+  }
+
+  private synchronized SerializableString encode(int id, String sku) {
+    SerializableString[] names = skuNames;
+    if (id >= names.length) {
+      names = Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+    }
+    // written in place: a reader racing this sees null and encodes again, or the finished
+    // instance, whose name is a final field
+    SerializableString name = new SerializedString(sku);
+    names[id] = name;
+    skuNames = names;
+    return name;
+  }
+
+  private static void writeOffer(OfferApplied o, JsonGenerator gen) throws IOException {
+    gen.writeStartObject();
+    gen.writeFieldName(SKU);
+    gen.writeString(o.sku());
+    gen.writeFieldName(RULE_TYPE);
+    gen.writeString(o.ruleType());
+    gen.writeFieldName(BUNDLES_APPLIED);
+    gen.writeNumber(o.bundlesApplied());
+    gen.writeFieldName(BUNDLE_SIZE);
+    gen.writeNumber(o.bundleSize());
+    gen.writeFieldName(BUNDLE_PRICE);
+    gen.writeNumber(o.bundlePrice());
+    gen.writeFieldName(REMAINDER);
+    gen.writeNumber(o.remainder());
+    gen.writeFieldName(REMAINDER_PRICE);
+    gen.writeNumber(o.remainderPrice());
+    gen.writeEndObject();
+  }
+
+  /** A reusable, growable byte buffer; {@link #writeTo} copies it to the response stream. */
+  public static final class Buffer extends ByteArrayOutputStream {
+    Buffer() {
+      super(1024);
+    }
+
+    int capacity() {
+      return buf.length;
+    }
+  }
+}
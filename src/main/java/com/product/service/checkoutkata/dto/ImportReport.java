@@ -0,0 +1,22 @@
+package com.product.service.checkoutkata.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ImportReport(
+    @Schema(description = "Data rows read from the upload", example = "2") int rows,
+    @Schema(
+            description = "Rows inserted or changed; 0 when the import was rolled back",
+            example = "2")
+        int written,
+    @Schema(description = "Rows that failed; any error rolls back the whole import")
+        List<ImportError> errors) {
+
+  public record ImportError(
+      @Schema(description = "1-based line number in the upload", example = "3") long line,
+      @Schema(
+              description = "Why the row was rejected",
+              example = "unitPrice: must be greater than or equal to 0.00")
+          String error) {}
+}
@@ -0,0 +1,17 @@
+package com.product.service.checkoutkata.dto;
+
+import java.math.BigDecimal;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+public record PriceAdjustmentDto(
+    @Schema(
+            example = "-10",
+            description = "Percentage to add to every unit price; -10 is a 10% reduction")
+        @NotNull
+        @DecimalMin("-100")
+        @DecimalMax("1000")
+        BigDecimal percent) {}
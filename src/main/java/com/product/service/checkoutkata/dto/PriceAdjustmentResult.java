@@ -0,0 +1,7 @@
+package com.product.service.checkoutkata.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record PriceAdjustmentResult(
+    @Schema(description = "Number of products whose unit price changed", example = "4")
+        int updated) {}
@@ -9,10 +9,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
 
 public record PricingRuleDto(
-    @Schema(example = "A", description = "SKU the rule applies to") @Pattern(regexp = "[A-Z]")
+    @Schema(example = "A", description = "SKU the rule applies to")
+        @Pattern(regexp = "[A-Z][A-Z0-9_-]{0,31}")
         String sku,
     @Schema(example = "BULK_X_FOR_Y") RuleType ruleType,
-    @Schema(example = "3", description = "Bundle size for BULK_X_FOR_Y") @Min(1) Integer xQty,
+    @Schema(example = "3", description = "Bundle size for BULK_X_FOR_Y; a SKU may have several")
+        @Min(1)
+        Integer xQty,
     @Schema(example = "130.00", description = "Bundle price for BULK_X_FOR_Y") @DecimalMin("0.00")
         BigDecimal yPrice,
     @Schema(
@@ -6,6 +6,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
 
 public record ProductDto(
-    @Schema(example = "A", description = "Single-letter SKU") @Pattern(regexp = "[A-Z]") String sku,
+    @Schema(
+            example = "APPLE",
+            description = "Up to 32 upper-case letters, digits, '_' or '-', starting with a letter")
+        @Pattern(regexp = "[A-Z][A-Z0-9_-]{0,31}")
+        String sku,
     @Schema(example = "50.00", description = "Unit price (scale=2)") @DecimalMin("0.00")
         BigDecimal unitPrice) {}
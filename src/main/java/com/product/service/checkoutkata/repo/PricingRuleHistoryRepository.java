@@ -0,0 +1,14 @@
+package com.product.service.checkoutkata.repo;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.product.service.checkoutkata.domain.PricingRuleVersion;
+
+public interface PricingRuleHistoryRepository extends JpaRepository<PricingRuleVersion, Long> {
+  /** Versions inserted or closed by transactions from {@code xid} on. */
+  @Query(value = "SELECT * FROM pricing_rule_history WHERE changed_xid >= :xid", nativeQuery = true)
+  List<PricingRuleVersion> findChangedSince(long xid);
+}
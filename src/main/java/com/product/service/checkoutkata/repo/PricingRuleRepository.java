@@ -1,24 +1,29 @@
 package com.product.service.checkoutkata.repo;
 
-import java.time.OffsetDateTime;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.product.service.checkoutkata.domain.PricingRule;
 
+import jakarta.persistence.QueryHint;
+
 public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
   List<PricingRule> findBySku(String sku);
 
-  @Query(
-      """
-    SELECT r FROM PricingRule r
-    WHERE r.sku = :sku
-      AND (r.startsAt IS NULL OR r.startsAt <= :now)
-      AND (r.endsAt IS NULL OR r.endsAt >= :now)
-    ORDER BY r.id
-  """)
-  List<PricingRule> findActiveBySkuAt(@Param("sku") String sku, @Param("now") OffsetDateTime now);
+  /** Keyset page: the first {@code limit} rules with an id above {@code id}. */
+  List<PricingRule> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /** All rules in id order, fetched through a server-side cursor; needs a transaction. */
+  @QueryHints({
+    @QueryHint(name = HINT_FETCH_SIZE, value = "256"),
+    @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  Stream<PricingRule> streamAllByOrderByIdAsc();
 }
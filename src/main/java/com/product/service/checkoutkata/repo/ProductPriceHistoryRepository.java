@@ -0,0 +1,25 @@
+package com.product.service.checkoutkata.repo;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.product.service.checkoutkata.domain.ProductPriceVersion;
+
+public interface ProductPriceHistoryRepository extends JpaRepository<ProductPriceVersion, Long> {
+  /**
+   * Id of the oldest transaction still running: every history change by an older one is visible to
+   * reads that follow (see {@code V8__history_change_xid.sql}).
+   */
+  @Query(
+      value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)",
+      nativeQuery = true)
+  long xidHorizon();
+
+  /** Versions inserted or closed by transactions from {@code xid} on. */
+  @Query(
+      value = "SELECT * FROM product_price_history WHERE changed_xid >= :xid",
+      nativeQuery = true)
+  List<ProductPriceVersion> findChangedSince(long xid);
+}
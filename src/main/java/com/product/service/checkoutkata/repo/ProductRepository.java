@@ -1,11 +1,30 @@
 package com.product.service.checkoutkata.repo;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.product.service.checkoutkata.domain.Product;
 
+import jakarta.persistence.QueryHint;
+
 public interface ProductRepository extends JpaRepository<Product, Long> {
   Optional<Product> findBySku(String sku);
+
+  /** Keyset page: the first {@code limit} products with a SKU after {@code sku}. */
+  List<Product> findBySkuGreaterThanOrderBySkuAsc(String sku, Limit limit);
+
+  /** All products in SKU order, fetched through a server-side cursor; needs a transaction. */
+  @QueryHints({
+    @QueryHint(name = HINT_FETCH_SIZE, value = "256"),
+    @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  Stream<Product> streamAllByOrderBySkuAsc();
 }
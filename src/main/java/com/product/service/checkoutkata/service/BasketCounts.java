@@ -0,0 +1,417 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-SKU unit counts of a basket, stored as parallel primitive vectors: the {@link SkuDictionary}
+ * id of each distinct SKU, ascending, and its quantity. Parsing is a single pass over the input
+ * that looks SKUs up straight from the input characters, so no per-item {@code String} is built.
+ *
+ * <p>A basket string is either SKUs separated by commas and/or whitespace ({@code "APPLE, PEAR
+ * APPLE"}) or, with no separator and only letters, the compact form of one single-letter SKU per
+ * character ({@code "AAB"}), so a lone multi-character SKU needs a separator ({@code "APPLE,"}).
+ * What a string means never depends on which SKUs the catalog holds. Counts can also be built from
+ * an explicit SKU → quantity map or a run-length string such as {@code A500000B3} or {@code
+ * APPLE*3,PEAR}; both cost O(distinct SKUs), not O(units). SKUs are case-insensitive and start with
+ * a letter.
+ *
+ * <p>A SKU the dictionary does not know (yet) is kept by name after the encoded ones, so it can
+ * still be resolved against a catalog, or reported as unknown.
+ */
+public final class BasketCounts {
+  private static final BasketCounts EMPTY = new BasketCounts(new int[0], new String[0], new int[0]);
+  // below this many encoded SKUs, parsing counts straight into an array indexed by id
+  private static final int DENSE_LIMIT = 256;
+
+  // positions [0, ids.length) hold encoded SKUs by ascending id, the rest SKUs by name (sorted);
+  // counts has one quantity per position
+  private final int[] ids;
+  private final String[] names;
+  private final int[] counts;
+
+  private BasketCounts(int[] ids, String[] names, int[] counts) {
+    this.ids = ids;
+    this.names = names;
+    this.counts = counts;
+  }
+
+  public static BasketCounts empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Counts a basket string, separated or compact (see above).
+   *
+   * @throws InvalidBasketException on a character that is neither a SKU character (letter, digit,
+   *     {@code _}, {@code -}) nor a separator, or a SKU not starting with a letter
+   */
+  public static BasketCounts parse(CharSequence items) {
+    if (items == null || items.isEmpty()) return EMPTY;
+    Builder b = new Builder();
+    int n = items.length();
+    for (int i = 0; i < n; i++) {
+      char c = items.charAt(i);
+      if (!isLetter(c)) return parseSeparated(items);
+      b.addLetter(c, 1);
+    }
+    return b.build();
+  }
+
+  private static BasketCounts parseSeparated(CharSequence items) {
+    Builder b = new Builder();
+    int i = 0;
+    int n = items.length();
+    while (i < n) {
+      if (isSeparator(items.charAt(i))) {
+        i++;
+        continue;
+      }
+      int start = i;
+      i = skuEnd(items, i);
+      b.add(items, start, i, 1);
+    }
+    return b.build();
+  }
+
+  /**
+   * Run-length form: each SKU is optionally followed by a decimal quantity. Compact ({@code AB3} is
+   * one A and three B) for single-letter SKUs; with multi-character SKUs, separate the entries by
+   * commas or whitespace and write quantities after a {@code *} ({@code APPLE*3, PEAR}). Repeated
+   * SKUs add up.
+   *
+   * @throws InvalidBasketException on any other character, a leading digit or a quantity that does
+   *     not fit an {@code int}
+   */
+  public static BasketCounts parseRunLength(CharSequence runs) {
+    if (runs == null || runs.isEmpty()) return EMPTY;
+    int n = runs.length();
+    for (int i = 0; i < n; i++) {
+      char c = runs.charAt(i);
+      if (c == '*' || isSeparator(c)) return parseSeparatedRuns(runs);
+    }
+    Builder b = new Builder();
+    int i = 0;
+    while (i < n) {
+      char c = runs.charAt(i);
+      if (!isLetter(c)) {
+        throw new InvalidBasketException(
+            "Invalid run-length basket at position " + i + ": expected a SKU letter");
+      }
+      i++;
+      if (i == n || !isDigit(runs.charAt(i))) {
+        b.addLetter(c, 1);
+        continue;
+      }
+      int end = digitsEnd(runs, i);
+      b.addLetter(c, quantity(runs, i, end));
+      i = end;
+    }
+    return b.build();
+  }
+
+  private static BasketCounts parseSeparatedRuns(CharSequence runs) {
+    Builder b = new Builder();
+    int i = 0;
+    int n = runs.length();
+    while (i < n) {
+      if (isSeparator(runs.charAt(i))) {
+        i++;
+        continue;
+      }
+      int start = i;
+      int end = skuEnd(runs, i);
+      i = end;
+      int qty = 1;
+      if (i < n && runs.charAt(i) == '*') {
+        int digits = digitsEnd(runs, ++i);
+        if (digits == i) {
+          throw new InvalidBasketException(
+              "Invalid run-length basket at position " + i + ": expected a quantity");
+        }
+        qty = quantity(runs, i, digits);
+        i = digits;
+      }
+      b.add(runs, start, end, qty);
+    }
+    return b.build();
+  }
+
+  /**
+   * Explicit SKU → quantity map. Keys are SKUs, case-insensitive; quantities must be non-negative
+   * and zero entries are dropped.
+   *
+   * @throws InvalidBasketException on any other key or a negative quantity
+   */
+  public static BasketCounts ofCounts(Map<String, Integer> quantities) {
+    if (quantities == null || quantities.isEmpty()) return EMPTY;
+    Builder b = new Builder();
+    for (Map.Entry<String, Integer> e : quantities.entrySet()) {
+      String sku = e.getKey();
+      if (sku == null || sku.isEmpty() || !isLetter(sku.charAt(0)) || !allSkuChars(sku)) {
+        throw new InvalidBasketException("Invalid SKU in counts: " + sku);
+      }
+      Integer qty = e.getValue();
+      if (qty == null || qty < 0) {
+        throw new InvalidBasketException("Quantity for " + sku + " must be zero or positive");
+      }
+      b.add(sku, 0, sku.length(), qty);
+    }
+    return b.build();
+  }
+
+  /** End of the SKU starting at {@code i}, which must be a letter. */
+  private static int skuEnd(CharSequence s, int i) {
+    if (!isLetter(s.charAt(i))) throw invalidCharacter(s, i);
+    int n = s.length();
+    int end = i + 1;
+    while (end < n && isSkuChar(s.charAt(end))) end++;
+    if (end < n && !isSeparator(s.charAt(end)) && s.charAt(end) != '*') {
+      throw invalidCharacter(s, end);
+    }
+    return end;
+  }
+
+  private static int digitsEnd(CharSequence s, int i) {
+    while (i < s.length() && isDigit(s.charAt(i))) i++;
+    return i;
+  }
+
+  private static int quantity(CharSequence s, int from, int to) {
+    int qty = 0;
+    for (int i = from; i < to; i++) {
+      int digit = s.charAt(i) - '0';
+      if (qty > (Integer.MAX_VALUE - digit) / 10) throw tooLarge();
+      qty = qty * 10 + digit;
+    }
+    return qty;
+  }
+
+  private static boolean allSkuChars(String sku) {
+    for (int i = 0; i < sku.length(); i++) if (!isSkuChar(sku.charAt(i))) return false;
+    return true;
+  }
+
+  private static boolean isLetter(char c) {
+    int idx = (c | 0x20) - 'a';
+    return idx >= 0 && idx < 26;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isSkuChar(char c) {
+    return isLetter(c) || isDigit(c) || c == '_' || c == '-';
+  }
+
+  private static boolean isSeparator(char c) {
+    return c == ',' || c == ' ' || c == '\t' || c == '\n' || c == '\r';
+  }
+
+  private static int addQuantity(int a, int b) {
+    int r = a + b;
+    if (((a ^ r) & (b ^ r)) < 0) throw tooLarge();
+    return r;
+  }
+
+  private static InvalidBasketException tooLarge() {
+    return new InvalidBasketException("Quantity too large");
+  }
+
+  private static InvalidBasketException invalidCharacter(CharSequence s, int i) {
+    return new InvalidBasketException(
+        "Invalid basket at position " + i + ": unexpected '" + s.charAt(i) + "'");
+  }
+
+  /** Number of positions: distinct SKUs in the basket. */
+  public int size() {
+    return counts.length;
+  }
+
+  public int countAt(int i) {
+    return counts[i];
+  }
+
+  /** Whether position {@code i} holds a dictionary id, rather than a SKU known only by name. */
+  public boolean isEncoded(int i) {
+    return i < ids.length;
+  }
+
+  /** Dictionary id at an {@link #isEncoded encoded} position. */
+  public int idAt(int i) {
+    return ids[i];
+  }
+
+  public String skuAt(int i) {
+    return (i < ids.length) ? SkuDictionary.global().table().nameOf(ids[i]) : names[i - ids.length];
+  }
+
+  public int distinct() {
+    return counts.length;
+  }
+
+  /** Total number of units across all SKUs. */
+  public long totalUnits() {
+    long total = 0;
+    for (int c : counts) total += c;
+    return total;
+  }
+
+  public boolean isEmpty() {
+    return counts.length == 0;
+  }
+
+  /** SKU → quantity for the response, in position order. */
+  public Map<String, Integer> toItemCounts() {
+    Map<String, Integer> m = new LinkedHashMap<>(counts.length * 2);
+    for (int i = 0; i < counts.length; i++) m.put(skuAt(i), counts[i]);
+    return m;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof BasketCounts b
+        && Arrays.equals(ids, b.ids)
+        && Arrays.equals(counts, b.counts)
+        && Arrays.equals(names, b.names);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Arrays.hashCode(ids) + Arrays.hashCode(counts)) + Arrays.hashCode(names);
+  }
+
+  @Override
+  public String toString() {
+    return toItemCounts().toString();
+  }
+
+  /**
+   * Accumulates quantities by id against one read of the dictionary, so a basket never mixes ids
+   * and names for the same SKU.
+   */
+  private static final class Builder {
+    private final SkuDictionary.Table dictionary = SkuDictionary.global().table();
+    private final int[] dense =
+        (dictionary.size() <= DENSE_LIMIT) ? new int[dictionary.size()] : null;
+    // open addressing for larger dictionaries: key is id + 1, 0 marks a free slot
+    private int[] keys;
+    private int[] values;
+    private int used;
+    private Map<String, Integer> unknown;
+
+    void addLetter(char c, int qty) {
+      int id = dictionary.idOfLetter(c);
+      if (id >= 0) {
+        addId(id, qty);
+      } else {
+        addUnknown(String.valueOf((char) (c & ~0x20)), qty);
+      }
+    }
+
+    void add(CharSequence s, int from, int to, int qty) {
+      int id = dictionary.idOf(s, from, to);
+      if (id >= 0) {
+        addId(id, qty);
+      } else {
+        StringBuilder sku = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+          char c = s.charAt(i);
+          sku.append(isLetter(c) ? (char) (c & ~0x20) : c);
+        }
+        addUnknown(sku.toString(), qty);
+      }
+    }
+
+    private void addId(int id, int qty) {
+      if (dense != null) {
+        dense[id] = addQuantity(dense[id], qty);
+        return;
+      }
+      if (keys == null || (used + 1) * 2 > keys.length) grow();
+      int slot = slot(keys, id);
+      if (keys[slot] == 0) {
+        keys[slot] = id + 1;
+        used++;
+      }
+      values[slot] = addQuantity(values[slot], qty);
+    }
+
+    private void addUnknown(String sku, int qty) {
+      if (unknown == null) unknown = new TreeMap<>();
+      unknown.merge(sku, qty, BasketCounts::addQuantity);
+    }
+
+    private static int slot(int[] keys, int id) {
+      int mask = keys.length - 1;
+      int slot = (id * 0x9E3779B9) >>> 7 & mask;
+      while (keys[slot] != 0 && keys[slot] != id + 1) slot = (slot + 1) & mask;
+      return slot;
+    }
+
+    private void grow() {
+      int[] oldKeys = keys;
+      int[] oldValues = values;
+      keys = new int[(oldKeys == null) ? 16 : oldKeys.length * 2];
+      values = new int[keys.length];
+      if (oldKeys == null) return;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] == 0) continue;
+        int slot = slot(keys, oldKeys[i] - 1);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+
+    BasketCounts build() {
+      long[] known = knownSorted();
+      int extra = 0;
+      if (unknown != null) {
+        for (int q : unknown.values()) if (q > 0) extra++;
+      }
+      if (known.length + extra == 0) return EMPTY;
+      int[] ids = new int[known.length];
+      String[] names = new String[extra];
+      int[] counts = new int[known.length + extra];
+      for (int i = 0; i < known.length; i++) {
+        ids[i] = (int) (known[i] >>> 32);
+        counts[i] = (int) known[i];
+      }
+      if (extra > 0) {
+        int i = 0;
+        for (Map.Entry<String, Integer> e : unknown.entrySet()) {
+          if (e.getValue() == 0) continue;
+          names[i] = e.getKey();
+          counts[known.length + i++] = e.getValue();
+        }
+      }
+      return new BasketCounts(ids, names, counts);
+    }
+
+    /** Non-zero (id, quantity) pairs packed as {@code id << 32 | quantity}, by ascending id. */
+    private long[] knownSorted() {
+      int n = 0;
+      if (dense != null) {
+        for (int q : dense) if (q > 0) n++;
+        long[] packed = new long[n];
+        int k = 0;
+        for (int id = 0; id < dense.length; id++) {
+          if (dense[id] > 0) packed[k++] = (long) id << 32 | dense[id];
+        }
+        return packed;
+      }
+      if (keys == null) return new long[0];
+      for (int q : values) if (q > 0) n++;
+      long[] packed = new long[n];
+      int k = 0;
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != 0 && values[i] > 0) packed[k++] = (long) (keys[i] - 1) << 32 | values[i];
+      }
+      Arrays.sort(packed);
+      return packed;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.product.service.checkoutkata.service;
+
+/** Result of pricing one basket of a batch: either a {@link PricingResult} or an error message. */
+public record BasketOutcome(PricingResult result, String error) {
+
+  public static BasketOutcome ok(PricingResult result) {
+    return new BasketOutcome(result, null);
+  }
+
+  public static BasketOutcome failed(String error) {
+    return new BasketOutcome(null, error);
+  }
+
+  public boolean isOk() {
+    return error == null;
+  }
+}
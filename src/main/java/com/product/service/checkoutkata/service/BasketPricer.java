@@ -0,0 +1,190 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+/**
+ * Prices a parsed basket against a {@link CatalogSnapshot} in the configured {@link PricingMode}.
+ * Pure and stateless apart from the mode, so it is shared by the servlet {@link CheckoutService}
+ * and the reactive deployment, which only differ in how they obtain the snapshot.
+ */
+public final class BasketPricer {
+  private final PricingEngine engine = new PricingEngine();
+  private final PricingMode mode;
+  private final long maxUnits;
+  private final Runnable onUnknownSku;
+
+  /** A pricer with no limit on basket size. */
+  public BasketPricer(PricingMode mode, Runnable onUnknownSku) {
+    this(mode, Long.MAX_VALUE, onUnknownSku);
+  }
+
+  /**
+   * @param maxUnits the most units a basket may hold ({@code checkout.basket.max-units})
+   * @param onUnknownSku called whenever {@link #resolve} rejects a basket, e.g. to count it
+   */
+  public BasketPricer(PricingMode mode, long maxUnits, Runnable onUnknownSku) {
+    this.mode = mode;
+    this.maxUnits = maxUnits;
+    this.onUnknownSku = onUnknownSku;
+  }
+
+  /**
+   * Returns {@code counts} if it is within the unit limit; every basket shape goes through this
+   * after parsing.
+   *
+   * @throws InvalidBasketException if the basket holds more than {@code maxUnits} units
+   */
+  public BasketCounts checkSize(BasketCounts counts) {
+    if (counts.totalUnits() > maxUnits) {
+      throw new InvalidBasketException("Basket exceeds " + maxUnits + " units");
+    }
+    return counts;
+  }
+
+  /** Same rules as {@code CheckoutRequest}, applied per basket instead of per request. */
+  public static String validate(String items) {
+    if (items == null) return "items is required";
+    if (items.length() > 1_000_000) return "items must be at most 1000000 characters";
+    boolean letter = false;
+    for (int i = 0; i < items.length(); i++) {
+      char c = items.charAt(i);
+      if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+        letter = true;
+      } else if (!((c >= '0' && c <= '9')
+          || c == '_'
+          || c == '-'
+          || c == ','
+          || Character.isWhitespace(c))) {
+        return "items must be SKUs separated by commas or spaces";
+      }
+    }
+    // blank, or only separators: an empty basket is not a basket
+    return letter ? null : "items is required";
+  }
+
+  /**
+   * Validates and prices one basket string, reporting failures as a {@link BasketOutcome} instead
+   * of throwing.
+   */
+  public BasketOutcome priceOutcome(String items, CatalogSnapshot snapshot, Instant now) {
+    String invalid = validate(items);
+    if (invalid != null) return BasketOutcome.failed(invalid);
+    BasketCounts counts;
+    try {
+      counts = BasketCounts.parse(items);
+    } catch (InvalidBasketException e) {
+      return BasketOutcome.failed(e.getMessage());
+    }
+    return priceOutcome(counts, snapshot, now);
+  }
+
+  /** Prices one parsed basket, reporting failures as a {@link BasketOutcome}. */
+  public BasketOutcome priceOutcome(BasketCounts counts, CatalogSnapshot snapshot, Instant now) {
+    try {
+      checkSize(counts);
+      return BasketOutcome.ok(price(counts, resolve(counts, snapshot), now));
+    } catch (NoSuchElementException | InvalidBasketException e) {
+      return BasketOutcome.failed(e.getMessage());
+    }
+  }
+
+  /**
+   * Catalog entry for each position of {@code counts}, found by SKU id.
+   *
+   * @throws NoSuchElementException naming the first SKU missing from the snapshot
+   */
+  public CatalogSnapshot.Entry[] resolve(BasketCounts counts, CatalogSnapshot snapshot) {
+    CatalogSnapshot.Entry[] entries = new CatalogSnapshot.Entry[counts.size()];
+    for (int i = 0; i < counts.size(); i++) {
+      CatalogSnapshot.Entry e =
+          counts.isEncoded(i)
+              ? snapshot.entry(counts.idAt(i))
+              : snapshot.find(counts.skuAt(i)).orElse(null);
+      entries[i] = (e != null) ? e : unknown(counts.skuAt(i));
+    }
+    return entries;
+  }
+
+  /** Same as {@link #resolve(BasketCounts, CatalogSnapshot)} with entries found by SKU name. */
+  public CatalogSnapshot.Entry[] resolve(
+      BasketCounts counts, Function<String, Optional<CatalogSnapshot.Entry>> catalog) {
+    CatalogSnapshot.Entry[] entries = new CatalogSnapshot.Entry[counts.size()];
+    for (int i = 0; i < counts.size(); i++) {
+      String sku = counts.skuAt(i);
+      entries[i] = catalog.apply(sku).orElseGet(() -> unknown(sku));
+    }
+    return entries;
+  }
+
+  private CatalogSnapshot.Entry unknown(String sku) {
+    onUnknownSku.run();
+    throw new NoSuchElementException("Unknown SKU: " + sku);
+  }
+
+  /**
+   * Prices {@code counts} with the entries from {@link #resolve} and the rules active at {@code
+   * now}, which is the single pricing instant for the whole basket.
+   *
+   * @throws InvalidBasketException if the total does not fit in cents
+   */
+  public PricingResult price(BasketCounts counts, CatalogSnapshot.Entry[] entries, Instant now) {
+    try {
+      return switch (mode) {
+        case DECIMAL -> priceDecimal(counts, entries, now);
+        case FIXED_POINT -> priceFixedPoint(counts, entries, now);
+        case COMPILED -> priceCompiled(counts, entries, now);
+      };
+    } catch (ArithmeticException e) {
+      throw new InvalidBasketException("Basket total out of range");
+    }
+  }
+
+  private PricingResult priceCompiled(
+      BasketCounts counts, CatalogSnapshot.Entry[] entries, Instant now) {
+    long total = 0L;
+    List<OfferApplied> overallOffers = new ArrayList<>();
+    for (int i = 0; i < counts.size(); i++) {
+      int qty = counts.countAt(i);
+      total = Math.addExact(total, entries[i].activeAt(now).plan().priceInto(qty, overallOffers));
+    }
+    return new PricingResult(Money.fromCents(total), overallOffers, counts);
+  }
+
+  private PricingResult priceDecimal(
+      BasketCounts counts, CatalogSnapshot.Entry[] entries, Instant now) {
+    BigDecimal total = BigDecimal.ZERO.setScale(2);
+    List<OfferApplied> overallOffers = new ArrayList<>();
+    for (int i = 0; i < counts.size(); i++) {
+      int qty = counts.countAt(i);
+      CatalogSnapshot.Entry p = entries[i];
+      PricingResult res = engine.priceForWithDetails(qty, p.unitPrice(), p.activeAt(now).rules());
+      total = total.add(res.total());
+      overallOffers.addAll(res.offers());
+    }
+    return new PricingResult(total.setScale(2), overallOffers, counts);
+  }
+
+  private PricingResult priceFixedPoint(
+      BasketCounts counts, CatalogSnapshot.Entry[] entries, Instant now) {
+    long total = 0L;
+    List<OfferApplied> overallOffers = new ArrayList<>();
+    for (int i = 0; i < counts.size(); i++) {
+      int qty = counts.countAt(i);
+      CatalogSnapshot.Entry p = entries[i];
+      total =
+          Math.addExact(
+              total,
+              engine.priceInto(
+                  qty, p.unitCents(), p.activeAt(now).fixedPointRules(), overallOffers));
+    }
+    return new PricingResult(Money.fromCents(total), overallOffers, counts);
+  }
+}
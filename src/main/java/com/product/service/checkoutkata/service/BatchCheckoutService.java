@@ -0,0 +1,97 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Prices many baskets in one call. Every basket is priced against the same catalog snapshot and
+ * clock reading (see {@link CheckoutService#pinned()}), and large batches are split across a
+ * dedicated, bounded {@link ForkJoinPool} so batch traffic cannot starve the common pool or the
+ * request threads.
+ *
+ * <p>A failing basket (invalid characters, unknown SKU, overflow) yields a failed {@link
+ * BasketOutcome} in its slot; the rest of the batch is still priced.
+ */
+@Service
+public class BatchCheckoutService implements DisposableBean {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchCheckoutService.class);
+
+  private final CheckoutService checkout;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+
+  public BatchCheckoutService(
+      CheckoutService checkout,
+      @Value("${checkout.batch.parallelism:0}") int parallelism,
+      @Value("${checkout.batch.chunk-size:64}") int chunkSize) {
+    this.checkout = checkout;
+    this.pool =
+        new ForkJoinPool(
+            parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.chunkSize = Math.max(chunkSize, 1);
+  }
+
+  /** Prices {@code baskets} in order; the returned list has one outcome per input basket. */
+  public List<BasketOutcome> priceAll(List<String> baskets) {
+    Function<String, BasketOutcome> pricer = checkout.pinned();
+    BasketOutcome[] out = new BasketOutcome[baskets.size()];
+
+    Chunk all = new Chunk(baskets, out, pricer, 0, out.length);
+    if (out.length <= chunkSize) {
+      all.compute();
+    } else {
+      pool.invoke(all);
+    }
+
+    LOGGER.debug("Priced batch of {} baskets", out.length);
+    return Arrays.asList(out);
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+
+  private final class Chunk extends RecursiveAction {
+    private final List<String> baskets;
+    private final BasketOutcome[] out;
+    private final Function<String, BasketOutcome> pricer;
+    private final int from;
+    private final int to;
+
+    Chunk(
+        List<String> baskets,
+        BasketOutcome[] out,
+        Function<String, BasketOutcome> pricer,
+        int from,
+        int to) {
+      this.baskets = baskets;
+      this.out = out;
+      this.pricer = pricer;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= chunkSize) {
+        for (int i = from; i < to; i++) {
+          out[i] = pricer.apply(baskets.get(i));
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(
+          new Chunk(baskets, out, pricer, from, mid), new Chunk(baskets, out, pricer, mid, to));
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package com.product.service.checkoutkata.service;
+
+/** Thrown when database work could not get a {@link DbBulkhead} permit within its queue timeout. */
+public class BulkheadFullException extends RuntimeException {
+  public BulkheadFullException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,298 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+/**
+ * Cheapest way to buy {@code qty} units of one SKU from its bundle rules plus single units. Solved
+ * once per rule set as an unbounded-knapsack DP over quantities {@code 0..limit}, storing the
+ * optimal total and bundle counts for each quantity so a lookup costs O(bundles).
+ *
+ * <p>Quantities above {@code (s - 1) * maxSize + s} (where {@code s} is the size of the option with
+ * the lowest price per unit) reduce exactly: past {@code (s - 1) * maxSize} any optimal basket
+ * contains at least one such option, so {@code best(q) = best(q - s) + price(s)}. The table covers
+ * that bound up to {@link #MAX_TABLE} quantities. For large bundles whose bound is past the cap, a
+ * reduced quantity beyond the table is solved on demand by the same DP, keeping only the last
+ * {@code maxSize + 1} quantities; that costs O(quantity × bundles) time, so such rule sets are
+ * slower to price in bulk, but never priced above the cheapest combination.
+ *
+ * <p>Per quantity the table keeps the optimal total and the last option chosen, and a selection is
+ * read back by walking those choices, so a table costs 10 bytes per quantity however many bundles
+ * the SKU has. Solvers from {@link #of} share tables between rule sets with the same sizes and
+ * prices.
+ *
+ * <p>On equal cost larger bundles win over smaller ones and any bundle wins over single units, so a
+ * break-even bundle is still reported as an applied offer.
+ */
+final class BundleSolver {
+  static final int MAX_TABLE = 10_000;
+  private static final int MEMO_LIMIT = 1024;
+  private static final Map<Key, BundleSolver> MEMO = new ConcurrentHashMap<>();
+
+  private final long unitCents;
+  private final List<FixedPointRule> bundles;
+  private final int[] sizes;
+  private final long[] prices;
+  private final long[] best;
+  // option used last for each quantity: a bundle index, or bundles.size() for a single unit
+  private final short[] choice;
+  private final int stride;
+  private final int cycleIndex;
+  private final int cycleSize;
+  // quantities above this reduce by whole cycles; at least limit()
+  private final int reduceAbove;
+
+  BundleSolver(long unitCents, List<FixedPointRule> rules, int minLimit) {
+    this.unitCents = unitCents;
+    this.bundles = distinctSizesLargestFirst(rules);
+    int nb = bundles.size();
+    this.stride = nb + 1;
+
+    // most cost-efficient option per unit: the cheapest-per-unit bundle (larger on ties), or
+    // single units (index nb) only when strictly cheaper than every bundle
+    int ci = nb;
+    long cs = 1;
+    long cc = unitCents;
+    int maxSize = 1;
+    for (int i = 0; i < nb; i++) {
+      FixedPointRule r = bundles.get(i);
+      maxSize = Math.max(maxSize, r.xQty());
+      boolean better = Math.multiplyExact(r.yPriceCents(), cs) < Math.multiplyExact(cc, r.xQty());
+      boolean tiesSingles =
+          ci == nb && Math.multiplyExact(r.yPriceCents(), cs) == Math.multiplyExact(cc, r.xQty());
+      if (better || tiesSingles) {
+        ci = i;
+        cs = r.xQty();
+        cc = r.yPriceCents();
+      }
+    }
+    this.cycleIndex = ci;
+    this.cycleSize = (int) cs;
+
+    this.sizes = new int[nb];
+    this.prices = new long[nb];
+    for (int i = 0; i < nb; i++) {
+      sizes[i] = bundles.get(i).xQty();
+      prices[i] = bundles.get(i).yPriceCents();
+    }
+
+    long exact = (long) (cycleSize - 1) * maxSize + cycleSize;
+    int limit = Math.max(minLimit, (int) Math.min(exact, MAX_TABLE));
+    this.reduceAbove = (int) Math.max(limit, Math.min(exact, Integer.MAX_VALUE));
+    this.best = new long[limit + 1];
+    this.choice = new short[limit + 1];
+    for (int q = 1; q <= limit; q++) {
+      int chosen = nb;
+      long cost = Math.addExact(best[q - 1], unitCents);
+      for (int i = 0; i < nb; i++) {
+        if (sizes[i] > q) continue;
+        long c = Math.addExact(best[q - sizes[i]], prices[i]);
+        if (c < cost || (c == cost && chosen == nb)) {
+          cost = c;
+          chosen = i;
+        }
+      }
+      best[q] = cost;
+      choice[q] = (short) chosen;
+    }
+  }
+
+  /**
+   * Same tables as {@code shared}, reporting offers against {@code bundles} (same sizes, prices).
+   */
+  private BundleSolver(BundleSolver shared, List<FixedPointRule> bundles) {
+    this.unitCents = shared.unitCents;
+    this.bundles = bundles;
+    this.sizes = shared.sizes;
+    this.prices = shared.prices;
+    this.best = shared.best;
+    this.choice = shared.choice;
+    this.stride = shared.stride;
+    this.cycleIndex = shared.cycleIndex;
+    this.cycleSize = shared.cycleSize;
+    this.reduceAbove = shared.reduceAbove;
+  }
+
+  /**
+   * Solver for the given rule set, sharing its tables with earlier rule sets of equal unit price,
+   * bundle sizes and bundle prices; per-request callers reuse them across requests and snapshots.
+   */
+  static BundleSolver of(long unitCents, List<FixedPointRule> rules) {
+    List<FixedPointRule> distinct = distinctSizesLargestFirst(rules);
+    long[] key = new long[distinct.size() * 2];
+    for (int i = 0; i < distinct.size(); i++) {
+      key[2 * i] = distinct.get(i).xQty();
+      key[2 * i + 1] = distinct.get(i).yPriceCents();
+    }
+    Key k = new Key(unitCents, key);
+    BundleSolver s = MEMO.get(k);
+    if (s == null) {
+      if (MEMO.size() >= MEMO_LIMIT) MEMO.clear();
+      // the memo keeps only the tables, never the rules (and their entities) it was built from
+      s =
+          MEMO.computeIfAbsent(
+              k, x -> new BundleSolver(new BundleSolver(unitCents, distinct, 0), List.of()));
+    }
+    return new BundleSolver(s, distinct);
+  }
+
+  int limit() {
+    return best.length - 1;
+  }
+
+  /** Bundles in the order offers are reported: one per distinct size, largest first. */
+  List<FixedPointRule> bundles() {
+    return bundles;
+  }
+
+  /**
+   * Optimal selection for {@code qty}: element {@code i < bundles().size()} is how many of bundle
+   * {@code i} to use, the last element is the number of single units.
+   */
+  int[] select(int qty) {
+    int[] out = new int[stride];
+    if (qty <= 0) return out;
+    int extra = 0;
+    int q = qty;
+    if (q > reduceAbove) {
+      extra = (q - reduceAbove + cycleSize - 1) / cycleSize;
+      q -= extra * cycleSize;
+    }
+    if (q > limit()) {
+      solveBeyondTable(q, out);
+    } else {
+      int singles = stride - 1;
+      while (q > 0) {
+        int c = choice[q];
+        out[c]++;
+        q -= (c == singles) ? 1 : sizes[c];
+      }
+    }
+    out[cycleIndex] += extra;
+    return out;
+  }
+
+  long totalCents(int qty) {
+    if (qty <= 0) return 0L;
+    if (qty <= limit()) return best[qty];
+    return cents(select(qty));
+  }
+
+  /**
+   * Runs the table's DP up to {@code q} without keeping the table: only the last {@code maxSize +
+   * 1} quantities are live, each with its bundle counts, and the counts for {@code q} go to {@code
+   * out}. Choices and tie-breaks are the table's, so the selection is the one a full table gives.
+   */
+  private void solveBeyondTable(int q, int[] out) {
+    int nb = sizes.length;
+    int window = 1;
+    for (int size : sizes) if (size <= q) window = Math.max(window, size);
+    window++;
+    long[] cost = new long[window];
+    int[] counts = new int[window * stride];
+    for (int x = 1; x <= q; x++) {
+      int from = (x - 1) % window;
+      int chosen = nb;
+      long c = Math.addExact(cost[from], unitCents);
+      for (int i = 0; i < nb; i++) {
+        if (sizes[i] > x) continue;
+        int slot = (x - sizes[i]) % window;
+        long ci = Math.addExact(cost[slot], prices[i]);
+        if (ci < c || (ci == c && chosen == nb)) {
+          c = ci;
+          chosen = i;
+          from = slot;
+        }
+      }
+      int to = x % window;
+      cost[to] = c;
+      System.arraycopy(counts, from * stride, counts, to * stride, stride);
+      counts[to * stride + chosen]++;
+    }
+    System.arraycopy(counts, (q % window) * stride, out, 0, stride);
+  }
+
+  private long cents(int[] selection) {
+    long total = Math.multiplyExact(unitCents, (long) selection[stride - 1]);
+    for (int i = 0; i < sizes.length; i++) {
+      total = Math.addExact(total, Math.multiplyExact(prices[i], (long) selection[i]));
+    }
+    return total;
+  }
+
+  /** Prices {@code qty} units, appends one offer per bundle used and returns the total in cents. */
+  long priceInto(int qty, List<OfferApplied> applied) {
+    if (qty <= 0) return 0L;
+    int[] sel = select(qty);
+    int remaining = qty;
+    for (int i = 0; i < bundles.size(); i++) {
+      if (sel[i] == 0) continue;
+      FixedPointRule r = bundles.get(i);
+      remaining -= sel[i] * r.xQty();
+      applied.add(
+          new OfferApplied(
+              r.sku(),
+              r.ruleType().name(),
+              sel[i],
+              r.xQty(),
+              Money.fromCents(r.yPriceCents()),
+              remaining,
+              Money.fromCents(Math.multiplyExact(unitCents, remaining))));
+    }
+    return qty <= limit() ? best[qty] : cents(sel);
+  }
+
+  /** Same selection priced in {@link BigDecimal}, using the rules' original amounts. */
+  BigDecimal priceInto(int qty, BigDecimal unitPrice, List<OfferApplied> applied) {
+    BigDecimal total = BigDecimal.ZERO.setScale(2);
+    if (qty <= 0) return total;
+    int[] sel = select(qty);
+    int remaining = qty;
+    for (int i = 0; i < bundles.size(); i++) {
+      if (sel[i] == 0) continue;
+      FixedPointRule r = bundles.get(i);
+      BigDecimal bundlePrice = r.source().getYPrice();
+      total = total.add(bundlePrice.multiply(BigDecimal.valueOf(sel[i])));
+      remaining -= sel[i] * r.xQty();
+      applied.add(
+          new OfferApplied(
+              r.sku(),
+              r.ruleType().name(),
+              sel[i],
+              r.xQty(),
+              bundlePrice,
+              remaining,
+              unitPrice.multiply(BigDecimal.valueOf(remaining)).setScale(2)));
+    }
+    return total.add(unitPrice.multiply(BigDecimal.valueOf(remaining)));
+  }
+
+  private static List<FixedPointRule> distinctSizesLargestFirst(List<FixedPointRule> rules) {
+    Map<Integer, FixedPointRule> bySize = new TreeMap<>(Comparator.reverseOrder());
+    for (FixedPointRule r : rules) {
+      bySize.merge(r.xQty(), r, (a, b) -> b.yPriceCents() < a.yPriceCents() ? b : a);
+    }
+    return List.copyOf(bySize.values());
+  }
+
+  /** Unit price plus (size, price) of each distinct bundle, compared by value. */
+  private record Key(long unitCents, long[] bundles) {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key k && unitCents == k.unitCents && Arrays.equals(bundles, k.bundles);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Long.hashCode(unitCents) + Arrays.hashCode(bundles);
+    }
+
+    @Override
+    public String toString() {
+      return unitCents + " " + Arrays.toString(bundles);
+    }
+  }
+}
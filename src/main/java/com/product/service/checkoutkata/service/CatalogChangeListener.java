@@ -0,0 +1,103 @@
+package com.product.service.checkoutkata.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the local {@link CatalogSnapshot} in step with writes made on other nodes. Triggers on
+ * {@code products} and {@code pricing_rules} (see {@code V4__catalog_change_notify.sql}) raise a
+ * {@code NOTIFY catalog_changed}; this component holds one dedicated connection in {@code LISTEN}
+ * mode and reloads the snapshot as soon as a notification arrives. Notifications that arrive
+ * together are coalesced into a single reload. Every successful {@code LISTEN}, the first one
+ * included, is followed by a reload: a change committed before it (while the startup snapshot was
+ * loading, or while the connection was down) raised no notification this connection will see.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "checkout.catalog.listen.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class CatalogChangeListener implements SmartLifecycle {
+  static final String CHANNEL = "catalog_changed";
+  private static final int POLL_TIMEOUT_MILLIS = 5_000;
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogChangeListener.class);
+
+  private final DataSource dataSource;
+  private final CatalogSnapshotHolder catalog;
+  private final Duration reconnectBackoff;
+  private volatile Thread worker;
+
+  public CatalogChangeListener(
+      DataSource dataSource,
+      CatalogSnapshotHolder catalog,
+      @Value("${checkout.catalog.listen.reconnect-backoff:PT2S}") Duration reconnectBackoff) {
+    this.dataSource = dataSource;
+    this.catalog = catalog;
+    this.reconnectBackoff = reconnectBackoff;
+  }
+
+  @Override
+  public void start() {
+    Thread t = new Thread(this::run, "catalog-listener");
+    t.setDaemon(true);
+    worker = t;
+    t.start();
+  }
+
+  @Override
+  public void stop() {
+    Thread t = worker;
+    worker = null;
+    if (t != null) t.interrupt();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return worker != null;
+  }
+
+  private void run() {
+    while (worker == Thread.currentThread()) {
+      try (Connection c = dataSource.getConnection()) {
+        try (Statement st = c.createStatement()) {
+          st.execute("LISTEN " + CHANNEL);
+        }
+        LOGGER.info("Listening for catalog changes on channel '{}'", CHANNEL);
+        catalog.refresh();
+        PGConnection pg = c.unwrap(PGConnection.class);
+        while (worker == Thread.currentThread()) {
+          PGNotification[] batch = pg.getNotifications(POLL_TIMEOUT_MILLIS);
+          if (batch != null && batch.length > 0) {
+            LOGGER.debug(
+                "Received {} catalog change notification(s), first={}",
+                batch.length,
+                batch[0].getParameter());
+            catalog.refresh();
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (worker != Thread.currentThread()) return;
+        LOGGER.warn("Catalog listener connection lost, retrying in {}", reconnectBackoff, e);
+        try {
+          Thread.sleep(reconnectBackoff.toMillis());
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package com.product.service.checkoutkata.service;
+
+/**
+ * Published by {@link CatalogService} after a product or pricing rule is written, and by {@link
+ * CatalogImportService} once per bulk write, with a null {@code sku}.
+ */
+public record CatalogChangedEvent(String sku) {}
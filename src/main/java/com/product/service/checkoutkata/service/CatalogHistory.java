@@ -0,0 +1,161 @@
+package com.product.service.checkoutkata.service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.PricingRuleVersion;
+import com.product.service.checkoutkata.domain.ProductPriceVersion;
+
+/**
+ * Immutable in-memory index over the catalog's history ({@code product_price_history} and {@code
+ * pricing_rule_history}). For each SKU, every version boundary is kept in one sorted array. Between
+ * two boundaries the SKU's price and rule versions cannot change, so a point-in-time lookup is a
+ * binary search plus a {@link CatalogSnapshot.Entry} cached for that interval. The entry's {@link
+ * RuleTimeline} then resolves the rules active at the instant, again by binary search.
+ *
+ * <p>An interval's entry is built from that SKU's versions the first time it is asked for, so
+ * loading the history costs one sort per SKU whatever its length. {@link #withChanges} folds in
+ * rows written since, re-indexing only the SKUs they touch.
+ */
+public final class CatalogHistory {
+  private final long version;
+  private final Map<String, SkuHistory> bySku;
+
+  private CatalogHistory(long version, Map<String, SkuHistory> bySku) {
+    this.version = version;
+    this.bySku = bySku;
+  }
+
+  /**
+   * @param version the {@link CatalogSnapshot#version()} current when the history was read
+   */
+  public static CatalogHistory of(
+      long version, List<ProductPriceVersion> prices, List<PricingRuleVersion> rules) {
+    return new CatalogHistory(version, Map.of()).withChanges(version, prices, rules);
+  }
+
+  /**
+   * This history plus rows inserted or updated since it was read. A row replaces the one with the
+   * same id (a version closed since); SKUs no row touches keep their index and cached entries.
+   *
+   * @param version the {@link CatalogSnapshot#version()} current when the changes were read
+   */
+  public CatalogHistory withChanges(
+      long version, List<ProductPriceVersion> prices, List<PricingRuleVersion> rules) {
+    Map<String, List<ProductPriceVersion>> pricesBySku = new HashMap<>();
+    for (ProductPriceVersion p : prices) {
+      pricesBySku.computeIfAbsent(p.getSku(), k -> new ArrayList<>()).add(p);
+    }
+    Map<String, List<PricingRuleVersion>> rulesBySku = new HashMap<>();
+    for (PricingRuleVersion r : rules) {
+      rulesBySku.computeIfAbsent(r.getSku(), k -> new ArrayList<>()).add(r);
+    }
+    // SKUs deleted before this process started are only known from history
+    SkuDictionary.global().internAll(new TreeSet<>(pricesBySku.keySet()));
+    Set<String> touched = new HashSet<>(pricesBySku.keySet());
+    touched.addAll(rulesBySku.keySet());
+    Map<String, SkuHistory> merged = new HashMap<>(bySku);
+    for (String sku : touched) {
+      SkuHistory old = bySku.get(sku);
+      merged.put(
+          sku,
+          new SkuHistory(
+              sku,
+              merge(
+                  old == null ? List.of() : old.prices,
+                  pricesBySku.getOrDefault(sku, List.of()),
+                  ProductPriceVersion::getId),
+              merge(
+                  old == null ? List.of() : old.rules,
+                  rulesBySku.getOrDefault(sku, List.of()),
+                  PricingRuleVersion::getId)));
+    }
+    return new CatalogHistory(version, Map.copyOf(merged));
+  }
+
+  private static <T> List<T> merge(List<T> rows, List<T> changed, Function<T, Long> id) {
+    if (changed.isEmpty()) return rows;
+    // rows not read from the database have no id and are never replaced
+    Map<Object, T> byId = new LinkedHashMap<>();
+    for (T row : rows) byId.put(Objects.requireNonNullElse(id.apply(row), row), row);
+    for (T row : changed) byId.put(Objects.requireNonNullElse(id.apply(row), row), row);
+    return new ArrayList<>(byId.values());
+  }
+
+  public long version() {
+    return version;
+  }
+
+  /** The SKU as the catalog held it at {@code at}; empty if it did not exist then. */
+  public Optional<CatalogSnapshot.Entry> find(String sku, Instant at) {
+    SkuHistory h = bySku.get(sku);
+    return (h == null) ? Optional.empty() : h.at(at);
+  }
+
+  private static final class SkuHistory {
+    private final String sku;
+    private final List<ProductPriceVersion> prices;
+    private final List<PricingRuleVersion> rules;
+    private final Instant[] bounds;
+    // interval k spans [bounds[k - 1], bounds[k]); filled on first use
+    private final Optional<?>[] entries;
+
+    SkuHistory(String sku, List<ProductPriceVersion> prices, List<PricingRuleVersion> rules) {
+      this.sku = sku;
+      this.prices = List.copyOf(prices);
+      // pricing order is rule id order, as in the live snapshot
+      List<PricingRuleVersion> sorted = new ArrayList<>(rules);
+      sorted.sort(Comparator.comparing(PricingRuleVersion::getRuleId));
+      this.rules = List.copyOf(sorted);
+      TreeSet<Instant> b = new TreeSet<>();
+      for (ProductPriceVersion p : prices) addBounds(b, p.getValidFrom(), p.getValidTo());
+      for (PricingRuleVersion r : rules) addBounds(b, r.getValidFrom(), r.getValidTo());
+      this.bounds = b.toArray(new Instant[0]);
+      this.entries = new Optional<?>[bounds.length + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    Optional<CatalogSnapshot.Entry> at(Instant at) {
+      int i = Arrays.binarySearch(bounds, at);
+      int k = (i >= 0) ? i + 1 : -i - 1;
+      Optional<?> e = entries[k];
+      if (e == null) {
+        // racing threads build equal entries; Optional and Entry are safely published
+        e = build(k);
+        entries[k] = e;
+      }
+      return (Optional<CatalogSnapshot.Entry>) e;
+    }
+
+    private Optional<CatalogSnapshot.Entry> build(int k) {
+      Instant from = (k == 0) ? Instant.MIN : bounds[k - 1];
+      ProductPriceVersion price = null;
+      for (ProductPriceVersion p : prices) {
+        if (covers(p.getValidFrom(), p.getValidTo(), from)) price = p;
+      }
+      if (price == null) return Optional.empty();
+      List<PricingRule> current = new ArrayList<>();
+      for (PricingRuleVersion r : rules) {
+        if (covers(r.getValidFrom(), r.getValidTo(), from)) current.add(r.toRule());
+      }
+      OffsetDateTime compiledAt =
+          (k == 0) ? OffsetDateTime.MIN : OffsetDateTime.ofInstant(from, ZoneOffset.UTC);
+      return Optional.of(
+          CatalogSnapshot.Entry.compile(sku, price.getUnitPrice(), current, compiledAt, 0));
+    }
+
+    private static void addBounds(Set<Instant> b, OffsetDateTime from, OffsetDateTime to) {
+      if (from != null) b.add(from.toInstant());
+      if (to != null) b.add(to.toInstant());
+    }
+
+    private static boolean covers(OffsetDateTime from, OffsetDateTime to, Instant at) {
+      return (from == null || !from.toInstant().isAfter(at))
+          && (to == null || to.toInstant().isAfter(at));
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.product.service.checkoutkata.domain.PricingRuleVersion;
+import com.product.service.checkoutkata.domain.ProductPriceVersion;
+import com.product.service.checkoutkata.repo.PricingRuleHistoryRepository;
+import com.product.service.checkoutkata.repo.ProductPriceHistoryRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Owns the {@link CatalogHistory} used for point-in-time pricing. It is loaded on the first
+ * historical query and reloaded lazily when the live {@link CatalogSnapshot} has moved on, so local
+ * writes and changes picked up from other nodes both reach it without a listener of its own.
+ *
+ * <p>Only the first load reads both history tables in full. Later ones read the rows changed by
+ * transactions from the last load's xid horizon on (see {@code V8__history_change_xid.sql}) and
+ * fold them in with {@link CatalogHistory#withChanges}, so a reload costs the size of the change,
+ * not of the history. {@code checkout.catalog.history.rows} and {@code
+ * checkout.catalog.history.load} report what each load read and how long it took.
+ */
+@Component
+public class CatalogHistoryHolder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogHistoryHolder.class);
+
+  private final ProductPriceHistoryRepository prices;
+  private final PricingRuleHistoryRepository rules;
+  private final CatalogSnapshotHolder catalog;
+  private final TransactionTemplate tx;
+  private final DbBulkhead bulkhead;
+  private final Timer loads;
+  // a lock, not a monitor: virtual threads waiting for a load unmount instead of pinning
+  private final ReentrantLock loading = new ReentrantLock();
+  private volatile CatalogHistory current;
+  private volatile long priceRows;
+  private volatile long ruleRows;
+  // changes by transactions below this id are in current; guarded by loading
+  private long horizon;
+
+  public CatalogHistoryHolder(
+      ProductPriceHistoryRepository prices,
+      PricingRuleHistoryRepository rules,
+      CatalogSnapshotHolder catalog,
+      PlatformTransactionManager txm,
+      DbBulkhead bulkhead,
+      MeterRegistry registry) {
+    this.prices = prices;
+    this.rules = rules;
+    this.catalog = catalog;
+    this.bulkhead = bulkhead;
+    // not read-only: the history is cached per snapshot version, so it must not come from a
+    // replica that has not replayed that version yet
+    this.tx = new TransactionTemplate(txm);
+    this.loads =
+        Timer.builder("checkout.catalog.history.load")
+            .description("Time to read history rows and index them")
+            .register(registry);
+    Gauge.builder("checkout.catalog.history.rows", this, h -> h.priceRows)
+        .description("History rows read by the last load")
+        .tag("table", "product_price_history")
+        .register(registry);
+    Gauge.builder("checkout.catalog.history.rows", this, h -> h.ruleRows)
+        .description("History rows read by the last load")
+        .tag("table", "pricing_rule_history")
+        .register(registry);
+  }
+
+  public CatalogHistory current() {
+    long version = catalog.current().version();
+    CatalogHistory h = current;
+    return (h != null && h.version() == version) ? h : bulkhead.call(() -> load(version));
+  }
+
+  private CatalogHistory load(long version) {
+    loading.lock();
+    try {
+      CatalogHistory h = current;
+      if (h != null && h.version() >= version) return h;
+      long start = System.nanoTime();
+      CatalogHistory loaded = h;
+      Read read =
+          tx.execute(
+              status -> {
+                // taken first: anything a later transaction writes is read again next time
+                long next = prices.xidHorizon();
+                List<ProductPriceVersion> p =
+                    (loaded == null) ? prices.findAll() : prices.findChangedSince(horizon);
+                List<PricingRuleVersion> r =
+                    (loaded == null) ? rules.findAll() : rules.findChangedSince(horizon);
+                priceRows = p.size();
+                ruleRows = r.size();
+                return new Read(
+                    (loaded == null)
+                        ? CatalogHistory.of(version, p, r)
+                        : loaded.withChanges(version, p, r),
+                    next);
+              });
+      loads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      h = read.history();
+      horizon = read.horizon();
+      current = h;
+      LOGGER.debug(
+          "Catalog history loaded for snapshot v{} ({} price and {} rule versions read)",
+          version,
+          priceRows,
+          ruleRows);
+      return h;
+    } finally {
+      loading.unlock();
+    }
+  }
+
+  private record Read(CatalogHistory history, long horizon) {}
+}
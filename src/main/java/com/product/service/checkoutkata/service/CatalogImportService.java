@@ -0,0 +1,381 @@
+package com.product.service.checkoutkata.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.dto.ImportReport;
+import com.product.service.checkoutkata.dto.ImportReport.ImportError;
+import com.product.service.checkoutkata.dto.PricingRuleDto;
+import com.product.service.checkoutkata.dto.ProductDto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk catalog writes. An upload (CSV with a header row, or NDJSON) is read in full, up to {@code
+ * checkout.import.max-rows}, and each row is validated like its single-row endpoint before any
+ * connection is taken. Rows after the first error are still validated (up to {@code
+ * checkout.import.max-errors}) so one report lists everything to fix, and nothing is written. A
+ * clean upload is then written with JDBC batches of {@code INSERT ... ON CONFLICT DO UPDATE}, all
+ * in one transaction that a row rejected by the database rolls back.
+ *
+ * <p>Triggers keep the history tables and the {@code catalog_changed} notification up to date as
+ * for any other write, and a single {@link CatalogChangedEvent} reloads the local snapshot once per
+ * import rather than once per row.
+ */
+@Service
+public class CatalogImportService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogImportService.class);
+
+  // one statement per row: duplicate keys in an upload then simply apply in order, which a
+  // multi-row VALUES list (or the driver's batch rewriting) would reject
+  static final String UPSERT_PRODUCT =
+      """
+      INSERT INTO products (sku, unit_price) VALUES (?, ?)
+      ON CONFLICT (sku) DO UPDATE SET unit_price = EXCLUDED.unit_price
+      WHERE products.unit_price IS DISTINCT FROM EXCLUDED.unit_price""";
+
+  static final String UPSERT_RULE =
+      """
+      INSERT INTO pricing_rules (sku, rule_type, x_qty, y_price, starts_at, ends_at)
+      VALUES (?, ?, ?, ?, ?, ?)
+      ON CONFLICT (sku, rule_type, x_qty) DO UPDATE
+      SET y_price = EXCLUDED.y_price, starts_at = EXCLUDED.starts_at, ends_at = EXCLUDED.ends_at""";
+
+  static final String ADJUST_PRICES =
+      """
+      UPDATE products SET unit_price = ROUND(unit_price * (100 + ?) / 100, 2)
+      WHERE ROUND(unit_price * (100 + ?) / 100, 2) <> unit_price""";
+
+  /** Upload formats. CSV cells are split on commas and trimmed; quoting is not supported. */
+  public enum Format {
+    CSV,
+    NDJSON
+  }
+
+  private final JdbcTemplate jdbc;
+  private final ObjectMapper om;
+  private final Validator validator;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate tx;
+  private final DbBulkhead bulkhead;
+  private final Clock clock;
+  private final int batchSize;
+  private final int maxErrors;
+  private final int maxRows;
+
+  public CatalogImportService(
+      JdbcTemplate jdbc,
+      ObjectMapper om,
+      Validator validator,
+      ApplicationEventPublisher events,
+      PlatformTransactionManager txm,
+      DbBulkhead bulkhead,
+      Clock clock,
+      @Value("${checkout.import.batch-size:500}") int batchSize,
+      @Value("${checkout.import.max-errors:100}") int maxErrors,
+      @Value("${checkout.import.max-rows:100000}") int maxRows) {
+    this.jdbc = jdbc;
+    this.om = om;
+    this.validator = validator;
+    this.events = events;
+    this.tx = new TransactionTemplate(txm);
+    this.bulkhead = bulkhead;
+    this.clock = clock;
+    this.batchSize = Math.max(batchSize, 1);
+    this.maxErrors = Math.max(maxErrors, 1);
+    this.maxRows = Math.max(maxRows, 1);
+  }
+
+  /**
+   * Upserts products by SKU. CSV columns: {@code sku,unitPrice}.
+   *
+   * @throws InvalidCatalogRequestException if the CSV header is missing a column or names an
+   *     unknown one, or the upload has more than {@code checkout.import.max-rows} rows
+   */
+  public ImportReport importProducts(Reader in, Format format) {
+    RowType<ProductDto> type =
+        new RowType<>(
+            om.readerFor(ProductDto.class),
+            List.of("sku", "unitPrice"),
+            List.of(),
+            cells -> new ProductDto(cells.get("sku"), cell(cells, "unitPrice", BigDecimal::new)),
+            p -> (p.unitPrice() == null) ? "unitPrice is required" : null,
+            UPSERT_PRODUCT,
+            p -> new Object[] {p.sku(), p.unitPrice()});
+    return load(in, format, type);
+  }
+
+  /**
+   * Upserts rules by SKU, type and bundle size. CSV columns: {@code sku,ruleType,xQty,yPrice} and
+   * optionally {@code startsAt,endsAt} (ISO-8601). As for single rules, a missing start means now.
+   *
+   * @throws InvalidCatalogRequestException if the CSV header is missing a column or names an
+   *     unknown one, or the upload has more than {@code checkout.import.max-rows} rows
+   */
+  public ImportReport importRules(Reader in, Format format) {
+    OffsetDateTime now = OffsetDateTime.now(clock);
+    RowType<PricingRuleDto> type =
+        new RowType<>(
+            om.readerFor(PricingRuleDto.class),
+            List.of("sku", "ruleType", "xQty", "yPrice"),
+            List.of("startsAt", "endsAt"),
+            cells ->
+                new PricingRuleDto(
+                    cells.get("sku"),
+                    cell(cells, "ruleType", RuleType::valueOf),
+                    cell(cells, "xQty", Integer::valueOf),
+                    cell(cells, "yPrice", BigDecimal::new),
+                    cell(cells, "startsAt", OffsetDateTime::parse),
+                    cell(cells, "endsAt", OffsetDateTime::parse)),
+            r -> (r.ruleType() == null) ? "ruleType is required" : null,
+            UPSERT_RULE,
+            r ->
+                new Object[] {
+                  r.sku(),
+                  r.ruleType().name(),
+                  r.xQty(),
+                  r.yPrice(),
+                  (r.startsAt() == null) ? now : r.startsAt(),
+                  r.endsAt()
+                });
+    return load(in, format, type);
+  }
+
+  /**
+   * Changes every unit price by {@code percent} (rounded half away from zero to cents) in one
+   * set-based {@code UPDATE}.
+   *
+   * @return the number of products whose price changed
+   * @throws InvalidCatalogRequestException if {@code percent} is below -100
+   */
+  public int adjustPrices(BigDecimal percent) {
+    if (percent.compareTo(BigDecimal.valueOf(-100)) < 0) {
+      throw new InvalidCatalogRequestException("percent must be at least -100");
+    }
+    return bulkhead.call(
+        () ->
+            tx.execute(
+                status -> {
+                  int updated = jdbc.update(ADJUST_PRICES, percent, percent);
+                  if (updated > 0) events.publishEvent(new CatalogChangedEvent(null));
+                  LOGGER.info("Adjusted {} unit prices by {}%", updated, percent);
+                  return updated;
+                }));
+  }
+
+  /** What differs between product and rule imports. */
+  private record RowType<T>(
+      ObjectReader json,
+      List<String> required,
+      List<String> optional,
+      Function<Map<String, String>, T> fromCsv,
+      Function<T, String> check,
+      String sql,
+      Function<T, Object[]> args) {}
+
+  private <T> ImportReport load(Reader in, Format format, RowType<T> type) {
+    // the whole upload is read and validated before a connection is taken, so a slow client
+    // holds neither a bulkhead permit nor row locks
+    Parsed<T> parsed = new Parsed<>(type);
+    try {
+      parsed.read(new BufferedReader(in), format);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (!parsed.errors.isEmpty()) {
+      LOGGER.info("Import rejected. Rows={}, Errors={}", parsed.rows, parsed.errors.size());
+      return new ImportReport(parsed.rows, 0, List.copyOf(parsed.errors));
+    }
+    return bulkhead.call(
+        () ->
+            tx.execute(
+                status -> {
+                  int written = 0;
+                  for (int from = 0; from < parsed.args.size(); from += batchSize) {
+                    int to = Math.min(from + batchSize, parsed.args.size());
+                    try {
+                      written +=
+                          written(jdbc.batchUpdate(type.sql(), parsed.args.subList(from, to)));
+                    } catch (DataAccessException e) {
+                      status.setRollbackOnly();
+                      long line = parsed.lines.get(Math.min(from + failedIndex(e), to - 1));
+                      String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                      ImportError error =
+                          new ImportError(line, "rejected by the database: " + firstLine(cause));
+                      LOGGER.info("Import rolled back. Rows={}, Line={}", parsed.rows, line);
+                      return new ImportReport(parsed.rows, 0, List.of(error));
+                    }
+                  }
+                  if (written > 0) events.publishEvent(new CatalogChangedEvent(null));
+                  LOGGER.info("Import completed. Rows={}, Written={}", parsed.rows, written);
+                  return new ImportReport(parsed.rows, written, List.of());
+                }));
+  }
+
+  private static int written(int[] counts) {
+    int written = 0;
+    for (int count : counts) {
+      written += (count == Statement.SUCCESS_NO_INFO) ? 1 : Math.max(count, 0);
+    }
+    return written;
+  }
+
+  /** An upload read into statement arguments, with the line each came from, or its errors. */
+  private final class Parsed<T> {
+    final RowType<T> type;
+    final List<Object[]> args = new ArrayList<>();
+    final List<Long> lines = new ArrayList<>();
+    final List<ImportError> errors = new ArrayList<>();
+    int rows;
+
+    Parsed(RowType<T> type) {
+      this.type = type;
+    }
+
+    void read(BufferedReader in, Format format) throws IOException {
+      List<String> header = null;
+      long lineNo = 0;
+      String line;
+      while (errors.size() < maxErrors && (line = in.readLine()) != null) {
+        lineNo++;
+        if (line.isBlank()) continue;
+        if (format == Format.CSV && header == null) {
+          header = header(line);
+          continue;
+        }
+        if (++rows > maxRows) {
+          throw new InvalidCatalogRequestException("Import exceeds " + maxRows + " rows");
+        }
+        accept(lineNo, (format == Format.CSV) ? csvRow(header, line) : jsonRow(line));
+      }
+    }
+
+    private void accept(long lineNo, Object parsed) {
+      String error;
+      if (parsed instanceof String message) {
+        error = message;
+      } else {
+        @SuppressWarnings("unchecked")
+        T row = (T) parsed;
+        error = validate(row);
+        if (error == null) {
+          // once a row failed nothing will be written; later rows are only validated
+          if (errors.isEmpty()) {
+            args.add(type.args().apply(row));
+            lines.add(lineNo);
+          }
+          return;
+        }
+      }
+      errors.add(new ImportError(lineNo, error));
+    }
+
+    private List<String> header(String line) {
+      List<String> columns = Arrays.stream(line.split(",", -1)).map(String::trim).toList();
+      for (String c : columns) {
+        if (!type.required().contains(c) && !type.optional().contains(c)) {
+          throw new InvalidCatalogRequestException("Unknown CSV column: " + c);
+        }
+      }
+      for (String c : type.required()) {
+        if (!columns.contains(c))
+          throw new InvalidCatalogRequestException("Missing CSV column: " + c);
+      }
+      return columns;
+    }
+
+    /** The parsed row, or an error message. */
+    private Object csvRow(List<String> header, String line) {
+      String[] cells = line.split(",", -1);
+      if (cells.length != header.size()) {
+        return "expected " + header.size() + " cells, found " + cells.length;
+      }
+      Map<String, String> byColumn = new HashMap<>();
+      for (int i = 0; i < cells.length; i++) {
+        String v = cells[i].trim();
+        byColumn.put(header.get(i), v.isEmpty() ? null : v);
+      }
+      try {
+        return type.fromCsv().apply(byColumn);
+      } catch (IllegalArgumentException e) {
+        return e.getMessage();
+      }
+    }
+
+    private Object jsonRow(String line) {
+      try {
+        Object row = type.json().readValue(line);
+        return (row == null) ? "not a JSON object" : row;
+      } catch (JsonProcessingException e) {
+        return "malformed JSON";
+      }
+    }
+
+    private String validate(T row) {
+      Set<ConstraintViolation<T>> violations = validator.validate(row);
+      if (!violations.isEmpty()) {
+        return violations.stream()
+            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+            .sorted()
+            .reduce((a, b) -> a + "; " + b)
+            .orElseThrow();
+      }
+      return type.check().apply(row);
+    }
+  }
+
+  /** Index within the batch of the statement that failed, as far as the driver reports it. */
+  private static int failedIndex(DataAccessException e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof BatchUpdateException b) {
+        int[] counts = b.getUpdateCounts();
+        for (int i = 0; i < counts.length; i++) {
+          if (counts[i] == Statement.EXECUTE_FAILED) return i;
+        }
+        return counts.length;
+      }
+    }
+    return 0;
+  }
+
+  private static String firstLine(String message) {
+    if (message == null) return "unknown error";
+    int nl = message.indexOf('\n');
+    return (nl < 0) ? message : message.substring(0, nl);
+  }
+
+  private static <V> V cell(Map<String, String> cells, String column, Function<String, V> parse) {
+    String v = cells.get(column);
+    if (v == null) return null;
+    try {
+      return parse.apply(v);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException(column + ": invalid value '" + v + "'");
+    }
+  }
+}
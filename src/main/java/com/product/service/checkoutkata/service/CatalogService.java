@@ -1,40 +1,112 @@
 package com.product.service.checkoutkata.service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.product.service.checkoutkata.domain.PricingRule;
 import com.product.service.checkoutkata.domain.Product;
 import com.product.service.checkoutkata.repo.PricingRuleRepository;
 import com.product.service.checkoutkata.repo.ProductRepository;
 
+import jakarta.persistence.EntityManager;
+
+/**
+ * Catalog reads and writes. Every repository call runs inside the {@link DbBulkhead}; writes open
+ * their transaction inside the permit (rather than via {@code @Transactional}, whose proxy would
+ * take a connection before the permit).
+ *
+ * <p>Reads run in read-only transactions, which go to a read replica when {@code
+ * checkout.db.replicas} are configured. For a short while after each catalog change they run on the
+ * primary instead: a replica may lag by up to {@code max-lag} (as of its last probe), and a listing
+ * must not pair the new {@link #catalogTag() tag} with rows from before the change.
+ */
 @Service
 public class CatalogService {
   private static final Logger LOGGER = LoggerFactory.getLogger(CatalogService.class);
 
   private final ProductRepository products;
   private final PricingRuleRepository rules;
+  private final ApplicationEventPublisher events;
+  private final CatalogSnapshotHolder snapshots;
+  private final EntityManager em;
+  private final TransactionTemplate tx;
+  private final TransactionTemplate readTx;
+  private final DbBulkhead bulkhead;
+  private final Duration replicaLagWindow;
 
-  public CatalogService(ProductRepository products, PricingRuleRepository rules) {
+  public CatalogService(
+      ProductRepository products,
+      PricingRuleRepository rules,
+      ApplicationEventPublisher events,
+      CatalogSnapshotHolder snapshots,
+      EntityManager em,
+      PlatformTransactionManager txm,
+      DbBulkhead bulkhead,
+      @Value("${checkout.db.replicas.max-lag:5s}") Duration maxReplicaLag,
+      @Value("${checkout.db.replicas.check-interval:1s}") Duration replicaCheckInterval) {
     this.products = products;
     this.rules = rules;
+    this.events = events;
+    this.snapshots = snapshots;
+    this.em = em;
+    this.tx = new TransactionTemplate(txm);
+    this.readTx = new TransactionTemplate(txm);
+    this.readTx.setReadOnly(true);
+    this.bulkhead = bulkhead;
+    this.replicaLagWindow = maxReplicaLag.plus(replicaCheckInterval);
+  }
+
+  /**
+   * Entity tag for the admin listings: the {@link CatalogSnapshot#contentTag() content tag} of the
+   * current snapshot, which is replaced after every catalog write (on other nodes too, while the
+   * catalog listener is enabled). Costs no query once the snapshot is loaded.
+   */
+  public String catalogTag() {
+    return snapshots.current().contentTag();
   }
 
   public List<Product> allProducts() {
-    return products.findAll();
+    return read(products::findAll);
+  }
+
+  /** Keyset page of products in SKU order, starting after {@code afterSku} (null: the first). */
+  public List<Product> products(String afterSku, int limit) {
+    String after = (afterSku == null) ? "" : afterSku;
+    return read(() -> products.findBySkuGreaterThanOrderBySkuAsc(after, Limit.of(limit)));
+  }
+
+  /**
+   * Passes every product, in SKU order, to {@code sink} while reading them through a JDBC cursor,
+   * so an export never holds the table in memory. The connection is held until the last row has
+   * been handed over, under one of the bulkhead's {@link DbBulkhead#callExport export permits}.
+   */
+  public void exportProducts(Consumer<Product> sink) {
+    export(products::streamAllByOrderBySkuAsc, sink);
   }
 
   public List<PricingRule> rulesFor(String sku) {
-    return rules.findBySku(sku);
+    return read(() -> rules.findBySku(sku));
   }
 
-  @Transactional
   public Product upsertProduct(Product p) {
+    return bulkhead.call(() -> tx.execute(status -> doUpsertProduct(p)));
+  }
+
+  private Product doUpsertProduct(Product p) {
     LOGGER.debug("Updating product {}", p);
+    events.publishEvent(new CatalogChangedEvent(p.getSku()));
     return products
         .findBySku(p.getSku())
         .map(
@@ -50,12 +122,55 @@ public class CatalogService {
             });
   }
 
-  @Transactional
   public PricingRule addRule(PricingRule r) {
-    return rules.save(r);
+    return bulkhead.call(
+        () ->
+            tx.execute(
+                status -> {
+                  events.publishEvent(new CatalogChangedEvent(r.getSku()));
+                  return rules.save(r);
+                }));
   }
 
   public List<PricingRule> allRules() {
-    return rules.findAll();
+    return read(rules::findAll);
+  }
+
+  /** Keyset page of rules in id order, starting after {@code afterId} (null: the first). */
+  public List<PricingRule> rules(Long afterId, int limit) {
+    long after = (afterId == null) ? 0L : afterId;
+    return read(() -> rules.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit)));
+  }
+
+  /** Same as {@link #exportProducts} for pricing rules, in id order. */
+  public void exportRules(Consumer<PricingRule> sink) {
+    export(rules::streamAllByOrderByIdAsc, sink);
+  }
+
+  private <T> T read(Supplier<T> query) {
+    return bulkhead.call(() -> readTransaction().execute(status -> query.get()));
+  }
+
+  /** The read-only transaction, or a read-write one (on the primary) right after a change. */
+  private TransactionTemplate readTransaction() {
+    return snapshots.changedWithin(replicaLagWindow) ? tx : readTx;
+  }
+
+  private <T> void export(Supplier<Stream<T>> query, Consumer<T> sink) {
+    bulkhead.callExport(
+        () ->
+            readTransaction()
+                .execute(
+                    status -> {
+                      try (Stream<T> rows = query.get()) {
+                        rows.forEach(
+                            row -> {
+                              sink.accept(row);
+                              // keep the persistence context from growing with the export
+                              em.detach(row);
+                            });
+                      }
+                      return null;
+                    }));
   }
 }
@@ -0,0 +1,221 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+
+/**
+ * Immutable, point-in-time copy of the product catalog and its pricing rules. Checkout prices
+ * against a snapshot so the hot path never touches JDBC; a new snapshot is swapped in by {@link
+ * CatalogSnapshotHolder} whenever the catalog changes.
+ *
+ * <p>Building a snapshot interns its SKUs in the {@link SkuDictionary}, and entries are also kept
+ * in an array indexed by SKU id for {@link #entry(int)}.
+ */
+public final class CatalogSnapshot {
+  static final int DEFAULT_PLAN_TABLE_SIZE = 64;
+
+  private final long version;
+  private final Map<String, Entry> entries;
+  private final Entry[] byId;
+  private final String contentTag;
+
+  private CatalogSnapshot(
+      long version, Map<String, Entry> entries, Entry[] byId, String contentTag) {
+    this.version = version;
+    this.entries = entries;
+    this.byId = byId;
+    this.contentTag = contentTag;
+  }
+
+  public static CatalogSnapshot of(long version, List<Product> products, List<PricingRule> rules) {
+    return of(version, products, rules, OffsetDateTime.now(), DEFAULT_PLAN_TABLE_SIZE);
+  }
+
+  public static CatalogSnapshot of(
+      long version,
+      List<Product> products,
+      List<PricingRule> rules,
+      OffsetDateTime compiledAt,
+      int planTableSize) {
+    return of(version, products, rules, compiledAt, planTableSize, null);
+  }
+
+  /**
+   * Builds a snapshot from the given products and rules, compiling each SKU's {@link RuleTimeline}
+   * from {@code compiledAt} on. Rules keep their relative order (callers pass them sorted by id,
+   * matching the previous {@code ORDER BY r.id} query).
+   *
+   * <p>Each entry's {@link Entry#revision() revision} is carried over from {@code previous} when
+   * the SKU's price and rules are unchanged, and is {@code version} otherwise (or when there is no
+   * previous snapshot).
+   */
+  public static CatalogSnapshot of(
+      long version,
+      List<Product> products,
+      List<PricingRule> rules,
+      OffsetDateTime compiledAt,
+      int planTableSize,
+      CatalogSnapshot previous) {
+    Map<String, List<PricingRule>> rulesBySku = new HashMap<>();
+    for (PricingRule r : rules) {
+      rulesBySku.computeIfAbsent(r.getSku(), k -> new ArrayList<>()).add(r);
+    }
+    Map<String, Entry> entries = new HashMap<>();
+    for (Product p : products) {
+      Entry e =
+          Entry.compile(
+              p.getSku(),
+              p.getUnitPrice(),
+              rulesBySku.getOrDefault(p.getSku(), List.of()),
+              compiledAt,
+              planTableSize);
+      Entry before = (previous == null) ? null : previous.entries.get(p.getSku());
+      long revision = (before != null && before.sameDefinition(e)) ? before.revision() : version;
+      entries.put(p.getSku(), e.withRevision(revision));
+    }
+    // sorted, so a catalog loaded at startup gets ids (and response item order) in SKU order
+    SkuDictionary dictionary = SkuDictionary.global();
+    dictionary.internAll(new TreeSet<>(entries.keySet()));
+    SkuDictionary.Table ids = dictionary.table();
+    Entry[] byId = new Entry[ids.size()];
+    for (Entry e : entries.values()) byId[ids.idOf(e.sku())] = e;
+    return new CatalogSnapshot(version, Map.copyOf(entries), byId, contentTag(products, rules));
+  }
+
+  public static CatalogSnapshot empty() {
+    return new CatalogSnapshot(0L, Map.of(), new Entry[0], contentTag(List.of(), List.of()));
+  }
+
+  public long version() {
+    return version;
+  }
+
+  /**
+   * Digest of every product and rule row the snapshot was built from. Unlike {@link #version()},
+   * which counts reloads on this node, it is equal on every node holding the same catalog, so it
+   * can serve as an HTTP entity tag for the admin listings.
+   */
+  public String contentTag() {
+    return contentTag;
+  }
+
+  public Optional<Entry> find(String sku) {
+    return Optional.ofNullable(entries.get(sku));
+  }
+
+  /** Entry for the SKU with this {@link SkuDictionary} id, or null if it is not in the snapshot. */
+  public Entry entry(int id) {
+    return (id < byId.length) ? byId[id] : null;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public Set<String> skus() {
+    return entries.keySet();
+  }
+
+  private static String contentTag(List<Product> products, List<PricingRule> rules) {
+    List<Product> ps = new ArrayList<>(products);
+    ps.sort(Comparator.comparing(Product::getSku));
+    List<PricingRule> rs = new ArrayList<>(rules);
+    rs.sort(
+        Comparator.comparing(PricingRule::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+    StringBuilder sb = new StringBuilder();
+    for (Product p : ps) {
+      sb.append('P').append(p.getId()).append('|').append(p.getSku()).append('|');
+      sb.append(p.getUnitPrice()).append('\n');
+    }
+    for (PricingRule r : rs) {
+      sb.append('R').append(r.getId()).append('|').append(r.getSku()).append('|');
+      sb.append(r.getRuleType()).append('|').append(r.getXQty()).append('|');
+      sb.append(r.getYPrice()).append('|').append(instant(r.getStartsAt())).append('|');
+      sb.append(instant(r.getEndsAt())).append('\n');
+    }
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256")
+              .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Object instant(OffsetDateTime t) {
+    return (t == null) ? "null" : t.toInstant();
+  }
+
+  /**
+   * Pricing data for a single SKU. The unit price is also kept in minor units, pre-converted once
+   * here so fixed-point pricing never touches {@link BigDecimal}, and the rules are laid out on a
+   * {@link RuleTimeline} with a pre-compiled {@link PricingPlan} per segment.
+   *
+   * <p>{@code revision} is the snapshot version in which the SKU's price or rules last changed, so
+   * anything derived from an entry stays valid for as long as its revision does.
+   */
+  public record Entry(
+      String sku, BigDecimal unitPrice, long unitCents, RuleTimeline timeline, long revision) {
+
+    static Entry compile(
+        String sku,
+        BigDecimal unitPrice,
+        List<PricingRule> rules,
+        OffsetDateTime compiledAt,
+        int planTableSize) {
+      long unitCents = Money.toCents(unitPrice);
+      return new Entry(
+          sku,
+          unitPrice,
+          unitCents,
+          RuleTimeline.compile(sku, unitCents, rules, compiledAt, planTableSize),
+          0L);
+    }
+
+    /** Rules and plan in effect at {@code at}. */
+    public RuleTimeline.Segment activeAt(Instant at) {
+      return timeline.at(at);
+    }
+
+    private Entry withRevision(long revision) {
+      return new Entry(sku, unitPrice, unitCents, timeline, revision);
+    }
+
+    /** Same price and the same rules, field by field, in the same order. */
+    private boolean sameDefinition(Entry other) {
+      List<PricingRule> a = timeline.rules();
+      List<PricingRule> b = other.timeline.rules();
+      if (unitPrice.compareTo(other.unitPrice) != 0 || a.size() != b.size()) return false;
+      for (int i = 0; i < a.size(); i++) {
+        if (!sameRule(a.get(i), b.get(i))) return false;
+      }
+      return true;
+    }
+
+    private static boolean sameRule(PricingRule a, PricingRule b) {
+      return Objects.equals(a.getId(), b.getId())
+          && a.getRuleType() == b.getRuleType()
+          && Objects.equals(a.getXQty(), b.getXQty())
+          && sameAmount(a.getYPrice(), b.getYPrice())
+          && sameInstant(a.getStartsAt(), b.getStartsAt())
+          && sameInstant(a.getEndsAt(), b.getEndsAt());
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+      return (a == null) ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private static boolean sameInstant(OffsetDateTime a, OffsetDateTime b) {
+      return (a == null) ? b == null : b != null && a.isEqual(b);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.product.service.checkoutkata.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.product.service.checkoutkata.repo.PricingRuleRepository;
+import com.product.service.checkoutkata.repo.ProductRepository;
+
+/**
+ * Owns the current {@link CatalogSnapshot}. The snapshot is loaded lazily on first use and replaced
+ * atomically after every committed catalog write, so readers always see a complete, consistent
+ * catalog without locking.
+ */
+@Component
+public class CatalogSnapshotHolder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSnapshotHolder.class);
+
+  private final ProductRepository products;
+  private final PricingRuleRepository rules;
+  private final TransactionTemplate tx;
+  private final DbBulkhead bulkhead;
+  private final Clock clock;
+  private final int planTableSize;
+  private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+  private final AtomicLong versions = new AtomicLong();
+  // not synchronized: a monitor held across JDBC pins the carrier of a virtual thread
+  private final ReentrantLock loading = new ReentrantLock();
+  private volatile Instant loadedAt;
+
+  public CatalogSnapshotHolder(
+      ProductRepository products,
+      PricingRuleRepository rules,
+      PlatformTransactionManager txm,
+      DbBulkhead bulkhead,
+      Clock clock,
+      @Value("${checkout.pricing.plan-table-size:64}") int planTableSize) {
+    this.products = products;
+    this.rules = rules;
+    this.bulkhead = bulkhead;
+    this.clock = clock;
+    this.planTableSize = planTableSize;
+    this.tx = new TransactionTemplate(txm);
+    // loads may run from an after-commit callback, so never join the finished transaction
+    this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    // not read-only: a reload must see the write that triggered it, so it never runs on a replica
+  }
+
+  public CatalogSnapshot current() {
+    CatalogSnapshot s = current.get();
+    // first load happens on a request thread, so it is shed like any other request-path query
+    return (s != null) ? s : bulkhead.call(this::firstLoad);
+  }
+
+  /**
+   * Reloads the snapshot. Deliberately outside the bulkhead: reloads are serialized, so they need
+   * at most one of the connections the bulkhead reserves, and must never be shed.
+   */
+  public CatalogSnapshot refresh() {
+    return load();
+  }
+
+  /** Loads the snapshot unless a caller queued ahead on the lock already did. */
+  private CatalogSnapshot firstLoad() {
+    loading.lock();
+    try {
+      CatalogSnapshot s = current.get();
+      return (s != null) ? s : load();
+    } finally {
+      loading.unlock();
+    }
+  }
+
+  private CatalogSnapshot load() {
+    loading.lock();
+    try {
+      CatalogSnapshot s =
+          tx.execute(
+              status ->
+                  CatalogSnapshot.of(
+                      versions.incrementAndGet(),
+                      products.findAll(),
+                      rules.findAll(Sort.by("id")),
+                      OffsetDateTime.now(clock),
+                      planTableSize,
+                      current.get()));
+      current.set(s);
+      loadedAt = clock.instant();
+      LOGGER.debug("Catalog snapshot v{} loaded with {} SKUs", s.version(), s.size());
+      return s;
+    } finally {
+      loading.unlock();
+    }
+  }
+
+  /**
+   * Whether the snapshot was (re)loaded less than {@code window} ago, or not at all yet. Within
+   * that window a read replica may not have replayed the change the snapshot already shows.
+   */
+  public boolean changedWithin(Duration window) {
+    Instant at = loadedAt;
+    return at == null || at.plus(window).isAfter(clock.instant());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCatalogChanged(CatalogChangedEvent e) {
+    LOGGER.debug("Catalog changed for SKU {}, reloading snapshot", e.sku());
+    refresh();
+  }
+}
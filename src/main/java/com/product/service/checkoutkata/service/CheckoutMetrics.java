@@ -0,0 +1,153 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Checkout metrics: end-to-end and per-phase latency timers (with percentile histograms), basket
+ * size summaries, offers applied per {@link RuleType} and unknown-SKU rejections. All meters are
+ * registered up front so the hot path only records.
+ *
+ * <p>Phase durations are also collected into the calling thread's {@link PhaseTimings}, if one is
+ * open, so the controller can report them in a {@code Server-Timing} header. Nothing is recorded
+ * for a {@link SyntheticCheckout}.
+ */
+@Component
+public class CheckoutMetrics {
+
+  /** Phases of a single checkout, in the order they run. */
+  public enum Phase {
+    PARSE,
+    CATALOG,
+    RULES,
+    SERIALIZE;
+
+    final String tag = name().toLowerCase(Locale.ROOT);
+  }
+
+  private static final ThreadLocal<PhaseTimings> CURRENT = new ThreadLocal<>();
+
+  private final Timer total;
+  private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+  private final DistributionSummary basketUnits;
+  private final DistributionSummary distinctSkus;
+  private final Map<RuleType, Counter> offersApplied = new EnumMap<>(RuleType.class);
+  private final Counter unknownSku;
+
+  public CheckoutMetrics(MeterRegistry registry) {
+    this.total =
+        Timer.builder("checkout.price")
+            .description("Time to price one basket, from parsing to the priced result")
+            .publishPercentileHistogram()
+            .register(registry);
+    for (Phase p : Phase.values()) {
+      phases.put(
+          p,
+          Timer.builder("checkout.phase")
+              .description("Time spent in one checkout phase")
+              .tag("phase", p.tag)
+              .publishPercentileHistogram()
+              .register(registry));
+    }
+    this.basketUnits =
+        DistributionSummary.builder("checkout.basket.units")
+            .description("Units per priced basket")
+            .baseUnit("items")
+            .publishPercentileHistogram()
+            .register(registry);
+    this.distinctSkus =
+        DistributionSummary.builder("checkout.basket.distinct.skus")
+            .description("Distinct SKUs per priced basket")
+            .baseUnit("skus")
+            .register(registry);
+    for (RuleType t : RuleType.values()) {
+      offersApplied.put(
+          t,
+          Counter.builder("checkout.offers.applied")
+              .description("Offers applied to priced baskets")
+              .tag("rule_type", t.name())
+              .register(registry));
+    }
+    this.unknownSku =
+        Counter.builder("checkout.unknown.sku")
+            .description("Baskets rejected because they reference an unknown SKU")
+            .register(registry);
+  }
+
+  public void phase(Phase phase, long nanos) {
+    if (SyntheticCheckout.active()) return;
+    phases.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    PhaseTimings t = CURRENT.get();
+    if (t != null) t.add(phase, nanos);
+  }
+
+  public void priced(BasketCounts counts, List<OfferApplied> offers, long nanos) {
+    if (SyntheticCheckout.active()) return;
+    total.record(nanos, TimeUnit.NANOSECONDS);
+    basketUnits.record(counts.totalUnits());
+    distinctSkus.record(counts.distinct());
+    for (OfferApplied o : offers) {
+      Counter c = offersApplied.get(RuleType.valueOf(o.ruleType()));
+      if (c != null) c.increment();
+    }
+  }
+
+  public void unknownSku() {
+    if (!SyntheticCheckout.active()) unknownSku.increment();
+  }
+
+  /**
+   * Starts collecting phase durations recorded on this thread until the returned handle is closed.
+   */
+  public PhaseTimings openTimings() {
+    PhaseTimings t = new PhaseTimings();
+    CURRENT.set(t);
+    return t;
+  }
+
+  /** Phase durations of one request, rendered as a {@code Server-Timing} header value. */
+  public static final class PhaseTimings implements AutoCloseable {
+    private final long[] nanos = new long[Phase.values().length];
+
+    void add(Phase phase, long n) {
+      nanos[phase.ordinal()] += n;
+    }
+
+    /**
+     * E.g. {@code parse;dur=0.012, catalog;dur=0.003, rules;dur=0.020}; unrecorded phases omitted.
+     */
+    public String toHeaderValue() {
+      StringBuilder sb = new StringBuilder(96);
+      for (Phase p : Phase.values()) {
+        long micros = nanos[p.ordinal()] / 1_000;
+        if (nanos[p.ordinal()] == 0) continue;
+        if (!sb.isEmpty()) sb.append(", ");
+        // dur is in milliseconds; keep microsecond precision
+        sb.append(p.tag).append(";dur=").append(micros / 1_000).append('.');
+        long frac = micros % 1_000;
+        if (frac < 100) sb.append('0');
+        if (frac < 10) sb.append('0');
+        sb.append(frac);
+      }
+      return sb.toString();
+    }
+
+    @Override
+    public void close() {
+      CURRENT.remove();
+    }
+  }
+}
@@ -1,70 +1,120 @@
 package com.product.service.checkoutkata.service;
 
 import java.math.BigDecimal;
-import java.time.OffsetDateTime;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.product.service.checkoutkata.domain.Product;
-import com.product.service.checkoutkata.dto.OfferApplied;
-import com.product.service.checkoutkata.repo.PricingRuleRepository;
-import com.product.service.checkoutkata.repo.ProductRepository;
+import com.product.service.checkoutkata.service.CheckoutMetrics.Phase;
 
 @Service
 public class CheckoutService {
   private static final Logger LOGGER = LoggerFactory.getLogger(CheckoutService.class);
-  private final ProductRepository products;
-  private final PricingRuleRepository rules;
-  private final PricingEngine engine;
+  private final CatalogSnapshotHolder catalog;
+  private final CheckoutMetrics metrics;
+  private final PricingAuditLog audit;
+  private final QuoteCache quotes;
+  private final BasketPricer pricer;
+  private final Clock clock;
 
-  public CheckoutService(ProductRepository products, PricingRuleRepository rules) {
-    this.products = products;
-    this.rules = rules;
-    this.engine = new PricingEngine();
+  public CheckoutService(
+      CatalogSnapshotHolder catalog,
+      CheckoutMetrics metrics,
+      PricingAuditLog audit,
+      QuoteCache quotes,
+      Clock clock,
+      @Value("${checkout.pricing.mode:COMPILED}") PricingMode mode,
+      @Value("${checkout.basket.max-units:10000000}") long maxUnits) {
+    this.catalog = catalog;
+    this.metrics = metrics;
+    this.audit = audit;
+    this.quotes = quotes;
+    this.pricer = new BasketPricer(mode, maxUnits, metrics::unknownSku);
+    this.clock = clock;
   }
 
-  @Transactional(readOnly = true)
   public BigDecimal priceOf(String itemSequence) {
     return priceOfWithDetails(itemSequence).total();
   }
 
-  @Transactional(readOnly = true)
+  /**
+   * @throws InvalidBasketException if the items do not parse, or hold more than {@code
+   *     checkout.basket.max-units} units
+   */
   public PricingResult priceOfWithDetails(String itemSequence) {
     LOGGER.debug("Calculating price (with details) for items: {}", itemSequence);
-    if (itemSequence == null || itemSequence.isBlank()) {
-      LOGGER.error("No item sequence found");
-      return new PricingResult(BigDecimal.ZERO.setScale(2), List.of());
-    } else {
-      itemSequence = itemSequence.trim();
-    }
-    Map<String, Integer> counts = new HashMap<>();
-    for (char c : itemSequence.toCharArray()) {
-      String sku = String.valueOf(Character.toUpperCase(c));
-      if (!sku.matches("[A-Z]")) continue;
-      counts.merge(sku, 1, Integer::sum);
+    long start = System.nanoTime();
+    BasketCounts counts = BasketCounts.parse(itemSequence);
+    metrics.phase(Phase.PARSE, System.nanoTime() - start);
+    if (counts.isEmpty()) {
+      LOGGER.debug("No item sequence found");
+      return new PricingResult(BigDecimal.ZERO.setScale(2), List.of(), counts);
     }
 
-    BigDecimal total = BigDecimal.ZERO.setScale(2);
-    List<OfferApplied> overallOffers = new ArrayList<>();
+    return priceTimed(pricer.checkSize(counts), start);
+  }
 
-    for (Map.Entry<String, Integer> e : counts.entrySet()) {
-      Product p =
-          products
-              .findBySku(e.getKey())
-              .orElseThrow(() -> new NoSuchElementException("Unknown SKU: " + e.getKey()));
-      PricingResult res =
-          engine.priceForWithDetails(
-              e.getValue(),
-              p.getUnitPrice(),
-              rules.findActiveBySkuAt(p.getSku(), OffsetDateTime.now()));
-      total = total.add(res.total());
-      overallOffers.addAll(res.offers());
+  /**
+   * Prices a basket given as counts (from a SKU → quantity map or run-length input), so the cost
+   * depends on the number of distinct SKUs rather than units.
+   *
+   * @throws InvalidBasketException if the basket holds more than {@code checkout.basket.max-units}
+   *     units
+   */
+  public PricingResult priceOfWithDetails(BasketCounts counts) {
+    if (counts.isEmpty()) {
+      return new PricingResult(BigDecimal.ZERO.setScale(2), List.of(), counts);
     }
+    return priceTimed(pricer.checkSize(counts), System.nanoTime());
+  }
+
+  private PricingResult priceTimed(BasketCounts counts, long start) {
+    long t = System.nanoTime();
+    CatalogSnapshot snapshot = catalog.current();
+    CatalogSnapshot.Entry[] entries = pricer.resolve(counts, snapshot);
+    long resolved = System.nanoTime();
+    metrics.phase(Phase.CATALOG, resolved - t);
+
+    Instant now = clock.instant();
+    PricingResult result =
+        quotes.get(counts, entries, now, () -> pricer.price(counts, entries, now));
+    long end = System.nanoTime();
+    metrics.phase(Phase.RULES, end - resolved);
+    metrics.priced(counts, result.offers(), end - start);
+    audit.record(result, snapshot.version());
+    return result;
+  }
+
+  /**
+   * Pricing pinned to the current catalog snapshot and clock, for callers that price many baskets
+   * as one unit (batches, streams). Each call validates and prices one basket, reporting failures
+   * as a {@link BasketOutcome} instead of throwing.
+   */
+  public Function<String, BasketOutcome> pinned() {
+    CatalogSnapshot snapshot = catalog.current();
+    Instant now = clock.instant();
+    return items -> priceOutcome(items, snapshot, now);
+  }
+
+  /** Like {@link #pinned()}, for baskets already parsed from any of the request shapes. */
+  public Function<BasketCounts, BasketOutcome> pinnedCounts() {
+    CatalogSnapshot snapshot = catalog.current();
+    Instant now = clock.instant();
+    return counts -> audited(pricer.priceOutcome(counts, snapshot, now), snapshot);
+  }
+
+  private BasketOutcome priceOutcome(String items, CatalogSnapshot snapshot, Instant now) {
+    return audited(pricer.priceOutcome(items, snapshot, now), snapshot);
+  }
 
-    return new PricingResult(total.setScale(2), overallOffers);
+  private BasketOutcome audited(BasketOutcome outcome, CatalogSnapshot snapshot) {
+    if (outcome.isOk()) audit.record(outcome.result(), snapshot.version());
+    return outcome;
   }
 }
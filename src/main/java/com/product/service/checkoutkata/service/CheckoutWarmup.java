@@ -0,0 +1,264 @@
+package com.product.service.checkoutkata.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.product.service.checkoutkata.dto.CheckoutRequest;
+import com.product.service.checkoutkata.dto.CheckoutResponseWriter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.validation.Validator;
+
+/**
+ * Warms a fresh instance up before it takes traffic. At startup the catalog snapshot is loaded (so
+ * Hibernate, the pool and plan compilation run once), then synthetic checkout requests built from
+ * the real SKUs go the way {@code POST /price} takes them: JSON read into a {@link CheckoutRequest}
+ * and validated, priced by {@link CheckoutService} (single baskets in every shape, and pinned
+ * batches) and serialized with the {@link CheckoutResponseWriter} the API uses. This runs in rounds
+ * of {@code checkout.warmup.round-size}, until one of these is true:
+ *
+ * <ul>
+ *   <li>{@code checkout.warmup.iterations} baskets have been priced;
+ *   <li>at least {@code min-iterations} have run and the mean latency of two consecutive rounds
+ *       differs by less than {@code stable-tolerance};
+ *   <li>{@code timeout} has elapsed.
+ * </ul>
+ *
+ * <p>As the {@code warmup} health indicator, it keeps the {@code readiness} group DOWN until then.
+ * It runs as an {@link ApplicationRunner}, so Boot's own readiness state stays {@code
+ * REFUSING_TRAFFIC} meanwhile as well. A failed warm-up is logged and still reported UP: it only
+ * costs latency, and the {@code db} indicator already covers an unreachable database.
+ *
+ * <p>The whole warm-up runs as a {@link SyntheticCheckout}, so its baskets stay out of the {@code
+ * checkout.*} meters, the audit trail and the {@link QuoteCache}.
+ */
+@Component("warmup")
+public class CheckoutWarmup implements ApplicationRunner, HealthIndicator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CheckoutWarmup.class);
+  private static final int MAX_ITEMS = 32;
+  private static final int MAX_QUANTITY = 200;
+
+  private final CatalogSnapshotHolder catalog;
+  private final CheckoutService checkout;
+  private final ObjectWriter requestWriter;
+  private final ObjectReader requestReader;
+  private final Validator validator;
+  private final CheckoutResponseWriter responseWriter;
+  private final boolean enabled;
+  private final int iterations;
+  private final int minIterations;
+  private final int roundSize;
+  private final double stableTolerance;
+  private final Duration timeout;
+  private volatile Result result;
+  private volatile long durationNanos;
+
+  public CheckoutWarmup(
+      CatalogSnapshotHolder catalog,
+      CheckoutService checkout,
+      ObjectMapper om,
+      Validator validator,
+      MeterRegistry registry,
+      @Value("${checkout.warmup.enabled:true}") boolean enabled,
+      @Value("${checkout.warmup.iterations:10000}") int iterations,
+      @Value("${checkout.warmup.min-iterations:2000}") int minIterations,
+      @Value("${checkout.warmup.round-size:250}") int roundSize,
+      @Value("${checkout.warmup.stable-tolerance:0.1}") double stableTolerance,
+      @Value("${checkout.warmup.timeout:PT30S}") Duration timeout) {
+    this.catalog = catalog;
+    this.checkout = checkout;
+    this.requestWriter = om.writerFor(CheckoutRequest.class);
+    this.requestReader = om.readerFor(CheckoutRequest.class);
+    this.validator = validator;
+    this.responseWriter = new CheckoutResponseWriter(om);
+    this.enabled = enabled;
+    this.iterations = iterations;
+    this.minIterations = minIterations;
+    this.roundSize = Math.max(roundSize, 1);
+    this.stableTolerance = stableTolerance;
+    this.timeout = timeout;
+    TimeGauge.builder("checkout.warmup.duration", this, TimeUnit.NANOSECONDS, w -> w.durationNanos)
+        .description("Time from the start of warm-up until readiness was released")
+        .register(registry);
+    Gauge.builder("checkout.warmup.iterations", this, w -> w.result == null ? 0 : w.result.done)
+        .description("Synthetic baskets priced during warm-up")
+        .register(registry);
+  }
+
+  /** Why warm-up stopped. */
+  enum Reason {
+    DISABLED,
+    EMPTY_CATALOG,
+    ITERATIONS,
+    STABLE,
+    TIMEOUT,
+    FAILED
+  }
+
+  record Result(Reason reason, int done, double lastRoundMicros) {}
+
+  @Override
+  public void run(ApplicationArguments args) {
+    long start = System.nanoTime();
+    Result r;
+    try {
+      r = enabled ? SyntheticCheckout.call(() -> warmUp(start)) : new Result(Reason.DISABLED, 0, 0);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Warm-up failed, accepting traffic without it", e);
+      r = new Result(Reason.FAILED, 0, 0);
+    }
+    durationNanos = System.nanoTime() - start;
+    result = r;
+    LOGGER.info(
+        "Warm-up finished ({}) after {} baskets in {} ms",
+        r.reason(),
+        r.done(),
+        TimeUnit.NANOSECONDS.toMillis(durationNanos));
+  }
+
+  private Result warmUp(long start) {
+    CatalogSnapshot snapshot = catalog.refresh();
+    List<String> skus = new ArrayList<>(snapshot.skus());
+    skus.sort(null);
+    if (skus.isEmpty()) return new Result(Reason.EMPTY_CATALOG, 0, 0);
+    if (iterations <= 0) return new Result(Reason.ITERATIONS, 0, 0);
+
+    long deadline = start + timeout.toNanos();
+    SplittableRandom random = new SplittableRandom(42);
+    int done = 0;
+    double previous = Double.NaN;
+    double current = Double.NaN;
+    while (true) {
+      long t = System.nanoTime();
+      int n = Math.min(roundSize, iterations - done);
+      runRound(skus, random, n);
+      done += n;
+      previous = current;
+      current = (System.nanoTime() - t) / 1_000.0 / n;
+      LOGGER.debug("Warm-up round: {} baskets, {} µs/basket", done, current);
+
+      if (done >= iterations) return new Result(Reason.ITERATIONS, done, current);
+      if (done >= minIterations && Math.abs(current - previous) <= stableTolerance * previous) {
+        return new Result(Reason.STABLE, done, current);
+      }
+      if (System.nanoTime() - deadline >= 0) return new Result(Reason.TIMEOUT, done, current);
+    }
+  }
+
+  /**
+   * Prices {@code n} requests, cycling through items, counts and runs, then two pinned batches made
+   * of some of them.
+   */
+  private void runRound(List<String> skus, SplittableRandom random, int n) {
+    List<String> batch = new ArrayList<>();
+    List<BasketCounts> stream = new ArrayList<>();
+    boolean multiLetter = skus.stream().anyMatch(sku -> sku.length() > 1);
+    for (int i = 0; i < n; i++) {
+      CheckoutRequest req =
+          switch (i % 3) {
+            case 0 -> new CheckoutRequest(items(skus, multiLetter, random), null, null);
+            case 1 -> new CheckoutRequest(null, counts(skus, random), null);
+            default -> new CheckoutRequest(null, null, runs(skus, random));
+          };
+      req = roundTrip(req);
+      if (CheckoutRequest.violation(validator, req) != null) continue;
+      PricingResult result =
+          (req.items() != null)
+              ? checkout.priceOfWithDetails(req.items())
+              : checkout.priceOfWithDetails(req.toCounts());
+      responseWriter.serialize(result);
+      if (req.items() != null && batch.size() < 16) batch.add(req.items());
+      if (req.items() == null && stream.size() < 16) stream.add(result.counts());
+    }
+    Function<String, BasketOutcome> batchPricer = checkout.pinned();
+    for (String items : batch) serialize(batchPricer.apply(items));
+    Function<BasketCounts, BasketOutcome> streamPricer = checkout.pinnedCounts();
+    for (BasketCounts counts : stream) serialize(streamPricer.apply(counts));
+  }
+
+  /** The request as the controller would receive it, read back from its JSON body. */
+  private CheckoutRequest roundTrip(CheckoutRequest req) {
+    try {
+      return requestReader.readValue(requestWriter.writeValueAsBytes(req));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void serialize(BasketOutcome o) {
+    if (o.isOk()) responseWriter.serialize(o.result());
+  }
+
+  /** Compact letters or the separated form, which multi-letter SKUs always need. */
+  private static String items(List<String> skus, boolean multiLetter, SplittableRandom random) {
+    int len = 1 + random.nextInt(MAX_ITEMS);
+    boolean separated = multiLetter || random.nextBoolean();
+    StringBuilder sb = new StringBuilder(len * 2);
+    for (int i = 0; i < len; i++) {
+      if (separated && i > 0) sb.append(',');
+      sb.append(skus.get(random.nextInt(skus.size())));
+    }
+    return sb.toString();
+  }
+
+  /** Separated run-length form, e.g. {@code A*3,B*12}, which works for any SKU. */
+  private static String runs(List<String> skus, SplittableRandom random) {
+    int distinct = 1 + random.nextInt(Math.min(skus.size(), 4));
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < distinct; i++) {
+      if (i > 0) sb.append(',');
+      sb.append(skus.get(random.nextInt(skus.size())));
+      sb.append('*').append(1 + random.nextInt(MAX_QUANTITY));
+    }
+    return sb.toString();
+  }
+
+  private static Map<String, Integer> counts(List<String> skus, SplittableRandom random) {
+    int distinct = 1 + random.nextInt(Math.min(skus.size(), 4));
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < distinct; i++) {
+      counts.merge(
+          skus.get(random.nextInt(skus.size())), 1 + random.nextInt(MAX_QUANTITY), Integer::sum);
+    }
+    return counts;
+  }
+
+  @Override
+  public Health health() {
+    Result r = result;
+    if (r == null) return Health.down().withDetail("state", "warming up").build();
+    return Health.up()
+        .withDetail("reason", r.reason())
+        .withDetail("baskets", r.done())
+        .withDetail("durationMs", TimeUnit.NANOSECONDS.toMillis(durationNanos))
+        .withDetail("lastRoundMicrosPerBasket", r.lastRoundMicros())
+        .build();
+  }
+
+  /** How the last warm-up ended, or {@code null} while it is still running. */
+  Result result() {
+    return result;
+  }
+}
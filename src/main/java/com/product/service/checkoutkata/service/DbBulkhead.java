@@ -0,0 +1,96 @@
+package com.product.service.checkoutkata.service;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caps concurrent database work at the size of the connection pool. With virtual threads the number
+ * of in-flight requests is effectively unbounded; without this they would all queue inside Hikari
+ * for up to its connection timeout. Here callers wait at most {@code
+ * checkout.db.bulkhead.queue-timeout} for a permit and are then rejected with a {@link
+ * BulkheadFullException} (HTTP 503), so overload sheds quickly instead of piling up.
+ *
+ * <p>Permits must be taken outside any transaction so that holding a permit always precedes holding
+ * a connection. {@code checkout.db.bulkhead.reserved-connections} connections are left outside the
+ * bulkhead for the catalog change listener and snapshot reloads, which must never be shed (a reload
+ * runs after a write commits, while the writer still holds its connection).
+ *
+ * <p>Exports hold their permit while rows are written to the client, which may be slow. They go
+ * through {@link #callExport} and share a separate budget of {@code
+ * checkout.db.bulkhead.export-permits}, so a few slow downloads cannot take every connection.
+ */
+@Component
+public class DbBulkhead {
+  private final Semaphore permits;
+  private final Semaphore exportPermits;
+  private final int size;
+  private final long queueTimeoutNanos;
+  private final Counter rejected;
+
+  public DbBulkhead(
+      @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+      @Value("${checkout.db.bulkhead.reserved-connections:2}") int reserved,
+      @Value("${checkout.db.bulkhead.queue-timeout:50ms}") Duration queueTimeout,
+      @Value("${checkout.db.bulkhead.export-permits:1}") int exportPermits,
+      MeterRegistry registry) {
+    int size = Math.max(poolSize - reserved, 1);
+    this.size = size;
+    this.permits = new Semaphore(size);
+    this.exportPermits = new Semaphore(Math.min(Math.max(exportPermits, 1), size));
+    this.queueTimeoutNanos = queueTimeout.toNanos();
+    this.rejected =
+        Counter.builder("checkout.db.bulkhead.rejected")
+            .description("Database calls rejected because no bulkhead permit was free in time")
+            .register(registry);
+    Gauge.builder("checkout.db.bulkhead.in.use", permits, p -> size - p.availablePermits())
+        .description("Bulkhead permits currently held")
+        .register(registry);
+  }
+
+  /** Runs {@code work} holding a permit, waiting at most the queue timeout for one. */
+  public <T> T call(Supplier<T> work) {
+    acquire(permits);
+    try {
+      return work.get();
+    } finally {
+      permits.release();
+    }
+  }
+
+  /** Like {@link #call}, but first takes one of the export permits. */
+  public <T> T callExport(Supplier<T> work) {
+    acquire(exportPermits);
+    try {
+      return call(work);
+    } finally {
+      exportPermits.release();
+    }
+  }
+
+  private void acquire(Semaphore semaphore) {
+    boolean acquired;
+    try {
+      acquired = semaphore.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      rejected.increment();
+      throw new BulkheadFullException("Database busy, retry shortly");
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+}
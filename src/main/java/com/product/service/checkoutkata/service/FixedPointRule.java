@@ -0,0 +1,30 @@
+package com.product.service.checkoutkata.service;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.RuleType;
+
+/** A {@link PricingRule} pre-validated and pre-converted to minor units for fixed-point pricing. */
+public record FixedPointRule(PricingRule source, int xQty, long yPriceCents) {
+
+  /**
+   * Returns {@code null} for rules the engine would ignore (unknown type, missing fields) or could
+   * not apply (non-positive bundle size).
+   */
+  public static FixedPointRule of(PricingRule r) {
+    if (r.getRuleType() != RuleType.BULK_X_FOR_Y
+        || r.getXQty() == null
+        || r.getXQty() < 1
+        || r.getYPrice() == null) {
+      return null;
+    }
+    return new FixedPointRule(r, r.getXQty(), Money.toCents(r.getYPrice()));
+  }
+
+  public String sku() {
+    return source.getSku();
+  }
+
+  public RuleType ruleType() {
+    return source.getRuleType();
+  }
+}
@@ -0,0 +1,11 @@
+package com.product.service.checkoutkata.service;
+
+/**
+ * Thrown when a basket cannot be priced as sent: malformed items, counts or runs, or more units
+ * than {@code checkout.basket.max-units}. The message is written for the client (HTTP 400).
+ */
+public class InvalidBasketException extends IllegalArgumentException {
+  public InvalidBasketException(String message) {
+    super(message);
+  }
+}
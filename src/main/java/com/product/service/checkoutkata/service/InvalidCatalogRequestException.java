@@ -0,0 +1,11 @@
+package com.product.service.checkoutkata.service;
+
+/**
+ * Thrown when an admin catalog request is malformed: a bad page limit, price adjustment or import
+ * upload. The message is written for the client (HTTP 400).
+ */
+public class InvalidCatalogRequestException extends IllegalArgumentException {
+  public InvalidCatalogRequestException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,21 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/** Conversions between {@link BigDecimal} amounts (scale 2) and {@code long} minor units. */
+public final class Money {
+  private Money() {}
+
+  /**
+   * @throws ArithmeticException if {@code amount} has more than two decimals or does not fit a
+   *     {@code long}
+   */
+  public static long toCents(BigDecimal amount) {
+    return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal fromCents(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+}
@@ -0,0 +1,70 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer. {@link #offer} never
+ * blocks or spins on a full buffer: it returns {@code false} and the caller decides what to do with
+ * the element (usually drop and count it).
+ *
+ * <p>Producers claim a sequence number with a CAS on {@code tail} and then publish into the slot;
+ * the consumer treats a still-empty slot as "not yet published" and stops there, so a slow producer
+ * only delays draining, never corrupts it.
+ */
+final class MpscRingBuffer<T> {
+  private final AtomicReferenceArray<T> slots;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+
+  /** Capacity is rounded up to the next power of two. */
+  MpscRingBuffer(int capacity) {
+    int cap = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(cap);
+    this.mask = cap - 1;
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  /** Approximate number of queued elements. */
+  int size() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  /** Enqueues {@code e} if there is room; never waits. */
+  boolean offer(T e) {
+    while (true) {
+      long t = tail.get();
+      if (t - head.get() > mask) return false;
+      if (tail.compareAndSet(t, t + 1)) {
+        slots.lazySet((int) t & mask, e);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Hands up to {@code max} published elements to {@code sink}, in order. Must only be called from
+   * the single consumer thread.
+   *
+   * @return the number of elements drained
+   */
+  int drain(Consumer<? super T> sink, int max) {
+    long h = head.get();
+    int n = 0;
+    while (n < max) {
+      int i = (int) h & mask;
+      T e = slots.get(i);
+      if (e == null) break;
+      slots.set(i, null);
+      head.lazySet(++h);
+      n++;
+      sink.accept(e);
+    }
+    return n;
+  }
+}
@@ -0,0 +1,64 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * "What would this basket have cost at time T?" Prices against the catalog as it stood at {@code
+ * T}: the product prices and rule versions current then, and of those the rules active at {@code
+ * T}. Rules edited or deleted since are priced as they read at the time.
+ *
+ * <p>Instants from now on are priced against the live snapshot (so scheduled rules apply); earlier
+ * ones against {@link CatalogHistory}. These are what-if prices, so they are not written to the
+ * pricing audit trail.
+ */
+@Service
+public class PointInTimePricingService {
+  private final CatalogSnapshotHolder catalog;
+  private final CatalogHistoryHolder history;
+  private final CheckoutMetrics metrics;
+  private final BasketPricer pricer;
+  private final Clock clock;
+
+  public PointInTimePricingService(
+      CatalogSnapshotHolder catalog,
+      CatalogHistoryHolder history,
+      CheckoutMetrics metrics,
+      Clock clock,
+      @Value("${checkout.pricing.mode:COMPILED}") PricingMode mode,
+      @Value("${checkout.basket.max-units:10000000}") long maxUnits) {
+    this.catalog = catalog;
+    this.history = history;
+    this.metrics = metrics;
+    this.pricer = new BasketPricer(mode, maxUnits, metrics::unknownSku);
+    this.clock = clock;
+  }
+
+  /**
+   * @throws java.util.NoSuchElementException if a SKU did not exist at {@code asOf}
+   * @throws InvalidBasketException if the basket holds more than {@code checkout.basket.max-units}
+   *     units
+   */
+  public PricingResult priceAsOf(BasketCounts counts, Instant asOf) {
+    if (counts.isEmpty()) {
+      return new PricingResult(BigDecimal.ZERO.setScale(2), List.of(), counts);
+    }
+    pricer.checkSize(counts);
+    long start = System.nanoTime();
+    CatalogSnapshot.Entry[] entries;
+    if (asOf.isBefore(clock.instant())) {
+      CatalogHistory h = history.current();
+      entries = pricer.resolve(counts, sku -> h.find(sku, asOf));
+    } else {
+      entries = pricer.resolve(counts, catalog.current());
+    }
+    PricingResult result = pricer.price(counts, entries, asOf);
+    metrics.priced(counts, result.offers(), System.nanoTime() - start);
+    return result;
+  }
+}
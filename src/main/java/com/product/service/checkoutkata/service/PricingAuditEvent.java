@@ -0,0 +1,15 @@
+package com.product.service.checkoutkata.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+/** One priced basket, as recorded by the pricing audit trail. */
+public record PricingAuditEvent(
+    long timestampMillis,
+    String requestId,
+    long catalogVersion,
+    BasketCounts counts,
+    BigDecimal total,
+    List<OfferApplied> offers) {}
@@ -0,0 +1,160 @@
+package com.product.service.checkoutkata.service;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pricing audit trail, kept off the request thread. A sampled fraction of priced baskets ({@code
+ * checkout.audit.sample-rate}) is turned into {@link PricingAuditEvent}s and offered to a bounded
+ * lock-free ring buffer; a single background thread drains it and writes one structured line per
+ * event to the {@code pricing.audit} logger.
+ *
+ * <p>When the buffer is full the event is dropped and counted ({@code checkout.audit.dropped}), so
+ * a slow log sink can never make a request wait.
+ */
+@Component
+public class PricingAuditLog implements SmartLifecycle {
+  private static final Logger AUDIT = LoggerFactory.getLogger("pricing.audit");
+  private static final Logger LOGGER = LoggerFactory.getLogger(PricingAuditLog.class);
+  private static final int DRAIN_BATCH = 256;
+
+  private final MpscRingBuffer<PricingAuditEvent> buffer;
+  private final double sampleRate;
+  private final Counter published;
+  private final Counter dropped;
+  private volatile Thread worker;
+  // set by the worker before it parks on an empty buffer; producers unpark it when they see it
+  private volatile boolean idle;
+
+  public PricingAuditLog(
+      MeterRegistry registry,
+      @Value("${checkout.audit.buffer-size:8192}") int bufferSize,
+      @Value("${checkout.audit.sample-rate:0.01}") double sampleRate) {
+    this.buffer = new MpscRingBuffer<>(bufferSize);
+    this.sampleRate = sampleRate;
+    this.published =
+        Counter.builder("checkout.audit.published")
+            .description("Pricing audit events queued for writing")
+            .register(registry);
+    this.dropped =
+        Counter.builder("checkout.audit.dropped")
+            .description("Pricing audit events dropped because the buffer was full")
+            .register(registry);
+    Gauge.builder("checkout.audit.queue.depth", buffer, MpscRingBuffer::size)
+        .description("Pricing audit events waiting to be written")
+        .register(registry);
+  }
+
+  /**
+   * Samples and enqueues an audit event for a priced basket; never blocks. A {@link
+   * SyntheticCheckout} is not audited.
+   */
+  public void record(PricingResult result, long catalogVersion) {
+    if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) return;
+    if (SyntheticCheckout.active()) return;
+    PricingAuditEvent e =
+        new PricingAuditEvent(
+            System.currentTimeMillis(),
+            RequestContext.currentRequestId(),
+            catalogVersion,
+            result.counts(),
+            result.total(),
+            result.offers());
+    if (buffer.offer(e)) {
+      published.increment();
+      if (idle) wake();
+    } else {
+      dropped.increment();
+    }
+  }
+
+  /** Writes everything queued so far on the calling thread; used on shutdown and in tests. */
+  int flush() {
+    int total = 0;
+    int n;
+    while ((n = buffer.drain(PricingAuditLog::write, DRAIN_BATCH)) > 0) total += n;
+    return total;
+  }
+
+  private static void write(PricingAuditEvent e) {
+    AUDIT.info(
+        "priced {} {} {} {} {} {}",
+        kv("requestId", e.requestId()),
+        kv("at", e.timestampMillis()),
+        kv("catalogVersion", e.catalogVersion()),
+        kv("items", e.counts().toItemCounts()),
+        kv("total", e.total()),
+        kv("offers", e.offers()));
+  }
+
+  @Override
+  public void start() {
+    Thread t = new Thread(this::run, "pricing-audit");
+    t.setDaemon(true);
+    worker = t;
+    t.start();
+  }
+
+  @Override
+  public void stop() {
+    Thread t = worker;
+    worker = null;
+    if (t != null) {
+      LockSupport.unpark(t);
+      try {
+        t.join(TimeUnit.SECONDS.toMillis(2));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      // single consumer: only take over draining once the worker has really gone
+      if (!t.isAlive()) flush();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return worker != null;
+  }
+
+  private void wake() {
+    Thread t = worker;
+    if (t != null) LockSupport.unpark(t);
+  }
+
+  /**
+   * Drains until the buffer is empty, then parks until a producer wakes it. {@code idle} is raised
+   * before the final emptiness check and producers read it after claiming their slot, so either the
+   * worker sees the new element or the producer sees the worker parking; an unpark that lands just
+   * before {@code park} is kept as the thread's permit.
+   */
+  private void run() {
+    Thread self = Thread.currentThread();
+    while (worker == self) {
+      try {
+        if (buffer.drain(PricingAuditLog::write, DRAIN_BATCH) > 0) continue;
+        idle = true;
+        if (buffer.size() == 0) {
+          if (worker == self) LockSupport.park(this);
+        } else {
+          Thread.onSpinWait(); // a slot is claimed but not yet published
+        }
+        idle = false;
+      } catch (RuntimeException ex) {
+        LOGGER.warn("Failed to write pricing audit event", ex);
+      }
+    }
+  }
+}
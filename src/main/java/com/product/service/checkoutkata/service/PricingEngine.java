@@ -3,12 +3,12 @@ package com.product.service.checkoutkata.service;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.product.service.checkoutkata.domain.PricingRule;
-import com.product.service.checkoutkata.domain.RuleType;
 import com.product.service.checkoutkata.dto.OfferApplied;
 
 public class PricingEngine {
@@ -18,45 +18,39 @@ public class PricingEngine {
     return priceForWithDetails(qty, unitPrice, rules).total();
   }
 
+  /**
+   * Prices {@code qty} units with the cheapest combination of the given BULK_X_FOR_Y rules and
+   * single units; rule order does not matter. Rules with missing fields are ignored.
+   */
   public PricingResult priceForWithDetails(int qty, BigDecimal unitPrice, List<PricingRule> rules) {
     if (qty <= 0) {
       LOGGER.error("Quantity must be greater than zero");
       return new PricingResult(BigDecimal.ZERO.setScale(2), List.of());
     }
-    int remaining = qty;
-    BigDecimal total = BigDecimal.ZERO.setScale(2);
+    List<FixedPointRule> bundles =
+        rules.stream().map(FixedPointRule::of).filter(Objects::nonNull).toList();
     List<OfferApplied> applied = new ArrayList<>();
+    BigDecimal total =
+        BundleSolver.of(Money.toCents(unitPrice), bundles).priceInto(qty, unitPrice, applied);
+    return new PricingResult(total.setScale(2), applied);
+  }
 
-    for (PricingRule r : rules) {
-      if (r.getRuleType() == RuleType.BULK_X_FOR_Y
-          && r.getXQty() != null
-          && r.getYPrice() != null) {
-        LOGGER.info("Applying Bundling for SKU={} rule={}", r.getSku(), r);
-        int bundles = remaining / r.getXQty();
-        if (bundles > 0) {
-          BigDecimal bundlesTotal = r.getYPrice().multiply(BigDecimal.valueOf(bundles));
-          total = total.add(bundlesTotal);
-          int remainderAfter = remaining % r.getXQty();
-          BigDecimal remainderPrice = unitPrice.multiply(BigDecimal.valueOf(remainderAfter));
-          applied.add(
-              new OfferApplied(
-                  r.getSku(),
-                  r.getRuleType().name(),
-                  bundles,
-                  r.getXQty(),
-                  r.getYPrice(),
-                  remainderAfter,
-                  remainderPrice.setScale(2)));
-          remaining = remaining % r.getXQty();
-        }
-      }
-      // future rule types can be added here and add OfferApplied entries
-    }
+  /**
+   * Fixed-point variant of {@link #priceForWithDetails(int, BigDecimal, List)}: same selection,
+   * same offers, but computed on {@code long} minor units with overflow checks.
+   */
+  public PricingResult priceForWithDetails(int qty, long unitCents, List<FixedPointRule> rules) {
+    List<OfferApplied> applied = new ArrayList<>();
+    long total = priceInto(qty, unitCents, rules, applied);
+    return new PricingResult(Money.fromCents(total), applied);
+  }
 
-    // Charge for leftover units at unit price
-    BigDecimal remainderCharge = unitPrice.multiply(BigDecimal.valueOf(remaining));
-    total = total.add(remainderCharge);
-    LOGGER.info("Total price after bundling: {}, quantity: {}", total, qty);
-    return new PricingResult(total.setScale(2), applied);
+  /** Prices {@code qty} units, appends applied offers and returns the total in minor units. */
+  long priceInto(int qty, long unitCents, List<FixedPointRule> rules, List<OfferApplied> applied) {
+    if (qty <= 0) {
+      LOGGER.error("Quantity must be greater than zero");
+      return 0L;
+    }
+    return BundleSolver.of(unitCents, rules).priceInto(qty, applied);
   }
 }
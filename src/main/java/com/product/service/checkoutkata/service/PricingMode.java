@@ -0,0 +1,14 @@
+package com.product.service.checkoutkata.service;
+
+/** Arithmetic used by {@link CheckoutService}; selected with {@code checkout.pricing.mode}. */
+public enum PricingMode {
+  /** {@link java.math.BigDecimal} arithmetic for every rule and remainder, per request. */
+  DECIMAL,
+  /**
+   * {@code long} minor units end to end, per request; {@link java.math.BigDecimal} only for the
+   * response.
+   */
+  FIXED_POINT,
+  /** Per-SKU {@link PricingPlan}s compiled with the catalog snapshot (default). */
+  COMPILED
+}
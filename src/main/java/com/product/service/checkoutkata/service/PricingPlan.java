@@ -0,0 +1,68 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+/**
+ * A SKU's active bundle rules compiled once, when the catalog changes, into an optimal-selection
+ * table (see {@link BundleSolver}) plus ready-made offer lists. Quantities up to {@link
+ * #tableSize()} are priced with a single array lookup; larger quantities reduce to the solver table
+ * in closed form. Results are identical to {@link PricingEngine} for the same rules.
+ *
+ * <p>A plan holds no time window of its own: {@link RuleTimeline} compiles one per segment of the
+ * rule timeline and picks the segment for each instant.
+ */
+public final class PricingPlan {
+  private final String sku;
+  private final BundleSolver solver;
+  private final List<List<OfferApplied>> tableOffers;
+
+  private PricingPlan(String sku, long unitCents, List<FixedPointRule> rules, int tableSize) {
+    this.sku = sku;
+    int size = rules.isEmpty() ? 0 : Math.max(tableSize, 0);
+    this.solver = new BundleSolver(unitCents, rules, size);
+
+    List<List<OfferApplied>> offers = new ArrayList<>(size + 1);
+    for (int q = 0; q <= size; q++) {
+      List<OfferApplied> applied = new ArrayList<>(solver.bundles().size());
+      solver.priceInto(q, applied);
+      offers.add(List.copyOf(applied));
+    }
+    this.tableOffers = offers;
+  }
+
+  /**
+   * Compiles {@code rules} (already filtered to those active) with ready-made results for
+   * quantities {@code 0..tableSize}.
+   */
+  public static PricingPlan compile(
+      String sku, long unitCents, List<FixedPointRule> rules, int tableSize) {
+    return new PricingPlan(sku, unitCents, rules, tableSize);
+  }
+
+  public String sku() {
+    return sku;
+  }
+
+  public int tableSize() {
+    return tableOffers.size() - 1;
+  }
+
+  public PricingResult price(int qty) {
+    List<OfferApplied> applied = new ArrayList<>(solver.bundles().size());
+    long total = priceInto(qty, applied);
+    return new PricingResult(Money.fromCents(total), applied);
+  }
+
+  /** Prices {@code qty} units, appends applied offers and returns the total in minor units. */
+  public long priceInto(int qty, List<OfferApplied> applied) {
+    if (qty <= 0) return 0L;
+    if (qty < tableOffers.size()) {
+      applied.addAll(tableOffers.get(qty));
+      return solver.totalCents(qty);
+    }
+    return solver.priceInto(qty, applied);
+  }
+}
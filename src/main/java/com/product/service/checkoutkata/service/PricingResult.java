@@ -5,4 +5,8 @@ import java.util.List;
 
 import com.product.service.checkoutkata.dto.OfferApplied;
 
-public record PricingResult(BigDecimal total, List<OfferApplied> offers) {}
+public record PricingResult(BigDecimal total, List<OfferApplied> offers, BasketCounts counts) {
+  public PricingResult(BigDecimal total, List<OfferApplied> offers) {
+    this(total, offers, BasketCounts.empty());
+  }
+}
@@ -0,0 +1,88 @@
+package com.product.service.checkoutkata.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Priced baskets by composition. The key is the order-independent {@link BasketCounts} plus what
+ * the price depends on: the newest {@link CatalogSnapshot.Entry#revision() revision} among the
+ * basket's SKUs and the latest start among their active {@link RuleTimeline} segments. A write to
+ * one SKU therefore only changes the keys of baskets containing it, and a rule starting or ending
+ * moves affected baskets to a new key on its own.
+ *
+ * <p>Entries under an old key can never be hit again, so nothing removes them eagerly: they stop
+ * being used and age out. The cache is bounded by an estimate of its heap footprint and uses
+ * Caffeine's W-TinyLFU policy, which only admits a new basket over a resident one if it has been
+ * seen more often. Hits, misses, evictions and size are published as {@code cache.*} meters tagged
+ * {@code cache=checkout.quotes}.
+ */
+@Component
+public class QuoteCache {
+  static final String NAME = "checkout.quotes";
+
+  // rough per-entry footprint: key with its count vector, result, and one line per offer
+  private static final int ENTRY_BYTES = 320;
+  private static final int OFFER_BYTES = 120;
+
+  record Key(BasketCounts counts, long revision, Instant since) {}
+
+  private final Cache<Key, PricingResult> cache;
+
+  public QuoteCache(
+      MeterRegistry registry,
+      @Value("${checkout.quote-cache.enabled:true}") boolean enabled,
+      @Value("${checkout.quote-cache.max-weight:16MB}") DataSize maxWeight) {
+    this.cache =
+        enabled
+            ? Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((Key k, PricingResult r) -> ENTRY_BYTES + OFFER_BYTES * r.offers().size())
+                .recordStats()
+                .build()
+            : null;
+    if (cache != null) CaffeineCacheMetrics.monitor(registry, cache, NAME);
+  }
+
+  /**
+   * The cached price of {@code counts}, or the one computed by {@code pricing} and cached. A {@link
+   * SyntheticCheckout} is priced directly and neither reads nor fills the cache.
+   *
+   * @param entries the basket's entries from the current snapshot, as resolved for pricing
+   * @param now the pricing instant
+   */
+  public PricingResult get(
+      BasketCounts counts,
+      CatalogSnapshot.Entry[] entries,
+      Instant now,
+      Supplier<PricingResult> pricing) {
+    if (cache == null || SyntheticCheckout.active()) return pricing.get();
+    long revision = 0L;
+    Instant since = Instant.MIN;
+    for (int i = 0; i < counts.size(); i++) {
+      revision = Math.max(revision, entries[i].revision());
+      Instant from = entries[i].activeAt(now).from();
+      if (from.isAfter(since)) since = from;
+    }
+    return cache.get(new Key(counts, revision, since), k -> frozen(pricing.get()));
+  }
+
+  long estimatedSize() {
+    return (cache == null) ? 0L : cache.estimatedSize();
+  }
+
+  // results are shared between requests, so the offer list must not be mutable
+  private static PricingResult frozen(PricingResult r) {
+    return new PricingResult(r.total(), List.copyOf(r.offers()), r.counts());
+  }
+}
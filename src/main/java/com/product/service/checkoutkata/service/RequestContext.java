@@ -0,0 +1,120 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.MDC;
+
+/**
+ * Per-request identity (request id, method, path) bound to the handling thread by {@link
+ * RequestIdFilter}. It is only copied into the MDC when a log line is actually emitted for the
+ * request (see {@link RequestContextTurboFilter}), so requests that log nothing never touch the
+ * MDC.
+ */
+public final class RequestContext {
+  static final String REQUEST_ID = "requestId";
+  static final String METHOD = "method";
+  static final String PATH = "path";
+
+  private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final String requestId;
+  private final String method;
+  private final String path;
+  private boolean inMdc;
+
+  private RequestContext(String requestId, String method, String path) {
+    this.requestId = requestId;
+    this.method = method;
+    this.path = path;
+  }
+
+  /** The context of the request being handled on this thread, or {@code null}. */
+  public static RequestContext current() {
+    return CURRENT.get();
+  }
+
+  /** Request id of the current request, or {@code null} outside a request. */
+  public static String currentRequestId() {
+    RequestContext c = CURRENT.get();
+    return (c != null) ? c.requestId : null;
+  }
+
+  static RequestContext open(String requestId, String method, String path) {
+    RequestContext c = new RequestContext(requestId, method, path);
+    CURRENT.set(c);
+    return c;
+  }
+
+  public String requestId() {
+    return requestId;
+  }
+
+  public String method() {
+    return method;
+  }
+
+  public String path() {
+    return path;
+  }
+
+  boolean isInMdc() {
+    return inMdc;
+  }
+
+  /** Copies this context into the MDC, once per request. */
+  void ensureInMdc() {
+    if (inMdc) return;
+    inMdc = true;
+    MDC.put(REQUEST_ID, requestId);
+    MDC.put(METHOD, method);
+    MDC.put(PATH, path);
+  }
+
+  /** Unbinds the context and removes whatever it put into the MDC. */
+  void close() {
+    CURRENT.remove();
+    if (inMdc) {
+      MDC.remove(REQUEST_ID);
+      MDC.remove(METHOD);
+      MDC.remove(PATH);
+    }
+  }
+
+  /**
+   * A new random 128-bit id as 32 lowercase hex characters, the W3C trace-id format. Uses {@link
+   * ThreadLocalRandom}, so unlike {@code UUID.randomUUID()} it never contends on a shared {@code
+   * SecureRandom}; request ids need to be unique, not unpredictable.
+   */
+  static String newId() {
+    ThreadLocalRandom r = ThreadLocalRandom.current();
+    long hi = r.nextLong();
+    long lo = r.nextLong();
+    if ((hi | lo) == 0) lo = 1; // all-zero is not a valid trace id
+    char[] c = new char[32];
+    for (int i = 15; i >= 0; i--) {
+      c[i] = HEX[(int) (hi & 0xF)];
+      c[i + 16] = HEX[(int) (lo & 0xF)];
+      hi >>>= 4;
+      lo >>>= 4;
+    }
+    return new String(c);
+  }
+
+  /**
+   * Trace id of a W3C {@code traceparent} header ({@code 00-<32 hex>-<16 hex>-<2 hex>}), or {@code
+   * null} if the header is missing or malformed.
+   */
+  static String traceIdFrom(String traceparent) {
+    if (traceparent == null || traceparent.length() < 55) return null;
+    if (traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-') return null;
+    if (traceparent.charAt(52) != '-') return null;
+    boolean nonZero = false;
+    for (int i = 3; i < 35; i++) {
+      char ch = traceparent.charAt(i);
+      if (!((ch >= '0' && ch <= '9') || (ch >= 'a' && ch <= 'f'))) return null;
+      nonZero |= ch != '0';
+    }
+    return nonZero ? traceparent.substring(3, 35) : null;
+  }
+}
@@ -0,0 +1,30 @@
+package com.product.service.checkoutkata.service;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Copies the current {@link RequestContext} into the MDC just before the first log line of a
+ * request that will actually be written. Registered in {@code logback-spring.xml}; it never changes
+ * whether an event is logged.
+ */
+public class RequestContextTurboFilter extends TurboFilter {
+
+  @Override
+  public FilterReply decide(
+      Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    RequestContext ctx = RequestContext.current();
+    // level check without Logger.isEnabledFor, which would re-enter the turbo filter chain
+    if (ctx != null
+        && !ctx.isInMdc()
+        && level != null
+        && level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+      ctx.ensureInMdc();
+    }
+    return FilterReply.NEUTRAL;
+  }
+}
@@ -1,35 +1,50 @@
 package com.product.service.checkoutkata.service;
 
 import java.io.IOException;
-import java.util.UUID;
 
-import org.slf4j.MDC;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 
+/**
+ * Binds a {@link RequestContext} to each request. The request id is, in order of preference: the
+ * caller's {@code X-Request-Id}, the trace id of an incoming W3C {@code traceparent}, the trace id
+ * of the current tracing span, or a freshly generated id (see {@link RequestContext#newId()}).
+ */
 @Component
 public class RequestIdFilter implements Filter {
-  private static final String REQ_ID = "requestId";
+  private final Tracer tracer;
+
+  public RequestIdFilter(@Nullable Tracer tracer) {
+    this.tracer = tracer;
+  }
 
   @Override
   public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
       throws IOException, ServletException {
     HttpServletRequest http = (HttpServletRequest) req;
-    String rid = headerOrGenerate(http, "X-Request-Id");
-    MDC.put(REQ_ID, rid);
-    MDC.put("method", http.getMethod());
-    MDC.put("path", http.getRequestURI());
+    RequestContext ctx =
+        RequestContext.open(requestId(http), http.getMethod(), http.getRequestURI());
     try {
       chain.doFilter(req, res);
     } finally {
-      MDC.clear();
+      ctx.close();
     }
   }
 
-  private String headerOrGenerate(HttpServletRequest http, String name) {
-    String v = http.getHeader(name);
-    return (v == null || v.isBlank()) ? UUID.randomUUID().toString() : v;
+  private String requestId(HttpServletRequest http) {
+    String v = http.getHeader("X-Request-Id");
+    if (v != null && !v.isBlank()) return v;
+    v = RequestContext.traceIdFrom(http.getHeader("traceparent"));
+    if (v != null) return v;
+    if (tracer != null) {
+      Span span = tracer.currentSpan();
+      if (span != null) return span.context().traceId();
+    }
+    return RequestContext.newId();
   }
 }
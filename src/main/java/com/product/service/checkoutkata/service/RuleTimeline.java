@@ -0,0 +1,124 @@
+package com.product.service.checkoutkata.service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+
+/**
+ * A SKU's rules laid out as a timeline of activation and expiry events. Every {@code startsAt} is
+ * an activation and every {@code endsAt} an expiry one nanosecond later (the end is inclusive).
+ * Between two consecutive events the active rule set cannot change, so each such segment is
+ * resolved, and its {@link PricingPlan} compiled, once when the snapshot is built. Finding the
+ * rules for an instant is then a binary search over the events; no rule's time range is evaluated
+ * per request, and the active set flips exactly at each boundary.
+ *
+ * <p>Segments that ended before the snapshot was compiled are not kept. An instant that early (e.g.
+ * a clock stepped back) gets its segment resolved on the spot, without a lookup table.
+ */
+public final class RuleTimeline {
+
+  /** Rules active throughout {@code [from, until)}, with their compiled plan. */
+  public record Segment(
+      Instant from,
+      Instant until,
+      List<PricingRule> rules,
+      List<FixedPointRule> fixedPointRules,
+      PricingPlan plan) {}
+
+  private final String sku;
+  private final long unitCents;
+  private final List<PricingRule> rules;
+  private final List<FixedPointRule> fixed;
+  private final Instant[] events;
+  private final int firstKept;
+  private final Segment[] segments;
+
+  private RuleTimeline(
+      String sku,
+      long unitCents,
+      List<PricingRule> rules,
+      OffsetDateTime compiledAt,
+      int planTableSize) {
+    this.sku = sku;
+    this.unitCents = unitCents;
+    this.rules = List.copyOf(rules);
+    this.fixed = new ArrayList<>(rules.size());
+    TreeSet<Instant> ev = new TreeSet<>();
+    for (PricingRule r : this.rules) {
+      fixed.add(FixedPointRule.of(r));
+      if (r.getStartsAt() != null) ev.add(r.getStartsAt().toInstant());
+      if (r.getEndsAt() != null) ev.add(expiry(r));
+    }
+    this.events = ev.toArray(new Instant[0]);
+
+    this.firstKept = segmentIndex(compiledAt.toInstant());
+    this.segments = new Segment[events.length + 1 - firstKept];
+    for (int k = firstKept; k <= events.length; k++) {
+      segments[k - firstKept] = resolve(k, planTableSize);
+    }
+  }
+
+  /** Lays out {@code rules} (in pricing order) and compiles the segments from compiledAt on. */
+  public static RuleTimeline compile(
+      String sku,
+      long unitCents,
+      List<PricingRule> rules,
+      OffsetDateTime compiledAt,
+      int planTableSize) {
+    return new RuleTimeline(sku, unitCents, rules, compiledAt, planTableSize);
+  }
+
+  /** The segment containing {@code at}. */
+  public Segment at(Instant at) {
+    if (events.length == 0) return segments[0];
+    int k = segmentIndex(at);
+    return (k >= firstKept) ? segments[k - firstKept] : resolve(k, 0);
+  }
+
+  /** Every rule on the timeline, active or not, in pricing order. */
+  public List<PricingRule> rules() {
+    return rules;
+  }
+
+  /** Instants at which the active rule set changes, ascending. */
+  public List<Instant> events() {
+    return List.of(events);
+  }
+
+  /** Index of the segment holding {@code at}: the number of events at or before it. */
+  private int segmentIndex(Instant at) {
+    int i = Arrays.binarySearch(events, at);
+    return (i >= 0) ? i + 1 : -i - 1;
+  }
+
+  private Segment resolve(int k, int tableSize) {
+    Instant from = (k == 0) ? Instant.MIN : events[k - 1];
+    Instant until = (k == events.length) ? Instant.MAX : events[k];
+    List<PricingRule> active = new ArrayList<>(rules.size());
+    List<FixedPointRule> activeFixed = new ArrayList<>(rules.size());
+    for (int i = 0; i < rules.size(); i++) {
+      PricingRule r = rules.get(i);
+      // nothing starts or ends inside a segment, so activity at its start holds throughout
+      boolean started = r.getStartsAt() == null || !r.getStartsAt().toInstant().isAfter(from);
+      boolean expired = r.getEndsAt() != null && !expiry(r).isAfter(from);
+      if (!started || expired) continue;
+      active.add(r);
+      if (fixed.get(i) != null) activeFixed.add(fixed.get(i));
+    }
+    return new Segment(
+        from,
+        until,
+        List.copyOf(active),
+        List.copyOf(activeFixed),
+        PricingPlan.compile(sku, unitCents, activeFixed, tableSize));
+  }
+
+  private static Instant expiry(PricingRule r) {
+    return r.getEndsAt().toInstant().plusNanos(1);
+  }
+}
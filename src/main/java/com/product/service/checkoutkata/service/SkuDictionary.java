@@ -0,0 +1,147 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Process-wide, append-only encoding of SKUs as dense {@code int} ids. Catalog loads {@link
+ * #internAll intern} every SKU they see; baskets are then parsed into {@link BasketCounts} of ids,
+ * and snapshots keep their entries in an array indexed by id, so the pricing path never hashes a
+ * {@code String}.
+ *
+ * <p>Ids are never reassigned or reused, so counts parsed against one catalog version still mean
+ * the same SKUs in the next, and cached quotes keyed by counts stay valid. Parsing only looks SKUs
+ * up; only catalog data is interned, so request input cannot grow the dictionary. Lookups read an
+ * immutable {@link Table} without locking; interning replaces it.
+ */
+public final class SkuDictionary {
+  private static final SkuDictionary GLOBAL = new SkuDictionary();
+
+  private volatile Table table = Table.of(new String[0], 0);
+
+  SkuDictionary() {}
+
+  public static SkuDictionary global() {
+    return GLOBAL;
+  }
+
+  /** The current read view; ids it knows stay valid in every later one. */
+  public Table table() {
+    return table;
+  }
+
+  /**
+   * Assigns ids to the SKUs not encoded yet, in iteration order. Costs one table rebuild however
+   * many SKUs are new, and nothing when none are.
+   */
+  public synchronized void internAll(Collection<String> skus) {
+    Table t = table;
+    Set<String> added = new LinkedHashSet<>();
+    for (String sku : skus) {
+      if (t.idOf(sku) < 0) added.add(sku);
+    }
+    if (added.isEmpty()) return;
+    String[] names = Arrays.copyOf(t.names, t.size + added.size());
+    int size = t.size;
+    for (String sku : added) names[size++] = sku;
+    table = Table.of(names, size);
+  }
+
+  public int size() {
+    return table.size;
+  }
+
+  /**
+   * Immutable view of the dictionary: an open-addressing table from SKU to id, looked up
+   * case-insensitively straight from a region of the input, plus a direct table for single-letter
+   * SKUs.
+   */
+  public static final class Table {
+    private final String[] names;
+    private final int size;
+    private final String[] slots;
+    private final int[] slotIds;
+    private final int mask;
+    private final int[] letters = new int[26];
+
+    private Table(String[] names, int size) {
+      this.names = names;
+      this.size = size;
+      int capacity = Integer.highestOneBit(Math.max(4, size * 2 - 1)) << 1;
+      this.slots = new String[capacity];
+      this.slotIds = new int[capacity];
+      this.mask = capacity - 1;
+      Arrays.fill(letters, -1);
+      for (int id = 0; id < size; id++) {
+        String sku = names[id];
+        int slot = hash(sku, 0, sku.length()) & mask;
+        while (slots[slot] != null) slot = (slot + 1) & mask;
+        slots[slot] = sku;
+        slotIds[slot] = id;
+        if (sku.length() == 1 && isLetter(sku.charAt(0)))
+          letters[(sku.charAt(0) | 0x20) - 'a'] = id;
+      }
+    }
+
+    private static Table of(String[] names, int size) {
+      return new Table(names, size);
+    }
+
+    public int size() {
+      return size;
+    }
+
+    /** The SKU with this id; ids come from this table or an earlier one. */
+    public String nameOf(int id) {
+      return names[id];
+    }
+
+    public int idOf(String sku) {
+      return idOf(sku, 0, sku.length());
+    }
+
+    /**
+     * Id of the SKU spelled by {@code s[from, to)}, matched ASCII case-insensitively, or -1 if it
+     * is not encoded.
+     */
+    public int idOf(CharSequence s, int from, int to) {
+      int len = to - from;
+      if (len == 1 && isLetter(s.charAt(from))) return idOfLetter(s.charAt(from));
+      for (int slot = hash(s, from, to) & mask; ; slot = (slot + 1) & mask) {
+        String sku = slots[slot];
+        if (sku == null) return -1;
+        if (sku.length() == len && regionMatches(sku, s, from)) return slotIds[slot];
+      }
+    }
+
+    /** Id of a single-letter SKU, or -1 for any other character or an unknown letter. */
+    public int idOfLetter(char c) {
+      int idx = (c | 0x20) - 'a';
+      return (idx >= 0 && idx < 26) ? letters[idx] : -1;
+    }
+
+    private static boolean isLetter(char c) {
+      int idx = (c | 0x20) - 'a';
+      return idx >= 0 && idx < 26;
+    }
+
+    private static boolean regionMatches(String sku, CharSequence s, int from) {
+      for (int i = 0; i < sku.length(); i++) {
+        if (upper(sku.charAt(i)) != upper(s.charAt(from + i))) return false;
+      }
+      return true;
+    }
+
+    private static char upper(char c) {
+      return (c >= 'a' && c <= 'z') ? (char) (c - 0x20) : c;
+    }
+
+    private static int hash(CharSequence s, int from, int to) {
+      int h = 0;
+      for (int i = from; i < to; i++) h = 31 * h + upper(s.charAt(i));
+      return h ^ (h >>> 16);
+    }
+  }
+}
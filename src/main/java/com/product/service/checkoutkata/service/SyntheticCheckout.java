@@ -0,0 +1,30 @@
+package com.product.service.checkoutkata.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Flag for checkouts that are not customer traffic, bound to the pricing thread. While it is set,
+ * baskets still go through {@link CheckoutService} as usual, but {@link CheckoutMetrics}, {@link
+ * PricingAuditLog} and {@link QuoteCache} leave them out. {@link CheckoutWarmup} uses it so a fresh
+ * instance warms the real request path without reporting fake load.
+ */
+final class SyntheticCheckout {
+  private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+  private SyntheticCheckout() {}
+
+  /** Whether the checkout running on this thread is synthetic. */
+  static boolean active() {
+    return ACTIVE.get() != null;
+  }
+
+  /** Runs {@code body} on this thread with the flag set. */
+  static <T> T call(Supplier<T> body) {
+    ACTIVE.set(Boolean.TRUE);
+    try {
+      return body.get();
+    } finally {
+      ACTIVE.remove();
+    }
+  }
+}
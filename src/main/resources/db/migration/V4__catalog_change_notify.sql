@@ -0,0 +1,16 @@
+CREATE OR REPLACE FUNCTION notify_catalog_change() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify(
+        'catalog_changed',
+        TG_TABLE_NAME || ':' || CASE TG_OP WHEN 'DELETE' THEN OLD.sku ELSE NEW.sku END);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_products_catalog_changed
+    AFTER INSERT OR UPDATE OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION notify_catalog_change();
+
+CREATE TRIGGER trg_pricing_rules_catalog_changed
+    AFTER INSERT OR UPDATE OR DELETE ON pricing_rules
+    FOR EACH ROW EXECUTE FUNCTION notify_catalog_change();
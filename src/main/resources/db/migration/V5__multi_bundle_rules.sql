@@ -0,0 +1,6 @@
+-- Allow several bundle sizes per SKU (e.g. "3 for 130" and "5 for 200"); the pricing engine
+-- picks the cheapest combination. One rule per SKU, type and bundle size.
+ALTER TABLE pricing_rules DROP CONSTRAINT uk_rule_sku_type;
+
+ALTER TABLE pricing_rules
+    ADD CONSTRAINT uk_rule_sku_type_qty UNIQUE (sku, rule_type, x_qty);
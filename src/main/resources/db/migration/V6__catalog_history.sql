@@ -0,0 +1,82 @@
+-- Transaction-time history of the catalog: every version of a product's price and of each pricing
+-- rule, with the interval [valid_from, valid_to) during which it was the current row. Kept by
+-- triggers, so writes through any path are recorded. valid_from NULL means "since before history
+-- was kept", valid_to NULL means "still current".
+CREATE TABLE product_price_history (
+    id         BIGSERIAL PRIMARY KEY,
+    sku        VARCHAR(1) NOT NULL,
+    unit_price NUMERIC(12,2) NOT NULL,
+    valid_from timestamptz NULL,
+    valid_to   timestamptz NULL
+);
+
+CREATE UNIQUE INDEX uk_product_price_history_current
+    ON product_price_history (sku) WHERE valid_to IS NULL;
+
+CREATE TABLE pricing_rule_history (
+    id         BIGSERIAL PRIMARY KEY,
+    rule_id    BIGINT NOT NULL,
+    sku        VARCHAR(1) NOT NULL,
+    rule_type  VARCHAR(32) NOT NULL,
+    x_qty      INT,
+    y_price    NUMERIC(12,2),
+    starts_at  timestamptz NULL,
+    ends_at    timestamptz NULL,
+    valid_from timestamptz NULL,
+    valid_to   timestamptz NULL
+);
+
+CREATE UNIQUE INDEX uk_pricing_rule_history_current
+    ON pricing_rule_history (rule_id) WHERE valid_to IS NULL;
+
+INSERT INTO product_price_history (sku, unit_price)
+SELECT sku, unit_price FROM products;
+
+INSERT INTO pricing_rule_history (rule_id, sku, rule_type, x_qty, y_price, starts_at, ends_at)
+SELECT id, sku, rule_type, x_qty, y_price, starts_at, ends_at FROM pricing_rules;
+
+-- now() is the transaction start, so every row a transaction writes shares one version boundary
+CREATE OR REPLACE FUNCTION record_product_history() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD.sku = NEW.sku AND OLD.unit_price = NEW.unit_price THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE product_price_history SET valid_to = now()
+         WHERE sku = OLD.sku AND valid_to IS NULL;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO product_price_history (sku, unit_price, valid_from)
+        VALUES (NEW.sku, NEW.unit_price, now());
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION record_pricing_rule_history() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW IS NOT DISTINCT FROM OLD THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE pricing_rule_history SET valid_to = now()
+         WHERE rule_id = OLD.id AND valid_to IS NULL;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO pricing_rule_history
+            (rule_id, sku, rule_type, x_qty, y_price, starts_at, ends_at, valid_from)
+        VALUES
+            (NEW.id, NEW.sku, NEW.rule_type, NEW.x_qty, NEW.y_price, NEW.starts_at, NEW.ends_at,
+             now());
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_products_history
+    AFTER INSERT OR UPDATE OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION record_product_history();
+
+CREATE TRIGGER trg_pricing_rules_history
+    AFTER INSERT OR UPDATE OR DELETE ON pricing_rules
+    FOR EACH ROW EXECUTE FUNCTION record_pricing_rule_history();
@@ -0,0 +1,11 @@
+-- SKUs are no longer limited to one letter: up to 32 upper-case letters, digits, '_' or '-',
+-- starting with a letter. The service encodes them as dense integer ids when the catalog loads.
+ALTER TABLE products ALTER COLUMN sku TYPE VARCHAR(32);
+ALTER TABLE pricing_rules ALTER COLUMN sku TYPE VARCHAR(32);
+ALTER TABLE product_price_history ALTER COLUMN sku TYPE VARCHAR(32);
+ALTER TABLE pricing_rule_history ALTER COLUMN sku TYPE VARCHAR(32);
+
+ALTER TABLE products
+    ADD CONSTRAINT ck_products_sku CHECK (sku ~ '^[A-Z][A-Z0-9_-]{0,31}$');
+ALTER TABLE pricing_rules
+    ADD CONSTRAINT ck_pricing_rules_sku CHECK (sku ~ '^[A-Z][A-Z0-9_-]{0,31}$');
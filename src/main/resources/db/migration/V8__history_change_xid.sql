@@ -0,0 +1,27 @@
+-- Lets the history index be refreshed from the rows changed since it was read, instead of both
+-- tables in full. Every insert into or update of a history row (closing a version updates it in
+-- place) records the id of the writing transaction. Ids are taken when a transaction first writes,
+-- not when it commits, so a reader notes the oldest transaction still running before it reads
+-- (pg_snapshot_xmin): every change by an older transaction is then visible, and the next read asks
+-- for changed_xid >= that horizon. Rows written before this migration keep NULL; the first full
+-- read covers them, and they get an id once they are closed.
+ALTER TABLE product_price_history ADD COLUMN changed_xid BIGINT;
+ALTER TABLE pricing_rule_history ADD COLUMN changed_xid BIGINT;
+
+CREATE INDEX idx_product_price_history_changed_xid ON product_price_history (changed_xid);
+CREATE INDEX idx_pricing_rule_history_changed_xid ON pricing_rule_history (changed_xid);
+
+CREATE OR REPLACE FUNCTION stamp_history_change() RETURNS trigger AS $$
+BEGIN
+    NEW.changed_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_product_price_history_changed
+    BEFORE INSERT OR UPDATE ON product_price_history
+    FOR EACH ROW EXECUTE FUNCTION stamp_history_change();
+
+CREATE TRIGGER trg_pricing_rule_history_changed
+    BEFORE INSERT OR UPDATE ON pricing_rule_history
+    FOR EACH ROW EXECUTE FUNCTION stamp_history_change();
@@ -0,0 +1,62 @@
+package com.product.service.checkoutkata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.product.service.checkoutkata.service.CatalogSnapshotHolder;
+
+@SpringBootTest
+@Tag("integration")
+@DisplayName("Catalog LISTEN/NOTIFY — integration")
+class CatalogChangeListenerIntegrationTest {
+  @Autowired JdbcTemplate jdbc;
+  @Autowired CatalogSnapshotHolder catalog;
+
+  @AfterEach
+  void restoreSeedData() {
+    jdbc.update("UPDATE products SET unit_price = 15.00 WHERE sku = 'D'");
+    jdbc.update("DELETE FROM products WHERE sku = 'N'");
+  }
+
+  @Test
+  @DisplayName("should reload the snapshot when another node updates a product")
+  void reloadsOnExternalUpdate() throws Exception {
+    assertThat(catalog.current().find("D").orElseThrow().unitPrice()).isEqualByComparingTo("15.00");
+
+    // plain SQL bypasses CatalogService, as a write from another replica would
+    jdbc.update("UPDATE products SET unit_price = 17.00 WHERE sku = 'D'");
+
+    awaitTrue(
+        () ->
+            catalog.current().find("D").orElseThrow().unitPrice().compareTo(new BigDecimal("17.00"))
+                == 0);
+  }
+
+  @Test
+  @DisplayName("should reload the snapshot when another node inserts a product")
+  void reloadsOnExternalInsert() throws Exception {
+    assertThat(catalog.current().find("N")).isEmpty();
+
+    jdbc.update("INSERT INTO products (sku, unit_price) VALUES ('N', 9.99)");
+
+    awaitTrue(() -> catalog.current().find("N").isPresent());
+  }
+
+  private static void awaitTrue(Supplier<Boolean> condition) throws InterruptedException {
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (!condition.get()) {
+      assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+      Thread.sleep(20);
+    }
+  }
+}
@@ -1,9 +1,12 @@
 package com.product.service.checkoutkata;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.OffsetDateTime;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
@@ -14,10 +17,13 @@ import org.junit.jupiter.params.provider.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.product.service.checkoutkata.service.CatalogSnapshotHolder;
+
 @SpringBootTest
 @AutoConfigureMockMvc
 @Tag("integration")
@@ -28,6 +34,7 @@ class CheckoutIntegrationTest {
 
   @Autowired MockMvc mvc;
   @Autowired JdbcTemplate jdbc;
+  @Autowired CatalogSnapshotHolder catalog;
 
   private static String body(String items) throws Exception {
     return OBJECT_MAPPER.writeValueAsString(java.util.Map.of("items", items));
@@ -47,7 +54,7 @@ class CheckoutIntegrationTest {
     return Stream.of(
         "", // empty
         " ", // blank
-        "A1" // non-letters (violates @Pattern)
+        "A;1" // not SKUs separated by commas or spaces (violates @Pattern)
         );
   }
 
@@ -81,6 +88,85 @@ class CheckoutIntegrationTest {
         .andExpect(jsonPath("$.offers[0].bundlePrice").value(130.00));
   }
 
+  @Test
+  @DisplayName("asOf prices against the rule as it read before it was edited")
+  void shouldPriceAsOfBeforeARuleEdit() throws Exception {
+    OffsetDateTime before = jdbc.queryForObject("SELECT now()", OffsetDateTime.class);
+    jdbc.update("UPDATE pricing_rules SET y_price = 125.00 WHERE sku = 'A' AND x_qty = 3");
+    try {
+      catalog.refresh();
+      mvc.perform(
+              post("/api/v1/checkout/price")
+                  .param("asOf", before.toString())
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body("AAA")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.total").value(130.00));
+      mvc.perform(
+              post("/api/v1/checkout/price")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body("AAA")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.total").value(125.00));
+    } finally {
+      jdbc.update("UPDATE pricing_rules SET y_price = 130.00 WHERE sku = 'A' AND x_qty = 3");
+      catalog.refresh();
+    }
+  }
+
+  @Test
+  @DisplayName("admin listings page by key, answer 304 for an unchanged catalog and export rows")
+  void shouldPageAndExportTheCatalog() throws Exception {
+    String etag =
+        mvc.perform(get("/api/v1/admin/products").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].sku").value("A"))
+            .andExpect(jsonPath("$[1].sku").value("B"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=B")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    mvc.perform(get("/api/v1/admin/products").param("after", "B").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].sku").value("C"));
+    mvc.perform(get("/api/v1/admin/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+    mvc.perform(get("/api/v1/admin/rules/export"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("\"sku\":\"A\"")));
+  }
+
+  @Test
+  @DisplayName("bulk import is all-or-nothing and reports bad rows by line")
+  void shouldImportProductsInOneTransaction() throws Exception {
+    try {
+      mvc.perform(
+              post("/api/v1/admin/products/import")
+                  .contentType("text/csv")
+                  .content("sku,unitPrice\nY,7.00\nyy,1.00\n"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.written").value(0))
+          .andExpect(jsonPath("$.errors[0].line").value(3));
+      mvc.perform(get("/api/v1/admin/products").param("after", "X").param("limit", "5"))
+          .andExpect(jsonPath("$[?(@.sku == 'Y')]").isEmpty());
+
+      mvc.perform(
+              post("/api/v1/admin/products/import")
+                  .contentType(MediaType.APPLICATION_NDJSON)
+                  .content(
+                      "{\"sku\":\"Y\",\"unitPrice\":7.00}\n{\"sku\":\"Y\",\"unitPrice\":8.00}\n"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.rows").value(2))
+          .andExpect(jsonPath("$.written").value(2));
+      mvc.perform(get("/api/v1/admin/products").param("after", "X").param("limit", "5"))
+          .andExpect(jsonPath("$[0].sku").value("Y"))
+          .andExpect(jsonPath("$[0].unitPrice").value(8.00));
+    } finally {
+      jdbc.update("DELETE FROM products WHERE sku = 'Y'");
+      catalog.refresh();
+    }
+  }
+
   static Stream<org.junit.jupiter.params.provider.Arguments> validCases() {
     return Stream.of(
         Arguments.of("A", 50.00),
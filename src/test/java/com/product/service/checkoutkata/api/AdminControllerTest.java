@@ -7,11 +7,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -20,6 +23,7 @@ import org.junit.jupiter.params.provider.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -27,14 +31,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.product.service.checkoutkata.domain.PricingRule;
 import com.product.service.checkoutkata.domain.Product;
 import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.dto.ImportReport;
+import com.product.service.checkoutkata.dto.ImportReport.ImportError;
 import com.product.service.checkoutkata.dto.PricingRuleDto;
 import com.product.service.checkoutkata.dto.ProductDto;
+import com.product.service.checkoutkata.service.CatalogImportService;
+import com.product.service.checkoutkata.service.CatalogImportService.Format;
 import com.product.service.checkoutkata.service.CatalogService;
 
 @WebMvcTest(controllers = AdminController.class)
 class AdminControllerTest {
   @Autowired MockMvc mvc;
   @MockBean CatalogService catalog;
+  @MockBean CatalogImportService imports;
   @Autowired ObjectMapper om;
 
   private static final String BASE = "/api/v1/admin";
@@ -61,6 +70,7 @@ class AdminControllerTest {
           .andExpect(jsonPath("$[1].sku").value("B"));
 
       verify(catalog, times(1)).allProducts();
+      verify(catalog).catalogTag();
       verifyNoMoreInteractions(catalog);
     }
   }
@@ -91,10 +101,89 @@ class AdminControllerTest {
           .andExpect(jsonPath("$[0].yPrice").value(130.00));
 
       verify(catalog, times(1)).allRules();
+      verify(catalog).catalogTag();
       verifyNoMoreInteractions(catalog);
     }
   }
 
+  @Nested
+  @DisplayName("Paging, conditional GET and export")
+  class PagingAndConditionalGet {
+    @Test
+    @DisplayName("If-None-Match with the current catalog tag -> 304 without reading the catalog")
+    void notModified() throws Exception {
+      when(catalog.catalogTag()).thenReturn("abc123");
+
+      mvc.perform(get(BASE + "/products").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+          .andExpect(status().isNotModified())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+          .andExpect(content().string(""));
+      mvc.perform(get(BASE + "/rules?limit=5").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+          .andExpect(status().isNotModified());
+
+      verify(catalog, times(2)).catalogTag();
+      verifyNoMoreInteractions(catalog);
+    }
+
+    @Test
+    @DisplayName("A full page links to the next one after its last key, with the ETag")
+    void productPages() throws Exception {
+      when(catalog.catalogTag()).thenReturn("abc123");
+      when(catalog.products("A", 2))
+          .thenReturn(
+              List.of(
+                  new Product("B", new BigDecimal("30.00")),
+                  new Product("C", new BigDecimal("20.00"))));
+      when(catalog.products("C", 2)).thenReturn(List.of(new Product("D", BigDecimal.TEN)));
+
+      mvc.perform(get(BASE + "/products?after=A&limit=2"))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+          .andExpect(header().string(HttpHeaders.LINK, containsString("after=C&limit=2>")))
+          .andExpect(header().string(HttpHeaders.LINK, Matchers.endsWith("; rel=\"next\"")))
+          .andExpect(jsonPath("$[*].sku", Matchers.contains("B", "C")));
+      mvc.perform(get(BASE + "/products?after=C&limit=2"))
+          .andExpect(status().isOk())
+          .andExpect(header().doesNotExist(HttpHeaders.LINK))
+          .andExpect(jsonPath("$[*].sku", Matchers.contains("D")));
+    }
+
+    @Test
+    @DisplayName("limit is capped at the maximum page size and must be positive")
+    void ruleLimits() throws Exception {
+      when(catalog.rules(null, 1000)).thenReturn(List.of());
+
+      mvc.perform(get(BASE + "/rules?limit=5000")).andExpect(status().isOk());
+      mvc.perform(get(BASE + "/rules?limit=0")).andExpect(status().isBadRequest());
+
+      verify(catalog).rules(null, 1000);
+    }
+
+    @Test
+    @DisplayName("Export streams one JSON line per row")
+    @SuppressWarnings("unchecked")
+    void exportsNdjson() throws Exception {
+      doAnswer(
+              inv -> {
+                var sink = (Consumer<Product>) inv.getArgument(0);
+                sink.accept(new Product("A", new BigDecimal("50.00")));
+                sink.accept(new Product("B", new BigDecimal("30.00")));
+                return null;
+              })
+          .when(catalog)
+          .exportProducts(any());
+
+      mvc.perform(get(BASE + "/products/export"))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+          .andExpect(
+              content()
+                  .string(
+                      "{\"id\":null,\"sku\":\"A\",\"unitPrice\":50.00}\n"
+                          + "{\"id\":null,\"sku\":\"B\",\"unitPrice\":30.00}\n"));
+    }
+  }
+
   @Nested
   @DisplayName("POST /products")
   class UpsertProduct {
@@ -212,4 +301,85 @@ class AdminControllerTest {
       verifyNoInteractions(catalog);
     }
   }
+
+  @Nested
+  @DisplayName("Bulk writes")
+  class BulkWrites {
+    @Test
+    @DisplayName("CSV and NDJSON uploads pick the matching format and return the report")
+    void importsByContentType() throws Exception {
+      when(imports.importProducts(any(Reader.class), eq(Format.CSV)))
+          .thenReturn(new ImportReport(2, 2, List.of()));
+      when(imports.importRules(any(Reader.class), eq(Format.NDJSON)))
+          .thenReturn(new ImportReport(1, 1, List.of()));
+
+      mvc.perform(
+              post(BASE + "/products/import")
+                  .contentType("text/csv")
+                  .content("sku,unitPrice\nA,50.00\nB,30.00\n"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.rows").value(2))
+          .andExpect(jsonPath("$.written").value(2))
+          .andExpect(jsonPath("$.errors", hasSize(0)));
+      mvc.perform(
+              post(BASE + "/rules/import")
+                  .contentType(MediaType.APPLICATION_NDJSON)
+                  .content(
+                      "{\"sku\":\"A\",\"ruleType\":\"BULK_X_FOR_Y\",\"xQty\":3,\"yPrice\":130}\n"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.written").value(1));
+    }
+
+    @Test
+    @DisplayName("A rejected import answers 400 with the per-row errors")
+    void rejectedImport() throws Exception {
+      when(imports.importProducts(any(Reader.class), eq(Format.CSV)))
+          .thenReturn(new ImportReport(2, 0, List.of(new ImportError(3, "sku: bad"))));
+
+      mvc.perform(
+              post(BASE + "/products/import")
+                  .contentType("text/csv")
+                  .content("sku,unitPrice\nA,50.00\naa,1\n"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.written").value(0))
+          .andExpect(jsonPath("$.errors[0].line").value(3))
+          .andExpect(jsonPath("$.errors[0].error").value("sku: bad"));
+    }
+
+    @Test
+    @DisplayName("Other content types are not accepted")
+    void unsupportedContentType() throws Exception {
+      mvc.perform(post(BASE + "/products/import").contentType(MediaType.TEXT_PLAIN).content("A,1"))
+          .andExpect(status().isUnsupportedMediaType());
+
+      verifyNoInteractions(imports);
+    }
+
+    @Test
+    @DisplayName("Adjusting prices returns the number of products changed")
+    void adjustPrices() throws Exception {
+      when(imports.adjustPrices(any(BigDecimal.class))).thenReturn(4);
+
+      mvc.perform(
+              post(BASE + "/products/adjust-prices")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"percent\":-10}"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.updated").value(4));
+
+      verify(imports).adjustPrices(argThat(p -> p.compareTo(new BigDecimal("-10")) == 0));
+    }
+
+    @ParameterizedTest(name = "[{index}] percent={0} -> 400")
+    @ValueSource(strings = {"null", "-100.01", "1000.5"})
+    void adjustPricesValidation(String percent) throws Exception {
+      mvc.perform(
+              post(BASE + "/products/adjust-prices")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"percent\":" + percent + "}"))
+          .andExpect(status().isBadRequest());
+
+      verifyNoInteractions(imports);
+    }
+  }
 }
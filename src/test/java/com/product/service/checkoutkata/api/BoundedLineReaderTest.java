@@ -0,0 +1,39 @@
+package com.product.service.checkoutkata.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BoundedLineReaderTest {
+
+  /** Each line, or "!" for one that was too long. */
+  private static List<String> lines(String input, int maxLength) throws IOException {
+    var in = new BoundedLineReader(new StringReader(input), maxLength);
+    List<String> lines = new ArrayList<>();
+    String line;
+    while ((line = in.readLine()) != null) lines.add(in.tooLong() ? "!" : line);
+    return lines;
+  }
+
+  @Test
+  @DisplayName("Splits on \\n, drops a trailing \\r and keeps an unterminated last line")
+  void splitsLines() throws IOException {
+    assertThat(lines("ab\r\n\ncd\nef", 4)).containsExactly("ab", "", "cd", "ef");
+    assertThat(lines("", 4)).isEmpty();
+    assertThat(lines("ab\n", 4)).containsExactly("ab");
+  }
+
+  @Test
+  @DisplayName("A line over the limit is skipped and flagged; the next one reads normally")
+  void flagsLongLines() throws IOException {
+    assertThat(lines("abcd\nabcde\r\nab\n" + "x".repeat(20_000) + "\nok", 4))
+        .containsExactly("abcd", "!", "ab", "!", "ok");
+    assertThat(lines("abcd\r\n", 4)).containsExactly("abcd");
+  }
+}
@@ -1,10 +1,13 @@
 package com.product.service.checkoutkata.api;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -15,21 +18,35 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.product.service.checkoutkata.service.BasketCounts;
+import com.product.service.checkoutkata.service.BasketOutcome;
+import com.product.service.checkoutkata.service.BatchCheckoutService;
+import com.product.service.checkoutkata.service.CheckoutMetrics;
 import com.product.service.checkoutkata.service.CheckoutService;
+import com.product.service.checkoutkata.service.PointInTimePricingService;
 import com.product.service.checkoutkata.service.PricingResult;
 
-@WebMvcTest(controllers = CheckoutController.class)
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@WebMvcTest(
+    controllers = CheckoutController.class,
+    properties = "checkout.stream.max-line-length=64")
+@Import({CheckoutMetrics.class, SimpleMeterRegistry.class})
 public class CheckoutControllerTest {
   @Autowired MockMvc mvc;
   @Autowired ObjectMapper om;
   @MockBean CheckoutService checkoutService;
+  @MockBean BatchCheckoutService batchService;
+  @MockBean PointInTimePricingService pointInTime;
 
   private static String body(String items) throws Exception {
     return new ObjectMapper().writeValueAsString(Map.of("items", items));
@@ -43,9 +60,9 @@ public class CheckoutControllerTest {
     void shouldComputeTotalsAndCounts(
         String items, BigDecimal stubTotal, Map<String, Integer> expectedCounts) throws Exception {
 
-      // stub service to return total + empty offers
+      // stub service to return total + parsed counts + empty offers
       when(checkoutService.priceOfWithDetails(items))
-          .thenReturn(new PricingResult(stubTotal, List.of()));
+          .thenReturn(new PricingResult(stubTotal, List.of(), BasketCounts.parse(items)));
 
       mvc.perform(
               post("/api/v1/checkout/price")
@@ -73,14 +90,14 @@ public class CheckoutControllerTest {
   }
 
   @Test
-  @DisplayName("should be case-insensitive and ignore non-letters in counts")
+  @DisplayName("should render itemCounts from the counts carried by the pricing result")
   void shouldHandleCaseAndNonLetters() throws Exception {
     String items = "abA";
     BigDecimal stubTotal = new BigDecimal("95.00");
 
-    // stub service: total + no offers
+    // stub service: total + parsed counts + no offers
     when(checkoutService.priceOfWithDetails(items))
-        .thenReturn(new PricingResult(stubTotal, List.of()));
+        .thenReturn(new PricingResult(stubTotal, List.of(), BasketCounts.parse(items)));
 
     mvc.perform(
             post("/api/v1/checkout/price")
@@ -91,7 +108,8 @@ public class CheckoutControllerTest {
         .andExpect(jsonPath("$.itemCounts.A").value(2))
         .andExpect(jsonPath("$.itemCounts.B").value(1))
         .andExpect(jsonPath("$.itemCounts").isMap())
-        .andExpect(jsonPath("$.offers").isArray()); // should be present (possibly empty)
+        .andExpect(jsonPath("$.offers").isArray()) // should be present (possibly empty)
+        .andExpect(header().string("Server-Timing", containsString("serialize;dur=")));
 
     verify(checkoutService).priceOfWithDetails(items);
     verifyNoMoreInteractions(checkoutService);
@@ -112,6 +130,19 @@ public class CheckoutControllerTest {
       verifyNoInteractions(checkoutService);
     }
 
+    @Test
+    @DisplayName("items over the length cap -> 400 naming the cap")
+    void itemsTooLong() throws Exception {
+      mvc.perform(
+              post("/api/v1/checkout/price")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body("A".repeat(1_000_001))))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.error").value("items must be at most 1000000 characters"));
+
+      verifyNoInteractions(checkoutService);
+    }
+
     @Test
     @DisplayName("missing body -> 400")
     void missingBody() throws Exception {
@@ -123,6 +154,231 @@ public class CheckoutControllerTest {
   }
 
   static Stream<String> invalidBodies() {
-    return Stream.of("{}", "{\"items\":\"\"}", "{\"items\":\"A1\"}");
+    return Stream.of(
+        "{}",
+        "{\"items\":\"\"}",
+        "{\"items\":\" \"}",
+        "{\"items\":\", ,\"}",
+        "{\"runs\":\" \"}",
+        "{\"items\":\"A;B\"}",
+        "{\"items\":\"A\",\"runs\":\"A1\"}",
+        "{\"counts\":{}}",
+        "{\"runs\":\"1A\"}",
+        "{\"runs\":\"A-1\"}");
+  }
+
+  @Nested
+  @DisplayName("POST /api/v1/checkout/price — counts and run-length shapes")
+  class CompactShapes {
+    @ParameterizedTest(name = "[{index}] {0}")
+    @ValueSource(
+        strings = {
+          "{\"counts\":{\"a\":500000,\"B\":3}}",
+          "{\"runs\":\"A500000b3\"}",
+          "{\"runs\":\"A*500000, b*3\"}"
+        })
+    void pricesCountsWithoutExpanding(String rawJson) throws Exception {
+      BasketCounts expected = BasketCounts.ofCounts(Map.of("A", 500_000, "B", 3));
+      when(checkoutService.priceOfWithDetails(expected))
+          .thenReturn(new PricingResult(new BigDecimal("20000090.00"), List.of(), expected));
+
+      mvc.perform(
+              post("/api/v1/checkout/price")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(rawJson))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.itemCounts.A").value(500_000))
+          .andExpect(jsonPath("$.itemCounts.B").value(3));
+
+      verify(checkoutService).priceOfWithDetails(expected);
+      verifyNoMoreInteractions(checkoutService);
+    }
+
+    @Test
+    @DisplayName("invalid count keys -> 400 with the reason")
+    void invalidCountKey() throws Exception {
+      mvc.perform(
+              post("/api/v1/checkout/price")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"counts\":{\"1A\":2}}"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.error").value("Invalid SKU in counts: 1A"));
+
+      verifyNoInteractions(checkoutService);
+    }
+  }
+
+  @Nested
+  @DisplayName("POST /api/v1/checkout/price?asOf=...")
+  class PointInTime {
+    @Test
+    @DisplayName("prices against the catalog at the given instant")
+    void delegatesWithInstant() throws Exception {
+      BasketCounts expected = BasketCounts.parse("AAB");
+      Instant asOf = Instant.parse("2025-03-01T10:00:00Z");
+      when(pointInTime.priceAsOf(expected, asOf))
+          .thenReturn(new PricingResult(new BigDecimal("130.00"), List.of(), expected));
+
+      mvc.perform(
+              post("/api/v1/checkout/price")
+                  .param("asOf", "2025-03-01T11:00:00+01:00")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body("aab")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.total").value(130.00))
+          .andExpect(jsonPath("$.itemCounts.A").value(2));
+
+      verify(pointInTime).priceAsOf(expected, asOf);
+      verifyNoInteractions(checkoutService);
+    }
+
+    @Test
+    @DisplayName("unparseable asOf -> 400")
+    void invalidInstant() throws Exception {
+      mvc.perform(
+              post("/api/v1/checkout/price")
+                  .param("asOf", "yesterday")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body("A")))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.error").value("Invalid value for asOf"));
+
+      verifyNoInteractions(pointInTime, checkoutService);
+    }
+  }
+
+  @Nested
+  @DisplayName("POST /api/v1/checkout/price/batch")
+  class Batch {
+    @Test
+    @DisplayName("returns results in request order with per-basket errors")
+    void perBasketResults() throws Exception {
+      when(batchService.priceAll(List.of("AAAB", "Z", "B")))
+          .thenReturn(
+              List.of(
+                  BasketOutcome.ok(
+                      new PricingResult(
+                          new BigDecimal("160.00"), List.of(), BasketCounts.parse("AAAB"))),
+                  BasketOutcome.failed("Unknown SKU: Z"),
+                  BasketOutcome.ok(
+                      new PricingResult(
+                          new BigDecimal("30.00"), List.of(), BasketCounts.parse("B")))));
+
+      mvc.perform(
+              post("/api/v1/checkout/price/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"baskets\":[\"AAAB\",\"Z\",\"B\"]}"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.priced").value(2))
+          .andExpect(jsonPath("$.failed").value(1))
+          .andExpect(jsonPath("$.results[0].index").value(0))
+          .andExpect(jsonPath("$.results[0].total").value(160.00))
+          .andExpect(jsonPath("$.results[0].itemCounts.A").value(3))
+          .andExpect(jsonPath("$.results[0].error").doesNotExist())
+          .andExpect(jsonPath("$.results[1].error").value("Unknown SKU: Z"))
+          .andExpect(jsonPath("$.results[1].total").doesNotExist())
+          .andExpect(jsonPath("$.results[2].total").value(30.00));
+
+      verifyNoInteractions(checkoutService);
+    }
+
+    @ParameterizedTest(name = "[{index}] invalid batch -> 400: {0}")
+    @MethodSource("com.product.service.checkoutkata.api.CheckoutControllerTest#invalidBatches")
+    void should400OnInvalidBatch(String rawJson) throws Exception {
+      mvc.perform(
+              post("/api/v1/checkout/price/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(rawJson))
+          .andExpect(status().isBadRequest());
+
+      verifyNoInteractions(batchService);
+    }
+  }
+
+  static Stream<String> invalidBatches() {
+    return Stream.of("{}", "{\"baskets\":[]}");
+  }
+
+  @Nested
+  @DisplayName("POST /api/v1/checkout/price/stream")
+  class Streaming {
+    @Test
+    @DisplayName("writes one line per record, in order, with errors inline")
+    void oneLinePerRecord() throws Exception {
+      when(checkoutService.pinnedCounts())
+          .thenReturn(
+              counts ->
+                  counts.toItemCounts().containsKey("Z")
+                      ? BasketOutcome.failed("Unknown SKU: Z")
+                      : BasketOutcome.ok(
+                          new PricingResult(new BigDecimal("50.00"), List.of(), counts)));
+
+      var result =
+          mvc.perform(
+                  post("/api/v1/checkout/price/stream")
+                      .contentType(MediaType.APPLICATION_NDJSON)
+                      .content(
+                          "{\"items\":\"A\"}\n\n{\"items\":\"Z\"}\nnot json\n{\"items\":\"a\"}"))
+              .andExpect(status().isOk())
+              .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+              .andReturn();
+
+      assertThat(result.getResponse().getContentAsString().split("\n"))
+          .containsExactly(
+              "{\"total\":50.00,\"itemCounts\":{\"A\":1},\"offers\":[]}",
+              "{\"error\":\"Unknown SKU: Z\"}",
+              "{\"error\":\"Malformed JSON record\"}",
+              "{\"total\":50.00,\"itemCounts\":{\"A\":1},\"offers\":[]}");
+      verify(checkoutService, times(1)).pinnedCounts();
+    }
+
+    @Test
+    @DisplayName("accepts every /price request shape per record, with the same validation")
+    void acceptsEveryShape() throws Exception {
+      when(checkoutService.pinnedCounts())
+          .thenReturn(
+              counts ->
+                  BasketOutcome.ok(new PricingResult(new BigDecimal("50.00"), List.of(), counts)));
+
+      var result =
+          mvc.perform(
+                  post("/api/v1/checkout/price/stream")
+                      .contentType(MediaType.APPLICATION_NDJSON)
+                      .content(
+                          "{\"counts\":{\"A\":2}}\n{\"runs\":\"A2\"}\n{}\n"
+                              + "{\"items\":\"A\",\"runs\":\"A\"}\n{\"items\":\"A;\"}"))
+              .andExpect(status().isOk())
+              .andReturn();
+
+      assertThat(result.getResponse().getContentAsString().split("\n"))
+          .containsExactly(
+              "{\"total\":50.00,\"itemCounts\":{\"A\":2},\"offers\":[]}",
+              "{\"total\":50.00,\"itemCounts\":{\"A\":2},\"offers\":[]}",
+              "{\"error\":\"Exactly one of items, counts or runs is required\"}",
+              "{\"error\":\"Exactly one of items, counts or runs is required\"}",
+              "{\"error\":\"items must be SKUs separated by commas or spaces\"}");
+    }
+
+    @Test
+    @DisplayName("a record over the line length cap is reported on its own line and skipped")
+    void rejectsOverlongRecord() throws Exception {
+      when(checkoutService.pinnedCounts())
+          .thenReturn(
+              counts ->
+                  BasketOutcome.ok(new PricingResult(new BigDecimal("50.00"), List.of(), counts)));
+
+      var result =
+          mvc.perform(
+                  post("/api/v1/checkout/price/stream")
+                      .contentType(MediaType.APPLICATION_NDJSON)
+                      .content(body("A".repeat(100)) + "\n" + body("A")))
+              .andExpect(status().isOk())
+              .andReturn();
+
+      assertThat(result.getResponse().getContentAsString().split("\n"))
+          .containsExactly(
+              "{\"error\":\"Record exceeds 64 characters\"}",
+              "{\"total\":50.00,\"itemCounts\":{\"A\":1},\"offers\":[]}");
+    }
   }
 }
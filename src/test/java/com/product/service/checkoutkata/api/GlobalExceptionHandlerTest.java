@@ -1,5 +1,6 @@
 package com.product.service.checkoutkata.api;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -18,7 +19,10 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.product.service.checkoutkata.service.BulkheadFullException;
+import com.product.service.checkoutkata.service.InvalidBasketException;
 
+import jakarta.servlet.ServletException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 
@@ -34,6 +38,21 @@ class GlobalExceptionHandlerTest {
       throw new NoSuchElementException("Unknown SKU: Z");
     }
 
+    @GetMapping("/invalid")
+    public String invalid() {
+      throw new InvalidBasketException("Quantity too large");
+    }
+
+    @GetMapping("/bug")
+    public String bug() {
+      throw new IllegalArgumentException("internal detail");
+    }
+
+    @GetMapping("/busy")
+    public String busy() {
+      throw new BulkheadFullException("Database busy, retry shortly");
+    }
+
     record Payload(@NotBlank(message = "items is required") String items) {}
 
     @PostMapping("/validate")
@@ -58,6 +77,33 @@ class GlobalExceptionHandlerTest {
         .andExpect(jsonPath("$.error", equalTo("Unknown SKU: Z")));
   }
 
+  @Test
+  @DisplayName("InvalidBasketException -> 400 with error message")
+  void invalidBasketMappedTo400() throws Exception {
+    mvc()
+        .perform(get("/stub/invalid"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error", equalTo("Quantity too large")));
+  }
+
+  @Test
+  @DisplayName("Any other IllegalArgumentException is not turned into a 400")
+  void otherIllegalArgumentNotMapped() {
+    assertThatThrownBy(() -> mvc().perform(get("/stub/bug")))
+        .isInstanceOf(ServletException.class)
+        .hasRootCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("BulkheadFullException -> 503 with Retry-After")
+  void bulkheadFullMappedTo503() throws Exception {
+    mvc()
+        .perform(get("/stub/busy"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "1"))
+        .andExpect(jsonPath("$.error", equalTo("Database busy, retry shortly")));
+  }
+
   @Test
   @DisplayName("MethodArgumentNotValidException -> 400 with first error message")
   void validationMappedTo400() throws Exception {
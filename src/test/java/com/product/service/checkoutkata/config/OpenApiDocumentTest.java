@@ -0,0 +1,97 @@
+package com.product.service.checkoutkata.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.configuration.SpringDocConfiguration;
+import org.springdoc.core.configuration.SpringDocUIConfiguration;
+import org.springdoc.core.properties.SpringDocConfigProperties;
+import org.springdoc.core.properties.SwaggerUiConfigParameters;
+import org.springdoc.core.properties.SwaggerUiConfigProperties;
+import org.springdoc.core.properties.SwaggerUiOAuthProperties;
+import org.springdoc.webmvc.core.configuration.SpringDocWebMvcConfiguration;
+import org.springdoc.webmvc.ui.SwaggerConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.product.service.checkoutkata.api.AdminController;
+import com.product.service.checkoutkata.api.CheckoutController;
+import com.product.service.checkoutkata.service.BatchCheckoutService;
+import com.product.service.checkoutkata.service.CatalogImportService;
+import com.product.service.checkoutkata.service.CatalogService;
+import com.product.service.checkoutkata.service.CheckoutMetrics;
+import com.product.service.checkoutkata.service.CheckoutService;
+import com.product.service.checkoutkata.service.PointInTimePricingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Renders the OpenAPI document from the controllers alone (services mocked, no database). With
+ * {@code -Popenapi} the document is also written to {@code static/openapi.json} on the build
+ * output, where the {@code static-openapi} Spring profile serves it.
+ */
+@WebMvcTest(controllers = {CheckoutController.class, AdminController.class})
+@Import({OpenAPIConfig.class, CheckoutMetrics.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration({
+  SpringDocConfiguration.class,
+  SpringDocConfigProperties.class,
+  SpringDocWebMvcConfiguration.class,
+  SpringDocUIConfiguration.class,
+  SwaggerConfig.class,
+  SwaggerUiConfigProperties.class,
+  SwaggerUiConfigParameters.class,
+  SwaggerUiOAuthProperties.class
+})
+class OpenApiDocumentTest {
+  @Autowired MockMvc mvc;
+  @Autowired ObjectMapper om;
+  @MockBean CheckoutService checkout;
+  @MockBean BatchCheckoutService batch;
+  @MockBean CatalogService catalog;
+  @MockBean CatalogImportService imports;
+  @MockBean PointInTimePricingService pointInTime;
+
+  @Test
+  @DisplayName("Documents every checkout and admin endpoint; exports it when openapi.output is set")
+  void rendersAndExports() throws Exception {
+    String json =
+        mvc.perform(get("/v3/api-docs"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+    JsonNode doc = om.readTree(json);
+    assertThat(doc.path("info").path("title").asText()).isEqualTo("Checkout Service API");
+    assertThat(doc.path("paths").fieldNames())
+        .toIterable()
+        .contains(
+            "/api/v1/checkout/price",
+            "/api/v1/checkout/price/batch",
+            "/api/v1/checkout/price/stream",
+            "/api/v1/admin/products",
+            "/api/v1/admin/rules");
+
+    String output = System.getProperty("openapi.output");
+    if (output != null && !output.isBlank()) {
+      Path path = Path.of(output);
+      Files.createDirectories(path.getParent());
+      Files.writeString(
+          path, om.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(doc));
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.product.service.checkoutkata.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaDataSourceTest {
+  final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  final DataSource primary = mock(DataSource.class);
+  final HikariDataSource first = replica("replica-1");
+  final HikariDataSource second = replica("replica-2");
+  final Connection primaryConnection = mock(Connection.class);
+  ReplicaDataSource replicas;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    replicas =
+        new ReplicaDataSource(
+            primary,
+            List.of(first, second),
+            Duration.ofSeconds(5),
+            Duration.ofSeconds(1),
+            registry);
+  }
+
+  private static HikariDataSource replica(String name) {
+    HikariDataSource pool = mock(HikariDataSource.class);
+    when(pool.getPoolName()).thenReturn(name);
+    return pool;
+  }
+
+  /** Makes the next probes of {@code pool} see a standby {@code lag} seconds behind. */
+  private static Connection standby(HikariDataSource pool, Double lag) throws SQLException {
+    Connection c = mock(Connection.class);
+    Statement st = mock(Statement.class);
+    ResultSet rs = mock(ResultSet.class);
+    when(pool.getConnection()).thenReturn(c);
+    when(c.createStatement()).thenReturn(st);
+    when(st.executeQuery(ReplicaDataSource.LAG_QUERY)).thenReturn(rs);
+    when(rs.next()).thenReturn(true);
+    when(rs.getBoolean(1)).thenReturn(true);
+    when(rs.getDouble(2)).thenReturn(lag == null ? 0 : lag);
+    when(rs.wasNull()).thenReturn(lag == null);
+    when(rs.getString(3)).thenReturn("streaming");
+    return c;
+  }
+
+  private double gauge(String name, String pool) {
+    return registry.get(name).tag("pool", pool).gauge().value();
+  }
+
+  @Test
+  @DisplayName("Reads use the primary until a replica has passed a probe")
+  void fallsBackBeforeFirstProbe() throws SQLException {
+    assertThat(replicas.getConnection()).isSameAs(primaryConnection);
+    assertThat(registry.get("checkout.db.replica.fallback").counter().count()).isEqualTo(1);
+    verify(first, never()).getConnection();
+  }
+
+  @Test
+  @DisplayName("Healthy replicas take turns; one beyond the lag tolerance is skipped")
+  void roundRobinsWithinLagTolerance() throws SQLException {
+    Connection a = standby(first, 0.2);
+    Connection b = standby(second, 0.0);
+    replicas.probeAll();
+
+    assertThat(List.of(replicas.getConnection(), replicas.getConnection())).containsExactly(a, b);
+    assertThat(gauge("checkout.db.replica.healthy", "replica-2")).isEqualTo(1);
+
+    standby(second, 12.5);
+    replicas.probeAll();
+
+    assertThat(List.of(replicas.getConnection(), replicas.getConnection())).containsOnly(a);
+    assertThat(gauge("checkout.db.replica.lag", "replica-2")).isEqualTo(12.5);
+    assertThat(gauge("checkout.db.replica.healthy", "replica-2")).isZero();
+  }
+
+  @Test
+  @DisplayName("A replica that replayed nothing yet, or is not a standby, is not used")
+  void rejectsUnknownLagAndPrimaries() throws SQLException {
+    standby(first, null);
+    Connection promoted = standby(second, 0.0);
+    ResultSet rs = promoted.createStatement().executeQuery(ReplicaDataSource.LAG_QUERY);
+    when(rs.getBoolean(1)).thenReturn(false);
+    replicas.probeAll();
+
+    assertThat(replicas.getConnection()).isSameAs(primaryConnection);
+  }
+
+  @Test
+  @DisplayName("A standby whose WAL receiver is not streaming is not used, however small its lag")
+  void rejectsDisconnectedStandby() throws SQLException {
+    Connection a = standby(first, 0.0);
+    Connection b = standby(second, 0.0);
+    replicas.probeAll();
+    assertThat(List.of(replicas.getConnection(), replicas.getConnection())).containsExactly(a, b);
+
+    ResultSet stopped = a.createStatement().executeQuery(ReplicaDataSource.LAG_QUERY);
+    when(stopped.getString(3)).thenReturn(null);
+    ResultSet waiting = b.createStatement().executeQuery(ReplicaDataSource.LAG_QUERY);
+    when(waiting.getString(3)).thenReturn("waiting");
+    replicas.probeAll();
+
+    assertThat(replicas.getConnection()).isSameAs(primaryConnection);
+    assertThat(gauge("checkout.db.replica.healthy", "replica-1")).isZero();
+    assertThat(gauge("checkout.db.replica.healthy", "replica-2")).isZero();
+  }
+
+  @Test
+  @DisplayName("A replica that fails to connect is skipped until its next good probe")
+  void skipsReplicaThatFailsToConnect() throws SQLException {
+    Connection b = standby(second, 0.0);
+    standby(first, 0.0);
+    replicas.probeAll();
+    when(first.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+    assertThat(replicas.getConnection()).isSameAs(b);
+    assertThat(replicas.getConnection()).isSameAs(b);
+    assertThat(gauge("checkout.db.replica.healthy", "replica-1")).isZero();
+  }
+}
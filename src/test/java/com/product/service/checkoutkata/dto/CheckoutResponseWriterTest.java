@@ -0,0 +1,107 @@
+package com.product.service.checkoutkata.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.product.service.checkoutkata.service.BasketCounts;
+import com.product.service.checkoutkata.service.Money;
+import com.product.service.checkoutkata.service.PricingResult;
+import com.product.service.checkoutkata.service.SkuDictionary;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Size;
+
+/** The streaming writer must produce exactly what Jackson's record serializer does. */
+class CheckoutResponseWriterTest {
+  static {
+    SkuDictionary.global().internAll(List.of("A", "B", "C", "APPLE-1", "PEAR_2"));
+  }
+
+  private final ObjectMapper om = Jackson2ObjectMapperBuilder.json().build();
+  private final CheckoutResponseWriter writer = new CheckoutResponseWriter(om);
+  private final ObjectWriter reference = om.writerFor(CheckoutResponse.class);
+
+  private byte[] expected(PricingResult r) throws Exception {
+    return reference.writeValueAsBytes(
+        new CheckoutResponse(r.total(), r.counts().toItemCounts(), r.offers()));
+  }
+
+  @Property(tries = 500)
+  void byteIdenticalToRecordSerializer(
+      @ForAll @LongRange(min = -1_000_000_000, max = 1_000_000_000) long totalCents,
+      @ForAll @Size(max = 26) Map<@From("skus") String, @IntRange(min = 1) Integer> counts,
+      @ForAll @Size(max = 5) List<@From("offers") OfferApplied> offers)
+      throws Exception {
+    var result =
+        new PricingResult(Money.fromCents(totalCents), offers, BasketCounts.ofCounts(counts));
+
+    assertThat(writer.toBytes(result)).isEqualTo(expected(result));
+  }
+
+  @Test
+  @DisplayName("Null offer fields and unusual scales render as Jackson renders them")
+  void nullsAndScales() throws Exception {
+    var result =
+        new PricingResult(
+            new BigDecimal("1E+3"),
+            List.of(new OfferApplied(null, null, 0, 0, null, 0, new BigDecimal("0.000"))),
+            BasketCounts.empty());
+
+    assertThat(writer.toBytes(result)).isEqualTo(expected(result));
+  }
+
+  @Test
+  @DisplayName("Generator features configured on the mapper still apply")
+  void honoursMapperFeatures() throws Exception {
+    var plain = JsonMapper.builder().enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN).build();
+    var result =
+        new PricingResult(new BigDecimal("1E+3"), List.of(), BasketCounts.parse("kiwi, A B"));
+
+    assertThat(new String(new CheckoutResponseWriter(plain).toBytes(result)))
+        .isEqualTo("{\"total\":1000,\"itemCounts\":{\"A\":1,\"B\":1,\"KIWI\":1},\"offers\":[]}");
+  }
+
+  @Test
+  @DisplayName("Each call on a thread reuses one buffer, unless a response outgrew it")
+  void reusesPerThreadBuffer() {
+    var small = new PricingResult(BigDecimal.ONE, List.of(), BasketCounts.parse("A"));
+    var first = writer.serialize(small);
+    assertThat(writer.serialize(small)).isSameAs(first);
+
+    var offer = new OfferApplied("A", "BULK_X_FOR_Y", 1, 3, BigDecimal.TEN, 0, BigDecimal.ZERO);
+    var large =
+        new PricingResult(BigDecimal.ONE, Collections.nCopies(2_000, offer), small.counts());
+    assertThat(writer.serialize(large).size()).isGreaterThan(64 * 1024);
+    assertThat(writer.serialize(small)).isNotSameAs(first);
+  }
+
+  @Provide
+  Arbitrary<String> skus() {
+    return Arbitraries.oneOf(
+        Arbitraries.chars().range('A', 'Z').map(String::valueOf),
+        Arbitraries.of("APPLE-1", "PEAR_2", "KIWI", "SKU-10"));
+  }
+
+  @Provide
+  Arbitrary<OfferApplied> offers() {
+    Arbitrary<BigDecimal> money = Arbitraries.longs().between(0, 5_000_000).map(Money::fromCents);
+    Arbitrary<Integer> ints = Arbitraries.integers().between(0, 1_000_000);
+    return Combinators.combine(
+            skus(), Arbitraries.of("BULK_X_FOR_Y"), ints, ints, money, ints, money)
+        .as(OfferApplied::new);
+  }
+}
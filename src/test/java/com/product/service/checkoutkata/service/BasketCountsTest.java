@@ -0,0 +1,134 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BasketCountsTest {
+
+  @BeforeAll
+  static void encodeSkus() {
+    SkuDictionary.global().internAll(List.of("A", "B", "C", "D", "Z", "APPLE", "PEAR-2"));
+  }
+
+  @ParameterizedTest(name = "[{index}] \"{0}\" -> empty")
+  @NullAndEmptySource
+  @ValueSource(strings = {"   ", " ,, \t"})
+  void noSkus_isEmpty(String items) {
+    var counts = BasketCounts.parse(items);
+    assertThat(counts.isEmpty()).isTrue();
+    assertThat(counts.distinct()).isZero();
+    assertThat(counts.toItemCounts()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Compact letters count one single-letter SKU per character, case-insensitively")
+  void countsLetters() {
+    var counts = BasketCounts.parse("aBAazZ");
+
+    assertThat(counts.distinct()).isEqualTo(3);
+    assertThat(counts.isEncoded(0)).isTrue();
+    assertThat(counts.idAt(0)).isEqualTo(SkuDictionary.global().table().idOf("A"));
+    assertThat(counts.countAt(0)).isEqualTo(3);
+    assertThat(counts.toItemCounts())
+        .containsExactly(Map.entry("A", 3), Map.entry("B", 1), Map.entry("Z", 2));
+  }
+
+  @Test
+  @DisplayName("Separated SKUs are tokenized on commas and whitespace")
+  void tokenizesSeparatedSkus() {
+    var counts = BasketCounts.parse("apple, pear-2 APPLE,,A\tapple");
+
+    assertThat(counts.toItemCounts())
+        .containsOnly(Map.entry("APPLE", 3), Map.entry("PEAR-2", 1), Map.entry("A", 1));
+    assertThat(BasketCounts.parse("A1")).isEqualTo(BasketCounts.ofCounts(Map.of("A1", 1)));
+  }
+
+  @Test
+  @DisplayName("A compact string is one SKU per letter, whatever SKUs the dictionary knows")
+  void compactIsAlwaysPerLetter() {
+    assertThat(BasketCounts.parse("apple").toItemCounts())
+        .containsOnly(Map.entry("A", 1), Map.entry("E", 1), Map.entry("L", 1), Map.entry("P", 2));
+    assertThat(BasketCounts.parse("apple,").toItemCounts()).containsExactly(Map.entry("APPLE", 1));
+    assertThat(BasketCounts.parse("PEAR-2").toItemCounts()).containsExactly(Map.entry("PEAR-2", 1));
+  }
+
+  @ParameterizedTest(name = "[{index}] \"{0}\" -> rejected")
+  @ValueSource(strings = {"A;B", "APPLE, 2B", "a-1B*", "APPLE*2"})
+  void invalidCharacters(String items) {
+    assertThatThrownBy(() -> BasketCounts.parse(items)).isInstanceOf(InvalidBasketException.class);
+  }
+
+  @Test
+  @DisplayName("SKUs the dictionary does not know are kept by name after the encoded ones")
+  void keepsUnknownSkusByName() {
+    var counts = BasketCounts.parse("KIWI, apple, kiwi, FIG");
+
+    assertThat(counts.size()).isEqualTo(3);
+    assertThat(counts.isEncoded(0)).isTrue();
+    assertThat(counts.isEncoded(1)).isFalse();
+    assertThat(counts.toItemCounts())
+        .containsExactly(Map.entry("APPLE", 1), Map.entry("FIG", 1), Map.entry("KIWI", 2));
+    assertThat(BasketCounts.parse("fig kiwi kiwi apple")).isEqualTo(counts);
+  }
+
+  @Test
+  @DisplayName("Equality ignores item order and form")
+  void orderIndependentEquality() {
+    assertThat(BasketCounts.parse("CDBA")).isEqualTo(BasketCounts.parse("abcd"));
+    assertThat(BasketCounts.parse("CDBA")).isEqualTo(BasketCounts.parse("A, B, C, D"));
+    assertThat(BasketCounts.parse("CDBA").hashCode())
+        .isEqualTo(BasketCounts.parse("ABCD").hashCode());
+    assertThat(BasketCounts.parse("AAB")).isNotEqualTo(BasketCounts.parse("ABB"));
+  }
+
+  @Test
+  @DisplayName("Run-length input matches the expanded basket without building it")
+  void runLengthMatchesExpanded() {
+    assertThat(BasketCounts.parseRunLength("A3bC2a")).isEqualTo(BasketCounts.parse("AAABCCA"));
+    assertThat(BasketCounts.parseRunLength("APPLE*2, pear-2 A*3"))
+        .isEqualTo(BasketCounts.parse("APPLE APPLE PEAR-2 A A A"));
+
+    var huge = BasketCounts.parseRunLength("A500000B3");
+    assertThat(huge.countAt(0)).isEqualTo(500_000);
+    assertThat(huge.totalUnits()).isEqualTo(500_003L);
+  }
+
+  @ParameterizedTest(name = "[{index}] \"{0}\" -> rejected")
+  @ValueSource(
+      strings = {"3A", "A-2", "A 2", "A2147483648", "A2147483647A", "APPLE*", "APPLE*x", "2*A"})
+  void invalidRunLength(String runs) {
+    assertThatThrownBy(() -> BasketCounts.parseRunLength(runs))
+        .isInstanceOf(InvalidBasketException.class);
+  }
+
+  @Test
+  @DisplayName("Count maps merge case variants, drop zeros and reject bad keys or quantities")
+  void countMaps() {
+    var counts = BasketCounts.ofCounts(Map.of("a", 2, "A", 3, "B", 0, "Apple", 1));
+    assertThat(counts.toItemCounts()).containsExactly(Map.entry("A", 5), Map.entry("APPLE", 1));
+    assertThat(counts.distinct()).isEqualTo(2);
+
+    assertThatThrownBy(() -> BasketCounts.ofCounts(Map.of("1A", 1)))
+        .isInstanceOf(InvalidBasketException.class)
+        .hasMessage("Invalid SKU in counts: 1A");
+    assertThatThrownBy(() -> BasketCounts.ofCounts(Map.of("A B", 1)))
+        .isInstanceOf(InvalidBasketException.class);
+    assertThatThrownBy(() -> BasketCounts.ofCounts(Map.of("A", -1)))
+        .isInstanceOf(InvalidBasketException.class);
+    Map<String, Integer> nullQty = new HashMap<>();
+    nullQty.put("A", null);
+    assertThatThrownBy(() -> BasketCounts.ofCounts(nullQty))
+        .isInstanceOf(InvalidBasketException.class);
+  }
+}
@@ -0,0 +1,94 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCheckoutServiceTest {
+  @Mock CatalogSnapshotHolder catalog;
+  final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  final CheckoutMetrics metrics = new CheckoutMetrics(registry);
+  final PricingAuditLog audit = new PricingAuditLog(registry, 16, 0.0);
+  BatchCheckoutService batch;
+
+  @BeforeEach
+  void setUp() {
+    batch =
+        new BatchCheckoutService(
+            new CheckoutService(
+                catalog,
+                metrics,
+                audit,
+                new QuoteCache(registry, true, DataSize.ofMegabytes(1)),
+                Clock.systemUTC(),
+                PricingMode.COMPILED,
+                1_000_000),
+            4,
+            2);
+    when(catalog.current())
+        .thenReturn(
+            CatalogSnapshot.of(
+                1L,
+                List.of(
+                    new Product("A", new BigDecimal("50.00")),
+                    new Product("B", new BigDecimal("30.00"))),
+                List.of(
+                    new PricingRule(
+                        "A", RuleType.BULK_X_FOR_Y, 3, new BigDecimal("130.00"), null, null))));
+  }
+
+  @AfterEach
+  void tearDown() {
+    batch.destroy();
+  }
+
+  @Test
+  @DisplayName("Prices every basket in order and reports failures in their own slot")
+  void mixedBatch() {
+    var outcomes = batch.priceAll(List.of("AAAB", "AZ", "", "b;1", "bb", " , "));
+
+    assertThat(outcomes).hasSize(6);
+    assertThat(outcomes.get(0).result().total()).isEqualByComparingTo("160.00");
+    assertThat(outcomes.get(1).error()).isEqualTo("Unknown SKU: Z");
+    assertThat(outcomes.get(2).error()).isEqualTo("items is required");
+    assertThat(outcomes.get(3).error())
+        .isEqualTo("items must be SKUs separated by commas or spaces");
+    assertThat(outcomes.get(4).result().total()).isEqualByComparingTo("60.00");
+    assertThat(outcomes.get(5).error()).isEqualTo("items is required");
+  }
+
+  @Test
+  @DisplayName("A large batch split across the pool keeps request order and reads one snapshot")
+  void largeBatchKeepsOrder() {
+    List<String> baskets = new ArrayList<>();
+    for (int i = 0; i < 500; i++) baskets.add("A".repeat(i % 7 + 1));
+
+    var outcomes = batch.priceAll(baskets);
+
+    assertThat(outcomes).hasSize(500).allMatch(BasketOutcome::isOk);
+    for (int i = 0; i < 500; i++) {
+      assertThat(outcomes.get(i).result().counts().countAt(0)).isEqualTo(i % 7 + 1);
+    }
+    verify(catalog, times(1)).current();
+  }
+}
@@ -0,0 +1,169 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Size;
+
+class BundleSolverTest {
+
+  private static FixedPointRule bulk(int x, long cents) {
+    return FixedPointRule.of(
+        new PricingRule("A", RuleType.BULK_X_FOR_Y, x, Money.fromCents(cents), null, null));
+  }
+
+  /** Exhaustive search over bundle counts; the oracle for small quantities. */
+  private static long bruteForce(int qty, long unitCents, List<FixedPointRule> rules, int from) {
+    if (from == rules.size()) return qty * unitCents;
+    FixedPointRule r = rules.get(from);
+    long best = Long.MAX_VALUE;
+    for (int n = 0; n * r.xQty() <= qty; n++) {
+      long rest = bruteForce(qty - n * r.xQty(), unitCents, rules, from + 1);
+      best = Math.min(best, rest + n * r.yPriceCents());
+    }
+    return best;
+  }
+
+  @Property(tries = 500)
+  void isOptimal(
+      @ForAll @IntRange(min = 0, max = 40) int qty,
+      @ForAll @LongRange(min = 1, max = 10_000) long unitCents,
+      @ForAll @Size(max = 3) List<@From("bundles") FixedPointRule> rules) {
+    var solver = new BundleSolver(unitCents, rules, 0);
+
+    assertThat(solver.totalCents(qty)).isEqualTo(bruteForce(qty, unitCents, rules, 0));
+  }
+
+  @Property(tries = 300)
+  void closedFormAboveTheTableMatchesAFullTable(
+      @ForAll @IntRange(min = 0, max = 2_000) int qty,
+      @ForAll @LongRange(min = 1, max = 10_000) long unitCents,
+      @ForAll @Size(max = 3) List<@From("bundles") FixedPointRule> rules) {
+    var small = new BundleSolver(unitCents, rules, 0);
+    var full = new BundleSolver(unitCents, rules, 2_000);
+
+    assertThat(small.totalCents(qty)).isEqualTo(full.totalCents(qty));
+    assertThat(offerTotal(small, qty, unitCents)).isEqualTo(small.totalCents(qty));
+  }
+
+  @Provide
+  Arbitrary<FixedPointRule> bundles() {
+    return Combinators.combine(
+            Arbitraries.integers().between(1, 9), Arbitraries.longs().between(0, 90_000))
+        .as(BundleSolverTest::bulk);
+  }
+
+  private static long offerTotal(BundleSolver solver, int qty, long unitCents) {
+    List<OfferApplied> offers = new ArrayList<>();
+    solver.priceInto(qty, offers);
+    long sum = 0;
+    int covered = 0;
+    for (OfferApplied o : offers) {
+      sum += Money.toCents(o.bundlePrice()) * o.bundlesApplied();
+      covered += o.bundleSize() * o.bundlesApplied();
+    }
+    return sum + (qty - covered) * unitCents;
+  }
+
+  @Test
+  @DisplayName("Lists each chosen bundle once, largest first, with the running remainder")
+  void offersPerChosenBundle() {
+    var solver = new BundleSolver(5000, List.of(bulk(3, 13000), bulk(5, 20000)), 0);
+    List<OfferApplied> offers = new ArrayList<>();
+
+    long total = solver.priceInto(14, offers); // 2x5 + 1x3 + 1 single = 400 + 130 + 50
+
+    assertThat(total).isEqualTo(58000);
+    assertThat(offers).hasSize(2);
+    assertThat(offers.get(0).bundleSize()).isEqualTo(5);
+    assertThat(offers.get(0).bundlesApplied()).isEqualTo(2);
+    assertThat(offers.get(0).remainder()).isEqualTo(4);
+    assertThat(offers.get(0).remainderPrice()).isEqualByComparingTo("200.00");
+    assertThat(offers.get(1).bundleSize()).isEqualTo(3);
+    assertThat(offers.get(1).remainder()).isEqualTo(1);
+    assertThat(offers.get(1).remainderPrice()).isEqualTo(new BigDecimal("50.00"));
+  }
+
+  @Test
+  @DisplayName("Duplicate bundle sizes keep the cheaper price")
+  void duplicateSizesKeepCheapest() {
+    var solver = new BundleSolver(5000, List.of(bulk(3, 14000), bulk(3, 13000)), 0);
+    assertThat(solver.bundles())
+        .singleElement()
+        .extracting(FixedPointRule::yPriceCents)
+        .isEqualTo(13000L);
+    assertThat(solver.totalCents(3)).isEqualTo(13000);
+  }
+
+  @Test
+  @DisplayName("Bundles too large for an exact table keep a bounded table and cheapest prices")
+  void capsTheTable() {
+    var solver = new BundleSolver(100, List.of(bulk(999, 90_000), bulk(1000, 89_000)), 0);
+
+    assertThat(solver.limit()).isEqualTo(BundleSolver.MAX_TABLE);
+    assertThat(offerTotal(solver, 2_000_000, 100)).isEqualTo(solver.totalCents(2_000_000));
+    assertThat(solver.totalCents(2_000_000)).isEqualTo(2_000L * 89_000);
+    // past the table: 19 x 1000 + 1 x 999, not 20 x 999 + 19 singles
+    assertThat(solver.totalCents(19_999)).isEqualTo(19L * 89_000 + 90_000);
+  }
+
+  @Property(tries = 100)
+  void beyondTheTableMatchesAFullTable(
+      @ForAll @IntRange(min = BundleSolver.MAX_TABLE, max = 20_000) int qty,
+      @ForAll @LongRange(min = 1, max = 10_000) long unitCents,
+      @ForAll @Size(max = 3) List<@From("largeBundles") FixedPointRule> rules) {
+    var capped = new BundleSolver(unitCents, rules, 0);
+    var full = new BundleSolver(unitCents, rules, 20_000);
+
+    assertThat(capped.totalCents(qty)).isEqualTo(full.totalCents(qty));
+    assertThat(capped.select(qty)).isEqualTo(full.select(qty));
+  }
+
+  @Provide
+  Arbitrary<FixedPointRule> largeBundles() {
+    return Combinators.combine(
+            Arbitraries.integers().between(100, 400), Arbitraries.longs().between(0, 4_000_000))
+        .as(BundleSolverTest::bulk);
+  }
+
+  @Test
+  @DisplayName("Rule sets with equal sizes and prices share tables but report their own rules")
+  void sharesTablesByValue() {
+    var a = BundleSolver.of(5000, List.of(bulk(3, 13000)));
+    var b =
+        BundleSolver.of(
+            5000,
+            List.of(
+                FixedPointRule.of(
+                    new PricingRule(
+                        "B", RuleType.BULK_X_FOR_Y, 3, Money.fromCents(13000), null, null))));
+    List<OfferApplied> offers = new ArrayList<>();
+
+    b.priceInto(3, offers);
+
+    assertThat(b.totalCents(7)).isEqualTo(a.totalCents(7));
+    assertThat(offers).singleElement().extracting(OfferApplied::sku).isEqualTo("B");
+  }
+
+  @Test
+  @DisplayName("Huge quantities are priced without a table of that size")
+  void hugeQuantity() {
+    var solver = new BundleSolver(5000, List.of(bulk(3, 13000), bulk(5, 20000)), 0);
+    assertThat(solver.limit()).isLessThan(100);
+    // 5-for-200 is the cheapest per unit: 100_000 bundles
+    assertThat(solver.totalCents(500_000)).isEqualTo(100_000L * 20000);
+  }
+}
@@ -0,0 +1,54 @@
+package com.product.service.checkoutkata.service;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+
+class CatalogChangeListenerTest {
+  final DataSource dataSource = mock(DataSource.class);
+  final CatalogSnapshotHolder catalog = mock(CatalogSnapshotHolder.class);
+  final CatalogChangeListener listener =
+      new CatalogChangeListener(dataSource, catalog, Duration.ofMillis(10));
+
+  @AfterEach
+  void stop() {
+    listener.stop();
+  }
+
+  private static Connection listening(PGConnection pg) throws SQLException {
+    Connection c = mock(Connection.class);
+    when(c.createStatement()).thenReturn(mock(Statement.class));
+    when(c.unwrap(PGConnection.class)).thenReturn(pg);
+    return c;
+  }
+
+  @Test
+  @DisplayName("Reloads after every successful LISTEN, the first one included")
+  void refreshesAfterEachListen() throws SQLException {
+    PGConnection dropped = mock(PGConnection.class);
+    when(dropped.getNotifications(anyInt())).thenThrow(new SQLException("connection reset"));
+    Connection first = listening(dropped);
+    Connection second = listening(mock(PGConnection.class));
+    when(dataSource.getConnection())
+        .thenReturn(first)
+        .thenThrow(new SQLTransientConnectionException("down"))
+        .thenReturn(second);
+
+    listener.start();
+
+    verify(dataSource, timeout(5_000).times(3)).getConnection();
+    verify(catalog, timeout(5_000).times(2)).refresh();
+  }
+}
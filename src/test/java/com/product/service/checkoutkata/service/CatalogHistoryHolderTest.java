@@ -0,0 +1,93 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.ProductPriceVersion;
+import com.product.service.checkoutkata.repo.PricingRuleHistoryRepository;
+import com.product.service.checkoutkata.repo.ProductPriceHistoryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogHistoryHolderTest {
+  @Mock ProductPriceHistoryRepository prices;
+  @Mock PricingRuleHistoryRepository rules;
+  @Mock CatalogSnapshotHolder catalog;
+  @Mock PlatformTransactionManager txm;
+  final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  CatalogHistoryHolder holder;
+
+  @BeforeEach
+  void setUp() {
+    holder =
+        new CatalogHistoryHolder(
+            prices,
+            rules,
+            catalog,
+            txm,
+            new DbBulkhead(10, 2, Duration.ofMillis(50), 1, registry),
+            registry);
+  }
+
+  private static CatalogSnapshot snapshot(long version) {
+    return CatalogSnapshot.of(version, List.of(new Product("A", BigDecimal.ONE)), List.of());
+  }
+
+  @Test
+  @DisplayName("Reloads only when the snapshot version moves, reading only rows changed since")
+  void reloadsIncrementallyPerVersion() {
+    var v1 = new ProductPriceVersion("A", BigDecimal.ONE, h(0), null);
+    var closed = new ProductPriceVersion("A", BigDecimal.ONE, h(0), h(1));
+    var v2 = new ProductPriceVersion("A", BigDecimal.TEN, h(1), null);
+    ReflectionTestUtils.setField(v1, "id", 1L);
+    ReflectionTestUtils.setField(closed, "id", 1L);
+    ReflectionTestUtils.setField(v2, "id", 2L);
+    when(catalog.current()).thenReturn(snapshot(1), snapshot(1), snapshot(2));
+    when(prices.xidHorizon()).thenReturn(700L, 705L);
+    when(prices.findAll()).thenReturn(List.of(v1));
+    when(rules.findAll()).thenReturn(List.of());
+    when(prices.findChangedSince(700L)).thenReturn(List.of(closed, v2));
+    when(rules.findChangedSince(700L)).thenReturn(List.of());
+
+    var first = holder.current();
+    assertThat(holder.current()).isSameAs(first);
+    var second = holder.current();
+
+    assertThat(second.version()).isEqualTo(2);
+    assertThat(second.find("A", h(0).toInstant()).orElseThrow().unitPrice())
+        .isEqualByComparingTo("1");
+    assertThat(second.find("A", h(2).toInstant()).orElseThrow().unitPrice())
+        .isEqualByComparingTo("10");
+    verify(prices, times(1)).findAll();
+    assertThat(
+            registry
+                .get("checkout.catalog.history.rows")
+                .tag("table", "product_price_history")
+                .gauge()
+                .value())
+        .isEqualTo(2);
+    assertThat(registry.get("checkout.catalog.history.load").timer().count()).isEqualTo(2);
+  }
+
+  private static OffsetDateTime h(int hours) {
+    return OffsetDateTime.of(2025, 1, 1, hours, 0, 0, 0, ZoneOffset.UTC);
+  }
+}
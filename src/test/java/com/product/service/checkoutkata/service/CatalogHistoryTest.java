@@ -0,0 +1,156 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.PricingRuleVersion;
+import com.product.service.checkoutkata.domain.ProductPriceVersion;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+class CatalogHistoryTest {
+  private static final OffsetDateTime T0 =
+      OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private static OffsetDateTime h(int hours) {
+    return T0.plusHours(hours);
+  }
+
+  private static ProductPriceVersion price(String amount, OffsetDateTime from, OffsetDateTime to) {
+    return new ProductPriceVersion("A", new BigDecimal(amount), from, to);
+  }
+
+  private static PricingRuleVersion rule(
+      long id, int x, String y, OffsetDateTime from, OffsetDateTime to) {
+    return new PricingRuleVersion(
+        id,
+        new PricingRule("A", RuleType.BULK_X_FOR_Y, x, new BigDecimal(y), null, null),
+        from,
+        to);
+  }
+
+  @Test
+  @DisplayName("Resolves the price and rule versions current at each instant")
+  void versionsAtInstant() {
+    var history =
+        CatalogHistory.of(
+            1L,
+            List.of(price("50.00", null, h(10)), price("55.00", h(10), null)),
+            List.of(rule(1, 3, "130.00", null, h(5)), rule(1, 3, "120.00", h(5), null)));
+
+    assertThat(history.find("A", h(1).toInstant()).orElseThrow().unitPrice())
+        .isEqualByComparingTo("50.00");
+    assertThat(rulesAt(history, h(1)))
+        .extracting(PricingRule::getYPrice)
+        .containsExactly(new BigDecimal("130.00"));
+    assertThat(rulesAt(history, h(5)))
+        .extracting(PricingRule::getYPrice)
+        .containsExactly(new BigDecimal("120.00"));
+    assertThat(history.find("A", h(10).toInstant()).orElseThrow().unitPrice())
+        .isEqualByComparingTo("55.00");
+    assertThat(history.find("B", h(1).toInstant())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Changed rows replace versions with the same id; untouched SKUs keep their entries")
+  void foldsInChanges() {
+    var open = price("50.00", null, null);
+    var closed = price("50.00", null, h(10));
+    ReflectionTestUtils.setField(open, "id", 1L);
+    ReflectionTestUtils.setField(closed, "id", 1L);
+    var b = new ProductPriceVersion("B", new BigDecimal("20.00"), null, null);
+    var history = CatalogHistory.of(1L, List.of(open, b), List.of());
+    var bEntry = history.find("B", h(1).toInstant()).orElseThrow();
+
+    var changed =
+        history.withChanges(
+            2L,
+            List.of(closed, price("55.00", h(10), null)),
+            List.of(rule(1, 3, "120.00", h(10), null)));
+
+    assertThat(changed.version()).isEqualTo(2L);
+    assertThat(changed.find("A", h(1).toInstant()).orElseThrow().unitPrice())
+        .isEqualByComparingTo("50.00");
+    assertThat(changed.find("A", h(11).toInstant()).orElseThrow().unitPrice())
+        .isEqualByComparingTo("55.00");
+    assertThat(rulesAt(changed, h(11))).hasSize(1);
+    assertThat(changed.find("B", h(1).toInstant())).containsSame(bEntry);
+    assertThat(history.find("A", h(11).toInstant()).orElseThrow().unitPrice())
+        .isEqualByComparingTo("50.00");
+  }
+
+  @Test
+  @DisplayName("A SKU is unknown before it was created and after it was deleted")
+  void existsOnlyWhileCurrent() {
+    var history = CatalogHistory.of(1L, List.of(price("50.00", h(2), h(4))), List.of());
+
+    assertThat(history.find("A", h(1).toInstant())).isEmpty();
+    assertThat(history.find("A", h(3).toInstant())).isPresent();
+    assertThat(history.find("A", h(4).toInstant())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Rules keep their business-time window within a historical version")
+  void businessTimeStillApplies() {
+    var promo =
+        new PricingRuleVersion(
+            1L,
+            new PricingRule("A", RuleType.BULK_X_FOR_Y, 3, new BigDecimal("100.00"), h(2), h(3)),
+            null,
+            null);
+    var history = CatalogHistory.of(1L, List.of(price("50.00", null, null)), List.of(promo));
+
+    assertThat(rulesAt(history, h(1))).isEmpty();
+    assertThat(rulesAt(history, h(2))).hasSize(1);
+    assertThat(rulesAt(history, h(3).plusNanos(1))).isEmpty();
+  }
+
+  @Property(tries = 300)
+  void matchesALinearScan(
+      @ForAll("versions") List<PricingRuleVersion> rules,
+      @ForAll @IntRange(min = -1, max = 12) int atHour) {
+    var history = CatalogHistory.of(1L, List.of(price("50.00", null, null)), rules);
+    var at = h(atHour);
+
+    List<BigDecimal> expected = new ArrayList<>();
+    rules.stream()
+        .filter(
+            r ->
+                (r.getValidFrom() == null || !r.getValidFrom().isAfter(at))
+                    && (r.getValidTo() == null || r.getValidTo().isAfter(at)))
+        .sorted((a, b) -> Long.compare(a.getRuleId(), b.getRuleId()))
+        .forEach(r -> expected.add(r.getYPrice()));
+
+    assertThat(rulesAt(history, at)).extracting(PricingRule::getYPrice).isEqualTo(expected);
+  }
+
+  @Provide
+  Arbitrary<List<PricingRuleVersion>> versions() {
+    Arbitrary<OffsetDateTime> bound =
+        Arbitraries.integers().between(0, 10).map(CatalogHistoryTest::h).injectNull(0.3);
+    return Combinators.combine(
+            Arbitraries.longs().between(1, 5),
+            Arbitraries.integers().between(1, 999).map(c -> c + ".00"),
+            bound,
+            bound)
+        .as((id, y, from, to) -> rule(id, 3, y, from, to))
+        .list()
+        .ofMaxSize(6);
+  }
+
+  private static List<PricingRule> rulesAt(CatalogHistory history, OffsetDateTime at) {
+    return history.find("A", at.toInstant()).orElseThrow().activeAt(at.toInstant()).rules();
+  }
+}
@@ -0,0 +1,199 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.product.service.checkoutkata.dto.ImportReport.ImportError;
+import com.product.service.checkoutkata.service.CatalogImportService.Format;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogImportServiceTest {
+  static final Instant NOW = Instant.parse("2025-11-12T10:00:00Z");
+
+  @Mock JdbcTemplate jdbc;
+  @Mock ApplicationEventPublisher events;
+  @Mock PlatformTransactionManager txm;
+  SimpleTransactionStatus status = new SimpleTransactionStatus();
+  CatalogImportService service;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(txm.getTransaction(any())).thenReturn(status);
+    service =
+        new CatalogImportService(
+            jdbc,
+            Jackson2ObjectMapperBuilder.json().build(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            events,
+            txm,
+            new DbBulkhead(10, 2, Duration.ofMillis(50), 1, new SimpleMeterRegistry()),
+            Clock.fixed(NOW, ZoneOffset.UTC),
+            2,
+            100,
+            10);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<List<Object[]>> batches(String sql, int times) {
+    ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jdbc, times(times)).batchUpdate(eq(sql), captor.capture());
+    return captor.getAllValues();
+  }
+
+  @Test
+  @DisplayName("CSV products are written in batches and reload the catalog once")
+  void importsCsvProducts() {
+    when(jdbc.batchUpdate(eq(CatalogImportService.UPSERT_PRODUCT), anyList()))
+        .thenReturn(new int[] {1, 1}, new int[] {0});
+
+    var report =
+        service.importProducts(
+            new StringReader("sku,unitPrice\nA,50.00\n\nB, 30.00\nA,55\n"), Format.CSV);
+
+    assertThat(report.rows()).isEqualTo(3);
+    assertThat(report.written()).isEqualTo(2);
+    assertThat(report.errors()).isEmpty();
+    var batches = batches(CatalogImportService.UPSERT_PRODUCT, 2);
+    assertThat(batches.get(0)).hasSize(2);
+    assertThat(batches.get(0).get(1)).containsExactly("B", new BigDecimal("30.00"));
+    assertThat(batches.get(1).get(0)).containsExactly("A", new BigDecimal("55"));
+    verify(events).publishEvent(new CatalogChangedEvent(null));
+    assertThat(status.isRollbackOnly()).isFalse();
+  }
+
+  @Test
+  @DisplayName("NDJSON rules default their start to now and keep column order")
+  void importsNdjsonRules() {
+    when(jdbc.batchUpdate(eq(CatalogImportService.UPSERT_RULE), anyList()))
+        .thenReturn(new int[] {1});
+
+    var report =
+        service.importRules(
+            new StringReader(
+                "{\"sku\":\"A\",\"ruleType\":\"BULK_X_FOR_Y\",\"xQty\":3,\"yPrice\":130.00,"
+                    + "\"endsAt\":\"2025-12-31T23:59:59Z\"}\n"),
+            Format.NDJSON);
+
+    assertThat(report.written()).isEqualTo(1);
+    assertThat(batches(CatalogImportService.UPSERT_RULE, 1).get(0).get(0))
+        .containsExactly(
+            "A",
+            "BULK_X_FOR_Y",
+            3,
+            new BigDecimal("130.00"),
+            OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC),
+            OffsetDateTime.parse("2025-12-31T23:59:59Z"));
+  }
+
+  @Test
+  @DisplayName("Every bad row is reported by line and nothing is written or published")
+  void reportsEveryBadRow() {
+    var report =
+        service.importRules(
+            new StringReader(
+                """
+                sku,ruleType,xQty,yPrice
+                A,BULK_X_FOR_Y,3,130.00
+                aa,BULK_X_FOR_Y,3,130.00
+                B,BULK_X_FOR_Y,many,130.00
+                C,,2,45
+                D,BULK_X_FOR_Y,2
+                E,BULK_X_FOR_Y,2,45
+                """),
+            Format.CSV);
+
+    assertThat(report.rows()).isEqualTo(6);
+    assertThat(report.written()).isZero();
+    assertThat(report.errors()).extracting(ImportError::line).containsExactly(3L, 4L, 5L, 6L);
+    assertThat(report.errors().get(0).error()).startsWith("sku: ");
+    assertThat(report.errors().get(1).error()).isEqualTo("xQty: invalid value 'many'");
+    assertThat(report.errors().get(2).error()).isEqualTo("ruleType is required");
+    assertThat(report.errors().get(3).error()).isEqualTo("expected 4 cells, found 3");
+    verifyNoInteractions(txm);
+    verify(jdbc, never()).batchUpdate(anyString(), anyList());
+    verifyNoInteractions(events);
+  }
+
+  @Test
+  @DisplayName("A row the database rejects is reported by its own line")
+  void mapsDatabaseFailureToLine() {
+    var cause =
+        new BatchUpdateException(
+            "ERROR: violates check constraint\n  Detail: ...",
+            new int[] {1, Statement.EXECUTE_FAILED});
+    when(jdbc.batchUpdate(eq(CatalogImportService.UPSERT_PRODUCT), anyList()))
+        .thenThrow(new DataIntegrityViolationException("batch failed", cause));
+
+    var report =
+        service.importProducts(
+            new StringReader("{\"sku\":\"A\",\"unitPrice\":1}\n{\"sku\":\"B\",\"unitPrice\":2}\n"),
+            Format.NDJSON);
+
+    assertThat(report.written()).isZero();
+    assertThat(report.errors())
+        .containsExactly(
+            new ImportError(2, "rejected by the database: ERROR: violates check constraint"));
+    assertThat(status.isRollbackOnly()).isTrue();
+  }
+
+  @Test
+  @DisplayName("A CSV header with missing or unknown columns is rejected outright")
+  void rejectsBadHeader() {
+    assertThatThrownBy(
+            () -> service.importProducts(new StringReader("sku,price\nA,1\n"), Format.CSV))
+        .isInstanceOf(InvalidCatalogRequestException.class)
+        .hasMessage("Unknown CSV column: price");
+  }
+
+  @Test
+  @DisplayName("An upload over the row limit is rejected before a transaction is opened")
+  void rejectsTooManyRows() {
+    assertThatThrownBy(
+            () ->
+                service.importProducts(
+                    new StringReader("sku,unitPrice\n" + "A,1\n".repeat(11)), Format.CSV))
+        .isInstanceOf(InvalidCatalogRequestException.class)
+        .hasMessage("Import exceeds 10 rows");
+    verifyNoInteractions(txm, jdbc);
+  }
+
+  @Test
+  @DisplayName("Price adjustment is one statement and one reload")
+  void adjustsPrices() {
+    var percent = new BigDecimal("-10");
+    when(jdbc.update(CatalogImportService.ADJUST_PRICES, percent, percent)).thenReturn(4);
+
+    assertThat(service.adjustPrices(percent)).isEqualTo(4);
+    verify(events).publishEvent(new CatalogChangedEvent(null));
+  }
+}
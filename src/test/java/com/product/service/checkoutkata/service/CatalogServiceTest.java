@@ -5,14 +5,21 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import com.product.service.checkoutkata.domain.PricingRule;
 import com.product.service.checkoutkata.domain.Product;
@@ -20,11 +27,33 @@ import com.product.service.checkoutkata.domain.RuleType;
 import com.product.service.checkoutkata.repo.PricingRuleRepository;
 import com.product.service.checkoutkata.repo.ProductRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
 @ExtendWith(MockitoExtension.class)
 class CatalogServiceTest {
   @Mock ProductRepository products;
   @Mock PricingRuleRepository rules;
-  @InjectMocks CatalogService service;
+  @Mock ApplicationEventPublisher events;
+  @Mock CatalogSnapshotHolder snapshots;
+  @Mock EntityManager em;
+  @Mock PlatformTransactionManager txm;
+  CatalogService service;
+
+  @BeforeEach
+  void setUp() {
+    service =
+        new CatalogService(
+            products,
+            rules,
+            events,
+            snapshots,
+            em,
+            txm,
+            new DbBulkhead(10, 2, Duration.ofMillis(50), 1, new SimpleMeterRegistry()),
+            Duration.ofSeconds(5),
+            Duration.ofSeconds(1));
+  }
 
   @Test
   void allProducts_shouldReturnListFromRepo() {
@@ -39,6 +68,21 @@ class CatalogServiceTest {
     verifyNoMoreInteractions(products, rules);
   }
 
+  @Test
+  void reads_shouldStayOnPrimaryRightAfterAChange() {
+    when(products.findAll()).thenReturn(List.of());
+    when(snapshots.changedWithin(Duration.ofSeconds(6))).thenReturn(false, true);
+
+    service.allProducts();
+    service.allProducts();
+
+    var definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(txm, times(2)).getTransaction(definitions.capture());
+    assertThat(definitions.getAllValues())
+        .extracting(TransactionDefinition::isReadOnly)
+        .containsExactly(true, false);
+  }
+
   @Test
   void rulesFor_shouldDelegateToRepo() {
     var r =
@@ -58,6 +102,40 @@ class CatalogServiceTest {
     verifyNoMoreInteractions(products, rules);
   }
 
+  @Test
+  void pages_shouldQueryByKeysetWithLimit() {
+    var p = new Product("B", new BigDecimal("30.00"));
+    when(products.findBySkuGreaterThanOrderBySkuAsc("", Limit.of(2))).thenReturn(List.of(p));
+    when(rules.findByIdGreaterThanOrderByIdAsc(7L, Limit.of(3))).thenReturn(List.of());
+
+    assertThat(service.products(null, 2)).containsExactly(p);
+    assertThat(service.rules(7L, 3)).isEmpty();
+  }
+
+  @Test
+  void exportProducts_shouldStreamInSkuOrderAndDetachEachRow() {
+    var p1 = new Product("A", new BigDecimal("50.00"));
+    var p2 = new Product("B", new BigDecimal("30.00"));
+    when(products.streamAllByOrderBySkuAsc()).thenReturn(Stream.of(p1, p2));
+    List<Product> exported = new ArrayList<>();
+
+    service.exportProducts(exported::add);
+
+    assertThat(exported).containsExactly(p1, p2);
+    verify(em).detach(p1);
+    verify(em).detach(p2);
+    verify(products, never()).findAll();
+  }
+
+  @Test
+  void catalogTag_shouldComeFromTheSnapshot() {
+    var snapshot = CatalogSnapshot.of(3L, List.of(new Product("A", BigDecimal.ONE)), List.of());
+    when(snapshots.current()).thenReturn(snapshot);
+
+    assertThat(service.catalogTag()).isEqualTo(snapshot.contentTag()).hasSize(32);
+    verifyNoInteractions(products, rules);
+  }
+
   @Test
   void upsertProduct_whenSkuExists_shouldMutatePrice_andNotCallSave() {
     var existing = new Product("A", new BigDecimal("10.00"));
@@ -73,6 +151,7 @@ class CatalogServiceTest {
 
     verify(products).findBySku("A");
     verify(products, never()).save(any());
+    verify(events).publishEvent(new CatalogChangedEvent("A"));
     verifyNoMoreInteractions(products, rules);
   }
 
@@ -116,6 +195,7 @@ class CatalogServiceTest {
 
     assertThat(result).isEqualTo(persisted);
     verify(rules).save(toSave);
+    verify(events).publishEvent(new CatalogChangedEvent("B"));
     verifyNoMoreInteractions(products, rules);
   }
 }
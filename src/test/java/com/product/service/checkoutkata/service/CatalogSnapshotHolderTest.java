@@ -0,0 +1,138 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.repo.PricingRuleRepository;
+import com.product.service.checkoutkata.repo.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotHolderTest {
+  @Mock ProductRepository products;
+  @Mock PricingRuleRepository rules;
+  @Mock PlatformTransactionManager txm;
+
+  CatalogSnapshotHolder holder;
+
+  @BeforeEach
+  void setUp() {
+    holder =
+        new CatalogSnapshotHolder(
+            products,
+            rules,
+            txm,
+            new DbBulkhead(10, 2, Duration.ofMillis(50), 1, new SimpleMeterRegistry()),
+            Clock.systemUTC(),
+            16);
+  }
+
+  @Test
+  @DisplayName("Loads lazily once and serves later reads from memory")
+  void loadsOnce() {
+    when(products.findAll()).thenReturn(List.of(new Product("A", new BigDecimal("50.00"))));
+    when(rules.findAll(any(Sort.class))).thenReturn(List.of());
+
+    var first = holder.current();
+    var second = holder.current();
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.find("A"))
+        .get()
+        .extracting(CatalogSnapshot.Entry::unitPrice)
+        .isEqualTo(new BigDecimal("50.00"));
+    verify(products, times(1)).findAll();
+    verify(rules, times(1)).findAll(any(Sort.class));
+  }
+
+  @Test
+  @DisplayName("Concurrent cold-start readers share one load")
+  void sharesColdStartLoad() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(products.findAll())
+        .thenAnswer(
+            inv -> {
+              loading.countDown();
+              release.await();
+              return List.of(new Product("A", new BigDecimal("50.00")));
+            });
+    when(rules.findAll(any(Sort.class))).thenReturn(List.of());
+
+    var first = CompletableFuture.supplyAsync(holder::current);
+    loading.await();
+    List<Thread> waiters = new ArrayList<>();
+    List<CompletableFuture<CatalogSnapshot>> others = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      CompletableFuture<CatalogSnapshot> f = new CompletableFuture<>();
+      Thread t = new Thread(() -> f.complete(holder.current()));
+      t.start();
+      waiters.add(t);
+      others.add(f);
+    }
+    for (Thread t : waiters) {
+      while (t.getState() == Thread.State.NEW || t.getState() == Thread.State.RUNNABLE) {
+        Thread.onSpinWait();
+      }
+    }
+    release.countDown();
+
+    for (var f : others) assertThat(f.get()).isSameAs(first.get());
+    verify(products, times(1)).findAll();
+  }
+
+  @Test
+  @DisplayName("Catalog change swaps in a new snapshot with a higher version")
+  void swapsOnChange() {
+    when(products.findAll())
+        .thenReturn(List.of(new Product("A", new BigDecimal("50.00"))))
+        .thenReturn(List.of(new Product("A", new BigDecimal("55.00"))));
+    when(rules.findAll(any(Sort.class))).thenReturn(List.of());
+
+    var before = holder.current();
+    holder.onCatalogChanged(new CatalogChangedEvent("A"));
+    var after = holder.current();
+
+    assertThat(after.version()).isGreaterThan(before.version());
+    assertThat(before.find("A").orElseThrow().unitPrice()).isEqualByComparingTo("50.00");
+    assertThat(after.find("A").orElseThrow().unitPrice()).isEqualByComparingTo("55.00");
+  }
+
+  @Test
+  @DisplayName("Content tag is equal for equal rows and changes with them")
+  void contentTag() {
+    when(products.findAll())
+        .thenReturn(List.of(new Product("A", new BigDecimal("50.00"))))
+        .thenReturn(List.of(new Product("A", new BigDecimal("50.00"))))
+        .thenReturn(List.of(new Product("A", new BigDecimal("55.00"))));
+    when(rules.findAll(any(Sort.class))).thenReturn(List.of());
+
+    var first = holder.refresh();
+    var reloaded = holder.refresh();
+    var changed = holder.refresh();
+
+    assertThat(reloaded.version()).isGreaterThan(first.version());
+    assertThat(reloaded.contentTag()).isEqualTo(first.contentTag());
+    assertThat(changed.contentTag()).isNotEqualTo(first.contentTag());
+  }
+}
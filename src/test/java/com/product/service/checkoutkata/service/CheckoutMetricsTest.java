@@ -0,0 +1,37 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.product.service.checkoutkata.service.CheckoutMetrics.Phase;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CheckoutMetricsTest {
+  private final CheckoutMetrics metrics = new CheckoutMetrics(new SimpleMeterRegistry());
+
+  @Test
+  @DisplayName("Server-Timing lists recorded phases in order, in milliseconds")
+  void serverTimingHeader() {
+    try (var timings = metrics.openTimings()) {
+      metrics.phase(Phase.RULES, 20_400);
+      metrics.phase(Phase.PARSE, 1_234_567);
+      metrics.phase(Phase.RULES, 600);
+
+      assertThat(timings.toHeaderValue()).isEqualTo("parse;dur=1.234, rules;dur=0.021");
+    }
+  }
+
+  @Test
+  @DisplayName("Phases recorded without open timings only reach the registry")
+  void noOpenTimings() {
+    var timings = metrics.openTimings();
+    timings.close();
+
+    metrics.phase(Phase.PARSE, 1_000);
+
+    assertThat(timings.toHeaderValue()).isEmpty();
+  }
+}
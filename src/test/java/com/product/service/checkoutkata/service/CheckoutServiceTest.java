@@ -4,128 +4,226 @@ import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Optional;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
 
+import com.product.service.checkoutkata.domain.PricingRule;
 import com.product.service.checkoutkata.domain.Product;
-import com.product.service.checkoutkata.repo.PricingRuleRepository;
-import com.product.service.checkoutkata.repo.ProductRepository;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class CheckoutServiceTest {
-  @Mock ProductRepository products;
-  @Mock PricingRuleRepository rules;
-  @InjectMocks CheckoutService service;
+  @Mock CatalogSnapshotHolder catalog;
+  final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  final CheckoutMetrics metrics = new CheckoutMetrics(registry);
+  final PricingAuditLog audit = new PricingAuditLog(registry, 16, 0.0);
+  final QuoteCache quotes = new QuoteCache(registry, true, DataSize.ofMegabytes(1));
+  CheckoutService service;
+
+  @BeforeEach
+  void setUp() {
+    service =
+        new CheckoutService(
+            catalog, metrics, audit, quotes, Clock.systemUTC(), PricingMode.COMPILED, 1_000_000);
+  }
 
   private static Product product(String sku, String price) {
     return new Product(sku, new BigDecimal(price));
   }
 
+  private static PricingRule bulk(String sku, int x, String y, OffsetDateTime from) {
+    return new PricingRule(sku, RuleType.BULK_X_FOR_Y, x, new BigDecimal(y), from, null);
+  }
+
+  private void catalogOf(List<Product> products, List<PricingRule> rules) {
+    when(catalog.current()).thenReturn(CatalogSnapshot.of(1L, products, rules));
+  }
+
   @Test
-  @DisplayName("priceOf(null) -> 0.00 and no repository interactions")
+  @DisplayName("priceOf(null) -> 0.00 and no catalog interactions")
   void nullInput() {
     var total = service.priceOf(null);
     assertThat(total).isEqualByComparingTo("0.00");
-    verifyNoInteractions(products, rules);
+    verifyNoInteractions(catalog);
   }
 
   @Test
-  @DisplayName("priceOf(blank) -> 0.00 and no repository interactions")
+  @DisplayName("priceOf(blank) -> 0.00 and no catalog interactions")
   void blankInput() {
     var total = service.priceOf("   ");
     assertThat(total).isEqualByComparingTo("0.00");
-    verifyNoInteractions(products, rules);
+    verifyNoInteractions(catalog);
   }
 
   @Test
-  @DisplayName("Filters non-letters and uppercases letters: 'a-1B*' -> counts A=1,B=1")
-  void filtersAndUppercases() {
-    when(products.findBySku("A")).thenReturn(Optional.of(product("A", "50.00")));
-    when(products.findBySku("B")).thenReturn(Optional.of(product("B", "30.00")));
-    when(rules.findActiveBySkuAt(eq("A"), any(OffsetDateTime.class))).thenReturn(List.of());
-    when(rules.findActiveBySkuAt(eq("B"), any(OffsetDateTime.class))).thenReturn(List.of());
-
-    var total = service.priceOf("a-1B*");
+  @DisplayName("Tokenizes multi-character SKUs case-insensitively: 'apple-1, b apple-1'")
+  void tokenizesMultiCharacterSkus() {
+    catalogOf(List.of(product("APPLE-1", "50.00"), product("B", "30.00")), List.of());
 
-    assertThat(total).isEqualByComparingTo("80.00");
+    var result = service.priceOfWithDetails("apple-1, b apple-1");
 
-    verify(products, times(1)).findBySku("A");
-    verify(products, times(1)).findBySku("B");
-    verify(rules, times(1)).findActiveBySkuAt(eq("A"), any(OffsetDateTime.class));
-    verify(rules, times(1)).findActiveBySkuAt(eq("B"), any(OffsetDateTime.class));
-    verifyNoMoreInteractions(products, rules);
+    assertThat(result.total()).isEqualByComparingTo("130.00");
+    assertThat(result.counts().toItemCounts()).containsOnly(entry("APPLE-1", 2), entry("B", 1));
+    assertThatThrownBy(() -> service.priceOfWithDetails("APPLE-1;B"))
+        .isInstanceOf(InvalidBasketException.class);
   }
 
   @Test
-  @DisplayName("Counts per distinct SKU; looks up product/rules once per SKU even if repeated")
-  void countsDistinctSkus() {
-    when(products.findBySku("B")).thenReturn(Optional.of(product("B", "30.00")));
+  @DisplayName("Reads the catalog snapshot once per basket even if SKUs repeat")
+  void readsSnapshotOncePerBasket() {
+    catalogOf(List.of(product("B", "30.00")), List.of());
 
     var total = service.priceOf("BBB");
 
+    assertThat(total).isEqualByComparingTo("90.00");
     assertThat(total.scale()).isGreaterThanOrEqualTo(2);
-
-    verify(products, times(1)).findBySku("B");
-    verify(rules, times(1)).findActiveBySkuAt(eq("B"), any(OffsetDateTime.class));
-    verifyNoMoreInteractions(products, rules);
+    verify(catalog, times(1)).current();
+    verifyNoMoreInteractions(catalog);
   }
 
   @Test
   @DisplayName("Unknown SKU -> throws NoSuchElementException with message 'Unknown SKU: Z'")
   void unknownSkuThrows() {
-    when(products.findBySku("Z")).thenReturn(Optional.empty());
+    catalogOf(List.of(product("A", "50.00")), List.of());
 
     assertThatThrownBy(() -> service.priceOf("Z"))
         .isInstanceOf(NoSuchElementException.class)
         .hasMessage("Unknown SKU: Z");
-
-    verify(products, times(1)).findBySku("Z");
-    verifyNoMoreInteractions(products, rules);
+    assertThat(registry.get("checkout.unknown.sku").counter().count()).isEqualTo(1.0);
   }
 
   @Test
+  @DisplayName("Records phase timers, basket summaries and offers by rule type")
+  void recordsMetrics() {
+    catalogOf(
+        List.of(product("A", "50.00"), product("B", "30.00")),
+        List.of(bulk("A", 3, "130.00", null)));
+
+    service.priceOfWithDetails("AAAB");
+
+    for (String phase : List.of("parse", "catalog", "rules")) {
+      assertThat(registry.get("checkout.phase").tag("phase", phase).timer().count()).isEqualTo(1);
+    }
+    assertThat(registry.get("checkout.price").timer().count()).isEqualTo(1);
+    assertThat(registry.get("checkout.basket.units").summary().totalAmount()).isEqualTo(4.0);
+    assertThat(registry.get("checkout.basket.distinct.skus").summary().totalAmount())
+        .isEqualTo(2.0);
+    assertThat(
+            registry
+                .get("checkout.offers.applied")
+                .tag("rule_type", "BULK_X_FOR_Y")
+                .counter()
+                .count())
+        .isEqualTo(1.0);
+  }
+
+  @ParameterizedTest(name = "[{index}] mode={0}")
+  @EnumSource(PricingMode.class)
   @DisplayName("Mixed sequence with qty=1 each -> sums unit prices")
-  void mixedNoBundles() {
-    when(products.findBySku("A")).thenReturn(Optional.of(product("A", "50.00")));
-    when(products.findBySku("C")).thenReturn(Optional.of(product("C", "20.00")));
+  void mixedNoBundles(PricingMode mode) {
+    service =
+        new CheckoutService(catalog, metrics, audit, quotes, Clock.systemUTC(), mode, 1_000_000);
+    catalogOf(List.of(product("A", "50.00"), product("C", "20.00")), List.of());
 
     var total = service.priceOf("Ca"); // case mix
 
     assertThat(total).isEqualByComparingTo("70.00");
+  }
 
-    verify(products, times(1)).findBySku("A");
-    verify(products, times(1)).findBySku("C");
-    verify(rules, times(1)).findActiveBySkuAt(eq("A"), any(OffsetDateTime.class));
-    verify(rules, times(1)).findActiveBySkuAt(eq("C"), any(OffsetDateTime.class));
-    verifyNoMoreInteractions(products, rules);
+  @ParameterizedTest(name = "[{index}] mode={0}")
+  @EnumSource(PricingMode.class)
+  @DisplayName("Applies only rules that are active now")
+  void appliesOnlyActiveRules(PricingMode mode) {
+    service =
+        new CheckoutService(catalog, metrics, audit, quotes, Clock.systemUTC(), mode, 1_000_000);
+    var now = OffsetDateTime.now();
+    catalogOf(
+        List.of(product("A", "50.00"), product("B", "30.00")),
+        List.of(bulk("A", 3, "130.00", now.minusDays(1)), bulk("B", 2, "45.00", now.plusDays(1))));
+
+    var result = service.priceOfWithDetails("AAABB");
+
+    // A: 3 for 130 applies; B's rule has not started yet -> 2 * 30
+    assertThat(result.total()).isEqualByComparingTo("190.00");
+    assertThat(result.total().scale()).isEqualTo(2);
+    assertThat(result.offers()).singleElement().satisfies(o -> assertThat(o.sku()).isEqualTo("A"));
+  }
+
+  @ParameterizedTest(name = "[{index}] mode={0}")
+  @EnumSource(PricingMode.class)
+  @DisplayName("A rule applies from its start through its end instant on the injected clock")
+  void flipsExactlyAtRuleBoundaries(PricingMode mode) {
+    var starts = OffsetDateTime.now().plusDays(1);
+    var ends = starts.plusHours(1);
+    catalogOf(
+        List.of(product("A", "50.00")),
+        List.of(
+            new PricingRule(
+                "A", RuleType.BULK_X_FOR_Y, 3, new BigDecimal("130.00"), starts, ends)));
+
+    assertThat(priceAt(mode, starts.minusNanos(1))).isEqualByComparingTo("150.00");
+    assertThat(priceAt(mode, starts)).isEqualByComparingTo("130.00");
+    assertThat(priceAt(mode, ends)).isEqualByComparingTo("130.00");
+    assertThat(priceAt(mode, ends.plusNanos(1))).isEqualByComparingTo("150.00");
+  }
+
+  private BigDecimal priceAt(PricingMode mode, OffsetDateTime at) {
+    var clock = Clock.fixed(at.toInstant(), at.getOffset());
+    return new CheckoutService(catalog, metrics, audit, quotes, clock, mode, 1_000_000)
+        .priceOf("AAA");
+  }
+
+  @Test
+  @DisplayName("Count-based baskets are priced per SKU and bounded by max-units")
+  void countBasedBaskets() {
+    catalogOf(List.of(product("A", "50.00")), List.of(bulk("A", 3, "130.00", null)));
+
+    var result = service.priceOfWithDetails(BasketCounts.parseRunLength("A300000"));
+
+    assertThat(result.total()).isEqualByComparingTo("13000000.00");
+    assertThatThrownBy(() -> service.priceOfWithDetails(BasketCounts.parseRunLength("A1000001")))
+        .isInstanceOf(InvalidBasketException.class)
+        .hasMessage("Basket exceeds 1000000 units");
+  }
+
+  @Test
+  @DisplayName("Letter strings and pinned baskets are bounded by max-units too")
+  void everyShapeIsBounded() {
+    service =
+        new CheckoutService(
+            catalog, metrics, audit, quotes, Clock.systemUTC(), PricingMode.COMPILED, 10);
+    catalogOf(List.of(product("A", "50.00")), List.of());
+
+    assertThat(service.priceOf("A".repeat(10))).isEqualByComparingTo("500.00");
+    assertThatThrownBy(() -> service.priceOfWithDetails("A".repeat(11)))
+        .isInstanceOf(InvalidBasketException.class)
+        .hasMessage("Basket exceeds 10 units");
+    assertThat(service.pinned().apply("A".repeat(11)).error()).isEqualTo("Basket exceeds 10 units");
+    assertThat(service.pinnedCounts().apply(BasketCounts.parseRunLength("A11")).error())
+        .isEqualTo("Basket exceeds 10 units");
   }
 
   @Test
-  @DisplayName("Queries rules for each resolved product SKU (A & D)")
-  void queriesRulesForEachResolvedSku() {
-    when(products.findBySku("A")).thenReturn(Optional.of(product("A", "50.00")));
-    when(products.findBySku("D")).thenReturn(Optional.of(product("D", "15.00")));
-
-    service.priceOf("AD");
-
-    ArgumentCaptor<String> skuCaptor = ArgumentCaptor.forClass(String.class);
-    ArgumentCaptor<OffsetDateTime> skuCaptor2 = ArgumentCaptor.forClass(OffsetDateTime.class);
-    verify(rules, times(2)).findActiveBySkuAt(skuCaptor.capture(), skuCaptor2.capture());
-    assertThat(skuCaptor.getAllValues()).containsExactlyInAnyOrder("A", "D");
-    assertThat(skuCaptor2.getAllValues())
-        .allSatisfy(
-            dt -> {
-              assertThat(dt).isBeforeOrEqualTo(OffsetDateTime.now());
-            });
+  @DisplayName("A total that overflows is an invalid basket, not a server error")
+  void overflowIsInvalidBasket() {
+    catalogOf(List.of(product("A", "50000000000000000.00")), List.of());
+
+    assertThatThrownBy(() -> service.priceOfWithDetails("AA"))
+        .isInstanceOf(InvalidBasketException.class)
+        .hasMessage("Basket total out of range");
   }
 }
@@ -0,0 +1,118 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.service.CheckoutWarmup.Reason;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+class CheckoutWarmupTest {
+  final CatalogSnapshotHolder catalog = mock(CatalogSnapshotHolder.class);
+  final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  final QuoteCache quotes = new QuoteCache(registry, true, DataSize.ofMegabytes(1));
+  final CheckoutService checkout =
+      new CheckoutService(
+          catalog,
+          new CheckoutMetrics(registry),
+          new PricingAuditLog(registry, 16, 1.0),
+          quotes,
+          Clock.systemUTC(),
+          PricingMode.COMPILED,
+          1_000_000);
+
+  private CheckoutWarmup warmup(int iterations, int minIterations, double tolerance) {
+    return new CheckoutWarmup(
+        catalog,
+        checkout,
+        new ObjectMapper(),
+        Validation.buildDefaultValidatorFactory().getValidator(),
+        registry,
+        true,
+        iterations,
+        minIterations,
+        100,
+        tolerance,
+        Duration.ofMinutes(1));
+  }
+
+  private void catalogOf(List<Product> products) {
+    var snapshot =
+        CatalogSnapshot.of(
+            1L,
+            products,
+            List.of(
+                new PricingRule(
+                    "A", RuleType.BULK_X_FOR_Y, 3, new BigDecimal("130.00"), null, null)));
+    when(catalog.refresh()).thenReturn(snapshot);
+    when(catalog.current()).thenReturn(snapshot);
+  }
+
+  @Test
+  @DisplayName("Readiness stays DOWN until the configured number of baskets has been priced")
+  void runsToIterationCount() {
+    catalogOf(
+        List.of(
+            new Product("A", new BigDecimal("50.00")), new Product("B", new BigDecimal("30.00"))));
+    var w = warmup(350, 10_000, 0.1);
+
+    assertThat(w.health().getStatus()).isEqualTo(Status.DOWN);
+    w.run(null);
+
+    assertThat(w.result().reason()).isEqualTo(Reason.ITERATIONS);
+    assertThat(w.result().done()).isEqualTo(350);
+    assertThat(w.health().getStatus()).isEqualTo(Status.UP);
+    // priced through CheckoutService, but kept out of its meters, audit trail and quote cache
+    verify(catalog, atLeastOnce()).current();
+    assertThat(registry.get("checkout.price").timer().count()).isZero();
+    assertThat(registry.get("checkout.audit.published").counter().count()).isZero();
+    assertThat(quotes.estimatedSize()).isZero();
+    assertThat(registry.get("checkout.warmup.duration").timeGauge().value()).isPositive();
+    assertThat(registry.get("checkout.warmup.iterations").gauge().value()).isEqualTo(350);
+    verify(catalog).refresh();
+  }
+
+  @Test
+  @DisplayName("Stops early once two consecutive rounds have similar latency")
+  void stopsOnStableLatency() {
+    catalogOf(List.of(new Product("A", new BigDecimal("50.00"))));
+    var w = warmup(10_000, 0, Double.MAX_VALUE);
+
+    w.run(null);
+
+    assertThat(w.result().reason()).isEqualTo(Reason.STABLE);
+    assertThat(w.result().done()).isEqualTo(200);
+  }
+
+  @Test
+  @DisplayName("An empty catalog or a failed load releases readiness without pricing anything")
+  void nothingToWarm() {
+    when(catalog.refresh()).thenReturn(CatalogSnapshot.empty());
+    var empty = warmup(1_000, 0, 0.1);
+    empty.run(null);
+
+    when(catalog.refresh()).thenThrow(new IllegalStateException("db down"));
+    var failed = warmup(1_000, 0, 0.1);
+    failed.run(null);
+
+    assertThat(empty.result().reason()).isEqualTo(Reason.EMPTY_CATALOG);
+    assertThat(failed.result().reason()).isEqualTo(Reason.FAILED);
+    assertThat(failed.health().getStatus()).isEqualTo(Status.UP);
+    verify(catalog, never()).current();
+  }
+}
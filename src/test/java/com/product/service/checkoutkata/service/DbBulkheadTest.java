@@ -0,0 +1,100 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DbBulkheadTest {
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("Sized to the pool minus the reserved connections, never below one")
+  void sizing() {
+    assertThat(new DbBulkhead(10, 2, Duration.ofMillis(10), 1, registry).size()).isEqualTo(8);
+    assertThat(new DbBulkhead(2, 5, Duration.ofMillis(10), 1, registry).size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Rejects after the queue timeout when every permit is held")
+  void rejectsWhenFull() throws Exception {
+    var bulkhead = new DbBulkhead(3, 2, Duration.ofMillis(20), 1, registry);
+    var holding = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var holder =
+        new Thread(
+            () ->
+                bulkhead.call(
+                    () -> {
+                      holding.countDown();
+                      try {
+                        return release.await(5, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                      }
+                    }));
+    holder.start();
+    assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThatThrownBy(() -> bulkhead.call(() -> "x")).isInstanceOf(BulkheadFullException.class);
+    assertThat(registry.get("checkout.db.bulkhead.rejected").counter().count()).isEqualTo(1.0);
+    assertThat(registry.get("checkout.db.bulkhead.in.use").gauge().value()).isEqualTo(1.0);
+
+    release.countDown();
+    holder.join();
+    assertThat(bulkhead.call(() -> "x")).isEqualTo("x");
+  }
+
+  @Test
+  @DisplayName("Exports beyond their own budget are rejected while other calls still get permits")
+  void budgetsExports() throws Exception {
+    var bulkhead = new DbBulkhead(10, 2, Duration.ofMillis(20), 1, registry);
+    var exporting = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var exporter =
+        new Thread(
+            () ->
+                bulkhead.callExport(
+                    () -> {
+                      exporting.countDown();
+                      try {
+                        return release.await(5, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                      }
+                    }));
+    exporter.start();
+    assertThat(exporting.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThatThrownBy(() -> bulkhead.callExport(() -> "x"))
+        .isInstanceOf(BulkheadFullException.class);
+    assertThat(bulkhead.call(() -> "x")).isEqualTo("x");
+    assertThat(registry.get("checkout.db.bulkhead.in.use").gauge().value()).isEqualTo(1.0);
+
+    release.countDown();
+    exporter.join();
+    assertThat(bulkhead.callExport(() -> "x")).isEqualTo("x");
+  }
+
+  @Test
+  @DisplayName("Releases the permit when the work throws")
+  void releasesOnFailure() {
+    var bulkhead = new DbBulkhead(1, 0, Duration.ofMillis(10), 1, registry);
+
+    assertThatThrownBy(
+            () ->
+                bulkhead.call(
+                    () -> {
+                      throw new IllegalStateException("boom");
+                    }))
+        .hasMessage("boom");
+    assertThat(bulkhead.call(() -> 42)).isEqualTo(42);
+  }
+}
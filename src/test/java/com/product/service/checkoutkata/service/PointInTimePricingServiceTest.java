@@ -0,0 +1,107 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.PricingRuleVersion;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.ProductPriceVersion;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class PointInTimePricingServiceTest {
+  private static final OffsetDateTime NOW =
+      OffsetDateTime.of(2025, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+  @Mock CatalogSnapshotHolder catalog;
+  @Mock CatalogHistoryHolder history;
+  PointInTimePricingService service;
+
+  @BeforeEach
+  void setUp() {
+    service =
+        new PointInTimePricingService(
+            catalog,
+            history,
+            new CheckoutMetrics(new SimpleMeterRegistry()),
+            Clock.fixed(NOW.toInstant(), ZoneOffset.UTC),
+            PricingMode.COMPILED,
+            1_000);
+  }
+
+  private static PricingRule bulk(String y) {
+    return new PricingRule("A", RuleType.BULK_X_FOR_Y, 3, new BigDecimal(y), null, null);
+  }
+
+  @Test
+  @DisplayName("Past instants use the rule as it read then, even though it was edited since")
+  void pastUsesHistory() {
+    var edited = NOW.minusDays(1);
+    when(history.current())
+        .thenReturn(
+            CatalogHistory.of(
+                1L,
+                List.of(new ProductPriceVersion("A", new BigDecimal("50.00"), null, null)),
+                List.of(
+                    new PricingRuleVersion(1L, bulk("130.00"), null, edited),
+                    new PricingRuleVersion(1L, bulk("120.00"), edited, null))));
+
+    var before = service.priceAsOf(BasketCounts.parse("AAA"), edited.minusHours(1).toInstant());
+    var after = service.priceAsOf(BasketCounts.parse("AAA"), edited.toInstant());
+
+    assertThat(before.total()).isEqualByComparingTo("130.00");
+    assertThat(after.total()).isEqualByComparingTo("120.00");
+    verifyNoInteractions(catalog);
+  }
+
+  @Test
+  @DisplayName("Now and future instants use the live snapshot, including scheduled rules")
+  void futureUsesLiveSnapshot() {
+    var starts = NOW.plusDays(1);
+    when(catalog.current())
+        .thenReturn(
+            CatalogSnapshot.of(
+                1L,
+                List.of(new Product("A", new BigDecimal("50.00"))),
+                List.of(
+                    new PricingRule(
+                        "A", RuleType.BULK_X_FOR_Y, 3, new BigDecimal("100.00"), starts, null)),
+                NOW,
+                16));
+
+    assertThat(service.priceAsOf(BasketCounts.parse("AAA"), NOW.toInstant()).total())
+        .isEqualByComparingTo("150.00");
+    assertThat(service.priceAsOf(BasketCounts.parse("AAA"), starts.toInstant()).total())
+        .isEqualByComparingTo("100.00");
+    verifyNoInteractions(history);
+  }
+
+  @Test
+  @DisplayName("A SKU that did not exist at the instant is unknown")
+  void unknownThen() {
+    when(history.current()).thenReturn(CatalogHistory.of(1L, List.of(), List.of()));
+
+    assertThatThrownBy(
+            () -> service.priceAsOf(BasketCounts.parse("A"), Instant.parse("2020-01-01T00:00:00Z")))
+        .isInstanceOf(NoSuchElementException.class)
+        .hasMessage("Unknown SKU: A");
+  }
+}
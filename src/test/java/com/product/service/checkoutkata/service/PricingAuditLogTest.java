@@ -0,0 +1,110 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PricingAuditLogTest {
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private static PricingResult result() {
+    return new PricingResult(new BigDecimal("50.00"), List.of(), BasketCounts.parse("A"));
+  }
+
+  @Test
+  @DisplayName("Full buffer drops and counts instead of blocking")
+  void dropsWhenFull() {
+    var audit = new PricingAuditLog(registry, 4, 1.0);
+
+    for (int i = 0; i < 10; i++) audit.record(result(), 1L);
+
+    assertThat(registry.get("checkout.audit.published").counter().count()).isEqualTo(4.0);
+    assertThat(registry.get("checkout.audit.dropped").counter().count()).isEqualTo(6.0);
+    assertThat(registry.get("checkout.audit.queue.depth").gauge().value()).isEqualTo(4.0);
+    assertThat(audit.flush()).isEqualTo(4);
+    assertThat(registry.get("checkout.audit.queue.depth").gauge().value()).isZero();
+  }
+
+  @Test
+  @DisplayName("Sample rate 0 records nothing")
+  void samplingOff() {
+    var audit = new PricingAuditLog(registry, 4, 0.0);
+
+    audit.record(result(), 1L);
+
+    assertThat(registry.get("checkout.audit.published").counter().count()).isZero();
+    assertThat(audit.flush()).isZero();
+  }
+
+  @Test
+  @DisplayName("Idle worker parks until an event arrives instead of polling")
+  void idleWorkerParks() throws Exception {
+    var audit = new PricingAuditLog(registry, 16, 1.0);
+    audit.start();
+    try {
+      var worker = (Thread) ReflectionTestUtils.getField(audit, "worker");
+      awaitState(worker, Thread.State.WAITING);
+
+      for (int i = 0; i < 3; i++) {
+        audit.record(result(), 1L);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("checkout.audit.queue.depth").gauge().value() > 0) {
+          assertThat(System.nanoTime()).isLessThan(deadline);
+          Thread.sleep(1);
+        }
+        awaitState(worker, Thread.State.WAITING);
+      }
+    } finally {
+      audit.stop();
+    }
+    assertThat(audit.isRunning()).isFalse();
+  }
+
+  private static void awaitState(Thread t, Thread.State state) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (t.getState() != state) {
+      assertThat(System.nanoTime()).as("worker state %s", t.getState()).isLessThan(deadline);
+      Thread.sleep(1);
+    }
+  }
+
+  @Test
+  @DisplayName("Ring buffer keeps every accepted element exactly once under concurrent producers")
+  void ringBufferUnderContention() throws Exception {
+    var ring = new MpscRingBuffer<Integer>(1 << 16);
+    int producers = 4;
+    int perProducer = 10_000;
+    ExecutorService pool = Executors.newFixedThreadPool(producers);
+    CountDownLatch start = new CountDownLatch(1);
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      pool.submit(
+          () -> {
+            start.await();
+            for (int i = 0; i < perProducer; i++) ring.offer(base + i);
+            return null;
+          });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    List<Integer> drained = new ArrayList<>();
+    ring.drain(drained::add, Integer.MAX_VALUE);
+
+    assertThat(drained).hasSize(producers * perProducer).doesNotHaveDuplicates();
+    assertThat(ring.size()).isZero();
+  }
+}
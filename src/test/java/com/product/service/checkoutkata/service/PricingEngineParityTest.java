@@ -0,0 +1,52 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Size;
+
+/** Fixed-point pricing must be indistinguishable from the {@link BigDecimal} engine. */
+class PricingEngineParityTest {
+  private final PricingEngine engine = new PricingEngine();
+
+  @Property(tries = 2000)
+  void fixedPointMatchesDecimal(
+      @ForAll @IntRange(min = -5, max = 5_000) int qty,
+      @ForAll @LongRange(min = 0, max = 10_000_000) long unitCents,
+      @ForAll @Size(max = 4) List<@From("rules") PricingRule> rules) {
+
+    PricingResult decimal = engine.priceForWithDetails(qty, Money.fromCents(unitCents), rules);
+    PricingResult fixed =
+        engine.priceForWithDetails(
+            qty,
+            unitCents,
+            rules.stream().map(FixedPointRule::of).filter(Objects::nonNull).toList());
+
+    // equals() on BigDecimal is scale-sensitive, so this also pins the JSON rendering
+    assertThat(fixed.total()).isEqualTo(decimal.total());
+    assertThat(fixed.offers()).isEqualTo(decimal.offers());
+  }
+
+  @Property(tries = 200)
+  void centsRoundTrip(@ForAll @LongRange(min = -1_000_000_000, max = 1_000_000_000) long cents) {
+    assertThat(Money.toCents(Money.fromCents(cents))).isEqualTo(cents);
+  }
+
+  @Provide
+  Arbitrary<PricingRule> rules() {
+    Arbitrary<Integer> xQty = Arbitraries.integers().between(1, 12).injectNull(0.1);
+    Arbitrary<BigDecimal> yPrice =
+        Arbitraries.longs().between(0, 5_000_000).map(Money::fromCents).injectNull(0.1);
+    return Combinators.combine(xQty, yPrice)
+        .as((x, y) -> new PricingRule("A", RuleType.BULK_X_FOR_Y, x, y, null, null));
+  }
+}
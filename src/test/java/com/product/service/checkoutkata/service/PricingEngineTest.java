@@ -1,6 +1,7 @@
 package com.product.service.checkoutkata.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 
 import com.product.service.checkoutkata.domain.PricingRule;
 import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.dto.OfferApplied;
 
 class PricingEngineTest {
   private final PricingEngine engine = new PricingEngine();
@@ -125,32 +127,55 @@ class PricingEngineTest {
   }
 
   @Nested
-  @DisplayName("Multiple rules (order matters)")
+  @DisplayName("Multiple rules (cheapest combination)")
   class MultipleRules {
     @Test
-    void appliesRulesInGivenOrder() {
-      // Rules: first 5-for-200, then 3-for-130; qty=8, unit=50
-      // Apply 5-for-200 -> 1 bundle, remaining 3
-      // Then 3-for-130 -> 1 bundle, remaining 0
-      // Total = 200 + 130 = 330
+    void combinesBundleSizes() {
+      // 5-for-200 and 3-for-130; qty=8, unit=50 -> 200 + 130 = 330
       var r1 = bulk(5, "200.00");
       var r2 = bulk(3, "130.00");
 
-      var total = engine.priceFor(8, new BigDecimal("50.00"), List.of(r1, r2));
-      assertThat(total).isEqualByComparingTo("330.00");
+      var result = engine.priceForWithDetails(8, new BigDecimal("50.00"), List.of(r1, r2));
+      assertThat(result.total()).isEqualByComparingTo("330.00");
+      assertThat(result.offers())
+          .extracting(
+              OfferApplied::bundleSize, OfferApplied::bundlesApplied, OfferApplied::remainder)
+          .containsExactly(tuple(5, 1, 3), tuple(3, 1, 0));
     }
 
     @Test
-    void reversedOrderYieldsDifferentResult() {
-      // Reverse: first 3-for-130, then 5-for-200; qty=8, unit=50
-      // 3-for-130 -> bundles=2 (6 items) => 260, remaining 2
-      // 5-for-200 can't apply to remaining 2 -> + 2 * 50 = 100
-      // Total = 360
+    void ruleOrderDoesNotMatter() {
+      // the greedy engine charged 360 for 3-for-130 listed first; optimal is still 330
       var r1 = bulk(3, "130.00");
       var r2 = bulk(5, "200.00");
 
       var total = engine.priceFor(8, new BigDecimal("50.00"), List.of(r1, r2));
-      assertThat(total).isEqualByComparingTo("360.00");
+      assertThat(total).isEqualByComparingTo("330.00");
+    }
+
+    @Test
+    void skipsBundleWhenSmallerOnesAreCheaper() {
+      // 6-for-280 loses to two 3-for-130 bundles (260)
+      var total =
+          engine.priceFor(
+              6, new BigDecimal("50.00"), List.of(bulk(6, "280.00"), bulk(3, "130.00")));
+      assertThat(total).isEqualByComparingTo("260.00");
+    }
+
+    @Test
+    void beatsGreedyLargestFirst() {
+      // 4-for-100 and 3-for-72 (unit 30); qty=6 -> greedy 4+2 singles = 160, optimal 3+3 = 144
+      var total =
+          engine.priceFor(6, new BigDecimal("30.00"), List.of(bulk(4, "100.00"), bulk(3, "72.00")));
+      assertThat(total).isEqualByComparingTo("144.00");
+    }
+
+    @Test
+    void breakEvenBundleIsStillReported() {
+      var result =
+          engine.priceForWithDetails(3, new BigDecimal("50.00"), List.of(bulk(3, "150.00")));
+      assertThat(result.total()).isEqualByComparingTo("150.00");
+      assertThat(result.offers()).hasSize(1);
     }
   }
 }
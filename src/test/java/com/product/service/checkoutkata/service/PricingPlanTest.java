@@ -0,0 +1,134 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.RuleType;
+import com.product.service.checkoutkata.dto.OfferApplied;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Size;
+
+class PricingPlanTest {
+  private final PricingEngine engine = new PricingEngine();
+
+  private static PricingRule bulk(int x, String y, OffsetDateTime from, OffsetDateTime to) {
+    return new PricingRule("A", RuleType.BULK_X_FOR_Y, x, new BigDecimal(y), from, to);
+  }
+
+  private static List<FixedPointRule> fixed(List<PricingRule> rules) {
+    return rules.stream().map(FixedPointRule::of).filter(Objects::nonNull).toList();
+  }
+
+  private static PricingPlan plan(List<PricingRule> rules, int tableSize) {
+    return PricingPlan.compile("A", 5000, fixed(rules), tableSize);
+  }
+
+  @Property(tries = 1000)
+  void matchesEngineInsideAndBeyondTheTable(
+      @ForAll @IntRange(min = 0, max = 200) int qty,
+      @ForAll @IntRange(min = 0, max = 64) int tableSize,
+      @ForAll @LongRange(min = 0, max = 1_000_000) long unitCents,
+      @ForAll @Size(max = 4) List<@From("rules") PricingRule> rules) {
+    var compiled = PricingPlan.compile("A", unitCents, fixed(rules), tableSize);
+    var expected = engine.priceForWithDetails(qty, unitCents, fixed(rules));
+
+    var actual = compiled.price(qty);
+
+    assertThat(actual.total()).isEqualTo(expected.total());
+    assertThat(actual.offers()).isEqualTo(expected.offers());
+  }
+
+  @Provide
+  Arbitrary<PricingRule> rules() {
+    Arbitrary<Integer> xQty = Arbitraries.integers().between(1, 12);
+    Arbitrary<BigDecimal> yPrice = Arbitraries.longs().between(0, 500_000).map(Money::fromCents);
+    return Combinators.combine(xQty, yPrice)
+        .as((x, y) -> new PricingRule("A", RuleType.BULK_X_FOR_Y, x, y, null, null));
+  }
+
+  @Test
+  @DisplayName("Table lookup at the bound and closed form above it agree with the rules")
+  void tableAndClosedForm() {
+    var p = plan(List.of(bulk(3, "130.00", null, null)), 8);
+
+    List<OfferApplied> atBound = new ArrayList<>();
+    List<OfferApplied> beyond = new ArrayList<>();
+    long totalAtBound = p.priceInto(8, atBound);
+    long totalBeyond = p.priceInto(9, beyond);
+
+    assertThat(p.tableSize()).isEqualTo(8);
+    assertThat(totalAtBound).isEqualTo(2 * 13000 + 2 * 5000);
+    assertThat(totalBeyond).isEqualTo(3 * 13000);
+    assertThat(atBound).singleElement().extracting(OfferApplied::remainder).isEqualTo(2);
+    assertThat(beyond).singleElement().extracting(OfferApplied::bundlesApplied).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("A SKU without rules needs no table")
+  void noRulesNoTable() {
+    var p = plan(List.of(), 64);
+    assertThat(p.tableSize()).isZero();
+    assertThat(p.price(7).total()).isEqualByComparingTo("350.00");
+    assertThat(p.price(0).total()).isEqualByComparingTo("0.00");
+  }
+
+  @Test
+  @DisplayName("Snapshot entries switch to the next precompiled plan at a rule boundary")
+  void switchesPlanAtRuleBoundary() {
+    var now = OffsetDateTime.now();
+    var startsTomorrow = bulk(3, "130.00", now.plusDays(1), null);
+    var entry =
+        CatalogSnapshot.of(
+                1L,
+                List.of(new Product("A", new BigDecimal("50.00"))),
+                List.of(startsTomorrow),
+                now,
+                16)
+            .find("A")
+            .orElseThrow();
+
+    var segment = entry.activeAt(now.toInstant());
+    var before = segment.plan();
+    var after = entry.activeAt(now.plusDays(2).toInstant()).plan();
+
+    assertThat(segment.until()).isEqualTo(now.plusDays(1).toInstant());
+    assertThat(before.price(3).total()).isEqualByComparingTo("150.00");
+    assertThat(after.tableSize()).isEqualTo(16);
+    assertThat(after.price(3).total()).isEqualByComparingTo("130.00");
+  }
+
+  @Test
+  @DisplayName("Rule end is inclusive: the plan's segment lasts through endsAt")
+  void endIsInclusive() {
+    var now = OffsetDateTime.now();
+    var ends = now.plusHours(1);
+    var entry =
+        CatalogSnapshot.of(
+                1L,
+                List.of(new Product("A", new BigDecimal("50.00"))),
+                List.of(bulk(3, "130.00", now.minusDays(1), ends)),
+                now,
+                16)
+            .find("A")
+            .orElseThrow();
+
+    var segment = entry.activeAt(now.toInstant());
+    assertThat(entry.activeAt(ends.toInstant())).isSameAs(segment);
+    assertThat(segment.until()).isEqualTo(ends.toInstant().plusNanos(1));
+    assertThat(entry.activeAt(ends.plusSeconds(1).toInstant()).plan().price(3).total())
+        .isEqualByComparingTo("150.00");
+  }
+}
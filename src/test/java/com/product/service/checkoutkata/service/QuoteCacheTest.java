@@ -0,0 +1,134 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.Product;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QuoteCacheTest {
+  static final OffsetDateTime T0 = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  final QuoteCache cache = new QuoteCache(registry, true, DataSize.ofMegabytes(1));
+  final BasketPricer pricer = new BasketPricer(PricingMode.COMPILED, () -> {});
+  final AtomicInteger priced = new AtomicInteger();
+
+  private static Product product(String sku, String price) {
+    return new Product(sku, new BigDecimal(price));
+  }
+
+  private static PricingRule bulk(String sku, int x, String y, OffsetDateTime from) {
+    return new PricingRule(sku, RuleType.BULK_X_FOR_Y, x, new BigDecimal(y), from, null);
+  }
+
+  private static CatalogSnapshot snapshot(
+      long version, CatalogSnapshot previous, String priceOfB, PricingRule... rules) {
+    return CatalogSnapshot.of(
+        version,
+        List.of(product("A", "50.00"), product("B", priceOfB)),
+        List.of(rules),
+        T0,
+        CatalogSnapshot.DEFAULT_PLAN_TABLE_SIZE,
+        previous);
+  }
+
+  private PricingResult price(CatalogSnapshot snapshot, String items, Instant now) {
+    BasketCounts counts = BasketCounts.parse(items);
+    CatalogSnapshot.Entry[] entries = pricer.resolve(counts, snapshot);
+    return cache.get(
+        counts,
+        entries,
+        now,
+        () -> {
+          priced.incrementAndGet();
+          return pricer.price(counts, entries, now);
+        });
+  }
+
+  @Test
+  @DisplayName("Baskets with the same counts share one entry whatever the item order")
+  void keyedByCounts() {
+    var s = snapshot(1, null, "30.00", bulk("A", 3, "130.00", null));
+    var now = T0.toInstant();
+
+    var first = price(s, "AABAB", now);
+    var second = price(s, "BBAAA", now);
+
+    assertThat(priced).hasValue(1);
+    assertThat(second).isSameAs(first);
+    assertThat(second.total()).isEqualByComparingTo("190.00");
+    assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count())
+        .isEqualTo(1.0);
+    assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("A new snapshot only reprices baskets containing the SKUs it changed")
+  void repricesTouchedSkusOnly() {
+    var v1 = snapshot(1, null, "30.00");
+    var now = T0.toInstant();
+    var aa = price(v1, "AA", now);
+    price(v1, "AB", now);
+
+    var v2 = snapshot(2, v1, "35.00");
+    assertThat(v2.find("A").orElseThrow().revision()).isEqualTo(1);
+    assertThat(v2.find("B").orElseThrow().revision()).isEqualTo(2);
+
+    assertThat(price(v2, "AA", now)).isSameAs(aa);
+    assertThat(price(v2, "AB", now).total()).isEqualByComparingTo("85.00");
+    assertThat(priced).hasValue(3);
+  }
+
+  @Test
+  @DisplayName("Crossing a rule boundary prices the basket afresh")
+  void ruleBoundaryChangesKey() {
+    var starts = T0.plusDays(1);
+    var s = snapshot(1, null, "30.00", bulk("A", 3, "130.00", starts));
+
+    assertThat(price(s, "AAA", starts.minusSeconds(1).toInstant()).total())
+        .isEqualByComparingTo("150.00");
+    assertThat(price(s, "AAA", starts.minusNanos(1).toInstant()).total())
+        .isEqualByComparingTo("150.00");
+    assertThat(price(s, "AAA", starts.toInstant()).total()).isEqualByComparingTo("130.00");
+    assertThat(priced).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Disabled, every call is priced and nothing is kept")
+  void disabled() {
+    var disabled = new QuoteCache(new SimpleMeterRegistry(), false, DataSize.ofMegabytes(1));
+    var s = snapshot(1, null, "30.00");
+    var counts = BasketCounts.parse("AB");
+    var entries = pricer.resolve(counts, s);
+    var now = T0.toInstant();
+
+    for (int i = 0; i < 3; i++) {
+      disabled.get(
+          counts,
+          entries,
+          now,
+          () -> {
+            priced.incrementAndGet();
+            return pricer.price(counts, entries, now);
+          });
+    }
+
+    assertThat(priced).hasValue(3);
+    assertThat(disabled.estimatedSize()).isZero();
+  }
+}
@@ -1,101 +1,155 @@
 package com.product.service.checkoutkata.service;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
-import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 
 class RequestIdFilterTest {
-  private final RequestIdFilter filter = new RequestIdFilter();
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private final RequestIdFilter filter = new RequestIdFilter(null);
+  private final RequestContextTurboFilter turbo = new RequestContextTurboFilter();
+
+  private static Logger logger(Level level) {
+    Logger l = (Logger) LoggerFactory.getLogger("request-id-filter-test");
+    l.setLevel(level);
+    return l;
+  }
+
+  private RequestContext contextSeenBy(MockHttpServletRequest req) throws Exception {
+    var seen = new AtomicReference<RequestContext>();
+    filter.doFilter(
+        req, new MockHttpServletResponse(), (r, s) -> seen.set(RequestContext.current()));
+    return seen.get();
+  }
 
   @Test
-  @DisplayName("Uses X-Request-Id header when present and sets method/path")
+  @DisplayName("Uses X-Request-Id header when present and records method/path")
   void usesHeaderWhenPresent() throws Exception {
     var req = new MockHttpServletRequest("GET", "/ping");
-    var res = new MockHttpServletResponse();
     req.addHeader("X-Request-Id", "abc-123");
+    req.addHeader("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
 
-    var seenRequestId = new AtomicReference<String>();
-    var seenMethod = new AtomicReference<String>();
-    var seenPath = new AtomicReference<String>();
+    var ctx = contextSeenBy(req);
 
-    FilterChain chain =
-        (request, response) -> {
-          seenRequestId.set(MDC.get("requestId"));
-          seenMethod.set(MDC.get("method"));
-          seenPath.set(MDC.get("path"));
-        };
+    assertThat(ctx.requestId()).isEqualTo("abc-123");
+    assertThat(ctx.method()).isEqualTo("GET");
+    assertThat(ctx.path()).isEqualTo("/ping");
+    assertThat(RequestContext.current()).isNull();
+  }
 
-    filter.doFilter(req, res, chain);
+  @Test
+  @DisplayName("Reuses the W3C traceparent trace id when there is no X-Request-Id")
+  void reusesTraceparent() throws Exception {
+    var req = new MockHttpServletRequest("GET", "/ping");
+    req.addHeader("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
 
-    assertThat(seenRequestId.get()).isEqualTo("abc-123");
-    assertThat(seenMethod.get()).isEqualTo("GET");
-    assertThat(seenPath.get()).isEqualTo("/ping");
+    assertThat(contextSeenBy(req).requestId()).isEqualTo(TRACE_ID);
+  }
 
-    assertThat(MDC.get("requestId")).isNull();
-    assertThat(MDC.get("method")).isNull();
-    assertThat(MDC.get("path")).isNull();
+  @Test
+  @DisplayName("Falls back to the current tracing span's trace id")
+  void reusesCurrentSpan() throws Exception {
+    Tracer tracer = mock(Tracer.class);
+    Span span = mock(Span.class);
+    TraceContext context = mock(TraceContext.class);
+    when(tracer.currentSpan()).thenReturn(span);
+    when(span.context()).thenReturn(context);
+    when(context.traceId()).thenReturn(TRACE_ID);
+
+    var seen = new AtomicReference<String>();
+    new RequestIdFilter(tracer)
+        .doFilter(
+            new MockHttpServletRequest("GET", "/ping"),
+            new MockHttpServletResponse(),
+            (r, s) -> seen.set(RequestContext.currentRequestId()));
+
+    assertThat(seen.get()).isEqualTo(TRACE_ID);
   }
 
   @Test
-  @DisplayName("Generates UUID when header missing, sets method/path, and clears afterward")
+  @DisplayName(
+      "Generates a 32-hex id when nothing upstream supplies one; malformed traceparent ignored")
   void generatesWhenMissing() throws Exception {
     var req = new MockHttpServletRequest("POST", "/api/v1/checkout/price");
-    var res = new MockHttpServletResponse();
+    req.addHeader("traceparent", "00-" + "0".repeat(32) + "-00f067aa0ba902b7-01");
+
+    var first = contextSeenBy(req).requestId();
+    var second = contextSeenBy(new MockHttpServletRequest("POST", "/x")).requestId();
+
+    assertThat(first).matches("[0-9a-f]{32}").isNotEqualTo(second);
+    assertThat(second).matches("[0-9a-f]{32}");
+  }
 
-    var seenRequestId = new AtomicReference<String>();
-    var seenMethod = new AtomicReference<String>();
-    var seenPath = new AtomicReference<String>();
+  @Test
+  @DisplayName("MDC stays untouched until a log line is emitted, then is filled once and cleared")
+  void populatesMdcLazily() throws Exception {
+    var req = new MockHttpServletRequest("POST", "/api/v1/checkout/price");
+    req.addHeader("X-Request-Id", "abc-123");
+    var before = new AtomicReference<String>();
+    var afterDebug = new AtomicReference<String>();
+    var afterInfo = new AtomicReference<String>();
 
     FilterChain chain =
         (request, response) -> {
-          seenRequestId.set(MDC.get("requestId"));
-          seenMethod.set(MDC.get("method"));
-          seenPath.set(MDC.get("path"));
+          Logger log = logger(Level.INFO);
+          before.set(MDC.get("requestId"));
+          turbo.decide(null, log, Level.DEBUG, "suppressed", null, null);
+          afterDebug.set(MDC.get("requestId"));
+          turbo.decide(null, log, Level.INFO, "written", null, null);
+          afterInfo.set(MDC.get("requestId") + " " + MDC.get("method") + " " + MDC.get("path"));
         };
 
-    filter.doFilter(req, res, chain);
-
-    assertThat(seenRequestId.get()).isNotBlank();
-    assertThatCode(() -> UUID.fromString(seenRequestId.get())).doesNotThrowAnyException();
-
-    assertThat(seenMethod.get()).isEqualTo("POST");
-    assertThat(seenPath.get()).isEqualTo("/api/v1/checkout/price");
+    filter.doFilter(req, new MockHttpServletResponse(), chain);
 
+    assertThat(before.get()).isNull();
+    assertThat(afterDebug.get()).isNull();
+    assertThat(afterInfo.get()).isEqualTo("abc-123 POST /api/v1/checkout/price");
     assertThat(MDC.get("requestId")).isNull();
     assertThat(MDC.get("method")).isNull();
     assertThat(MDC.get("path")).isNull();
   }
 
   @Test
-  @DisplayName("Clears MDC even if downstream throws")
+  @DisplayName("Clears the context and MDC even if downstream throws, keeping unrelated MDC keys")
   void clearsOnException() {
     var req = new MockHttpServletRequest("DELETE", "/danger");
-    var res = new MockHttpServletResponse();
+    MDC.put("traceId", TRACE_ID);
 
     FilterChain throwingChain =
         (request, response) -> {
+          turbo.decide(null, logger(Level.INFO), Level.WARN, "boom", null, null);
           assertThat(MDC.get("requestId")).isNotBlank();
           assertThat(MDC.get("method")).isEqualTo("DELETE");
-          assertThat(MDC.get("path")).isEqualTo("/danger");
           throw new ServletException("boom");
         };
 
-    assertThatThrownBy(() -> filter.doFilter(req, res, throwingChain))
-        .isInstanceOf(ServletException.class)
-        .hasMessage("boom");
-
-    assertThat(MDC.get("requestId")).isNull();
-    assertThat(MDC.get("method")).isNull();
-    assertThat(MDC.get("path")).isNull();
+    try {
+      assertThatThrownBy(() -> filter.doFilter(req, new MockHttpServletResponse(), throwingChain))
+          .isInstanceOf(ServletException.class)
+          .hasMessage("boom");
+
+      assertThat(RequestContext.current()).isNull();
+      assertThat(MDC.get("requestId")).isNull();
+      assertThat(MDC.get("path")).isNull();
+      assertThat(MDC.get("traceId")).isEqualTo(TRACE_ID);
+    } finally {
+      MDC.clear();
+    }
   }
 }
@@ -0,0 +1,84 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.product.service.checkoutkata.domain.PricingRule;
+import com.product.service.checkoutkata.domain.RuleType;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+class RuleTimelineTest {
+  private static final OffsetDateTime T0 =
+      OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private static PricingRule bulk(int x, OffsetDateTime from, OffsetDateTime to) {
+    return new PricingRule("A", RuleType.BULK_X_FOR_Y, x, new BigDecimal("10.00"), from, to);
+  }
+
+  @Property(tries = 500)
+  void activeSetMatchesPerRuleEvaluation(
+      @ForAll @Size(max = 5) List<@From("rules") PricingRule> rules,
+      @ForAll @IntRange(min = -2, max = 12) int compiledAtHour,
+      @ForAll @IntRange(min = -2, max = 12) int atHour,
+      @ForAll @IntRange(min = -1, max = 1) int nanos) {
+    var timeline = RuleTimeline.compile("A", 500, rules, T0.plusHours(compiledAtHour), 8);
+    var at = T0.plusHours(atHour).plusNanos(nanos);
+
+    var expected = rules.stream().filter(r -> r.isActiveAt(at)).toList();
+
+    assertThat(timeline.at(at.toInstant()).rules()).isEqualTo(expected);
+  }
+
+  @Provide
+  Arbitrary<PricingRule> rules() {
+    Arbitrary<OffsetDateTime> bound =
+        Arbitraries.integers().between(0, 10).map(T0::plusHours).injectNull(0.3);
+    return Combinators.combine(Arbitraries.integers().between(1, 5), bound, bound)
+        .as(RuleTimelineTest::bulk);
+  }
+
+  @Test
+  @DisplayName(
+      "Events are each start and the nanosecond after each end, in order and de-duplicated")
+  void eventsAreRuleBoundaries() {
+    var timeline =
+        RuleTimeline.compile(
+            "A",
+            500,
+            List.of(
+                bulk(3, T0, T0.plusHours(2)), bulk(2, T0.plusHours(1), null), bulk(4, T0, null)),
+            T0.minusDays(1),
+            8);
+
+    assertThat(timeline.events())
+        .containsExactly(
+            T0.toInstant(), T0.plusHours(1).toInstant(), T0.plusHours(2).toInstant().plusNanos(1));
+    assertThat(timeline.at(Instant.MIN).rules()).isEmpty();
+    assertThat(timeline.at(T0.plusHours(1).toInstant()).rules()).hasSize(3);
+  }
+
+  @Test
+  @DisplayName("Segments before the compile instant are resolved on demand, without a table")
+  void pastSegmentsResolvedOnDemand() {
+    var timeline =
+        RuleTimeline.compile("A", 500, List.of(bulk(3, T0, T0.plusHours(1))), T0.plusHours(5), 8);
+
+    var past = timeline.at(T0.toInstant());
+
+    assertThat(past.rules()).hasSize(1);
+    assertThat(past.plan().tableSize()).isZero();
+    assertThat(timeline.at(T0.plusHours(6).toInstant()).plan().tableSize()).isZero();
+    assertThat(timeline.at(T0.plusHours(6).toInstant())).isSameAs(timeline.at(Instant.MAX));
+  }
+}
@@ -0,0 +1,41 @@
+package com.product.service.checkoutkata.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SkuDictionaryTest {
+  private final SkuDictionary dictionary = new SkuDictionary();
+
+  @Test
+  @DisplayName("Ids are dense, stable across interns and never reassigned")
+  void appendOnlyIds() {
+    dictionary.internAll(List.of("B", "APPLE-1", "B"));
+    var before = dictionary.table();
+    dictionary.internAll(List.of("APPLE-1", "PEAR_2", "A"));
+    var after = dictionary.table();
+
+    assertThat(dictionary.size()).isEqualTo(4);
+    assertThat(after.idOf("B")).isEqualTo(before.idOf("B")).isZero();
+    assertThat(after.idOf("APPLE-1")).isEqualTo(1);
+    assertThat(after.nameOf(2)).isEqualTo("PEAR_2");
+    assertThat(before.idOf("PEAR_2")).isEqualTo(-1);
+  }
+
+  @Test
+  @DisplayName("Lookups match a region of the input case-insensitively")
+  void looksUpRegions() {
+    dictionary.internAll(List.of("A", "APPLE-1", "PEAR_2"));
+    var table = dictionary.table();
+
+    assertThat(table.idOf("x apple-1,", 2, 9)).isEqualTo(1);
+    assertThat(table.idOf("Pear_2", 0, 6)).isEqualTo(2);
+    assertThat(table.idOf("APPLE", 0, 5)).isEqualTo(-1);
+    assertThat(table.idOfLetter('a')).isZero();
+    assertThat(table.idOfLetter('B')).isEqualTo(-1);
+    assertThat(table.idOfLetter('1')).isEqualTo(-1);
+  }
+}